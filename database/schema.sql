@@ -1,6 +1,10 @@
 -- ================================
 -- Hotel Reservation System Schema
 -- SQLite Database
+--
+-- Reference only: the application creates and upgrades the database
+-- through the versioned migrations in com.hotelapp.utils.Migrations
+-- (tracked with PRAGMA user_version and the schema_migrations table).
 -- ================================
 
 PRAGMA foreign_keys = ON;
@@ -29,19 +33,25 @@ CREATE TABLE IF NOT EXISTS customers (
   email TEXT,
   address TEXT,
   nid_passport TEXT,
-  created_at TEXT DEFAULT CURRENT_TIMESTAMP
+  created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+  -- normalized identity for findOrCreate (see CustomerIdentityIndex, Migrations v6);
+  -- NULL on rows that duplicate an older customer's identity
+  name_key TEXT,
+  phone_norm TEXT
 );
 
+CREATE UNIQUE INDEX IF NOT EXISTS idx_customers_identity ON customers(name_key, phone_norm);
+
 -- ================================
 -- Reservations table
--- Dates stored as ISO: yyyy-MM-dd
+-- Dates stored as epoch days (days since 1970-01-01, LocalDate.toEpochDay())
 -- ================================
 CREATE TABLE IF NOT EXISTS reservations (
   id INTEGER PRIMARY KEY AUTOINCREMENT,
   customer_id INTEGER NOT NULL,
   room_id INTEGER NOT NULL,
-  checkin TEXT NOT NULL,      -- inclusive
-  checkout TEXT NOT NULL,     -- exclusive
+  checkin INTEGER NOT NULL,   -- inclusive
+  checkout INTEGER NOT NULL,  -- exclusive
   status TEXT NOT NULL,       -- CONFIRMED, CANCELLED, COMPLETED
   total REAL NOT NULL,
   created_at TEXT DEFAULT CURRENT_TIMESTAMP,
@@ -50,8 +60,53 @@ CREATE TABLE IF NOT EXISTS reservations (
   FOREIGN KEY(room_id) REFERENCES rooms(id) ON DELETE CASCADE
 );
 
-CREATE INDEX IF NOT EXISTS idx_res_room ON reservations(room_id);
+CREATE INDEX IF NOT EXISTS idx_res_availability ON reservations(room_id, status, checkin, checkout);
 CREATE INDEX IF NOT EXISTS idx_res_checkin ON reservations(checkin);
+CREATE INDEX IF NOT EXISTS idx_res_checkout ON reservations(checkout);
+CREATE INDEX IF NOT EXISTS idx_res_customer ON reservations(customer_id);
+
+-- ================================
+-- Customer aggregates (Guests screen)
+-- One row per customer with reservations; each row is recomputed
+-- by AFTER INSERT/UPDATE/DELETE triggers on reservations
+-- (trg_customer_stats_*, see Migrations v4)
+-- ================================
+CREATE TABLE IF NOT EXISTS customer_stats (
+  customer_id INTEGER PRIMARY KEY,
+  reservation_count INTEGER NOT NULL,
+  lifetime_spend REAL NOT NULL,   -- non-cancelled totals
+  last_stay INTEGER,              -- latest non-cancelled checkin (epoch day)
+  active_stays INTEGER NOT NULL   -- CONFIRMED + CHECKED_IN
+);
+
+-- ================================
+-- Guest search index
+-- External-content FTS5 table over customers, kept in sync by
+-- trg_customers_fts_* triggers (see Migrations v5)
+-- ================================
+CREATE VIRTUAL TABLE IF NOT EXISTS customers_fts USING fts5(
+  name, phone, nid_passport, address,
+  content='customers', content_rowid='id',
+  tokenize='unicode61 remove_diacritics 2', prefix='2 3'
+);
+
+CREATE INDEX IF NOT EXISTS idx_customers_phone ON customers(phone);
+CREATE INDEX IF NOT EXISTS idx_customers_nid ON customers(nid_passport);
+
+-- ================================
+-- Rate rules (see RateCalendar, Migrations v7)
+-- WEEKEND / SEASON multiply rooms.price, OVERRIDE sets the nightly rate;
+-- days are epoch days, [start_day, end_day), NULL = open-ended
+-- ================================
+CREATE TABLE IF NOT EXISTS rate_rules (
+  id INTEGER PRIMARY KEY AUTOINCREMENT,
+  room_type TEXT,                -- NULL = every room type
+  kind TEXT NOT NULL CHECK (kind IN ('WEEKEND', 'SEASON', 'OVERRIDE')),
+  start_day INTEGER,
+  end_day INTEGER,
+  rate REAL NOT NULL,
+  created_at TEXT DEFAULT CURRENT_TIMESTAMP
+);
 
 -- ================================
 -- Users table (for login system)
@@ -76,17 +131,12 @@ VALUES ('admin', 'admin', 'ADMIN');
 -- INSERT INTO rooms (room_number, type, price, status) VALUES ('201', 'Deluxe', 75.00, 'FREE');
 -- INSERT INTO rooms (room_number, type, price, status) VALUES ('301', 'Suite', 120.00, 'MAINTENANCE');
 
--- ================================
--- Migration: Add new customer fields and update room status
--- ================================
-ALTER TABLE customers ADD COLUMN address TEXT;
-ALTER TABLE customers ADD COLUMN nid_passport TEXT;
-UPDATE rooms SET status = 'BOOKED' WHERE status = 'OCCUPIED';
-
 -- ================================
 -- SQL Overlap Logic (reference)
 -- ================================
--- SELECT COUNT(*) FROM reservations
+-- Served entirely from idx_res_availability:
+-- SELECT 1 FROM reservations
 -- WHERE room_id = :roomId
 --   AND status = 'CONFIRMED'
---   AND NOT (checkout <= :checkin OR checkin >= :checkout);
+--   AND checkin < :checkout AND checkout > :checkin
+-- LIMIT 1;
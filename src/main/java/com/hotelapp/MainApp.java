@@ -1,6 +1,18 @@
 package com.hotelapp;
 
+import com.hotelapp.dao.CustomerDAO;
+import com.hotelapp.dao.CustomerIdentityIndex;
+import com.hotelapp.dao.ReservationDAO;
+import com.hotelapp.dao.ReservationStore;
+import com.hotelapp.services.AvailabilityCalendar;
+import com.hotelapp.services.AvailabilityIndex;
+import com.hotelapp.services.CheckoutSweeper;
+import com.hotelapp.services.RateCalendar;
+import com.hotelapp.services.RoomCatalog;
+import com.hotelapp.services.TypeInventory;
 import com.hotelapp.utils.DBInit;
+import com.hotelapp.utils.DBUtil;
+import com.hotelapp.utils.FxStallWatchdog;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
@@ -21,6 +33,17 @@ public class MainApp extends Application {
         try {
             // Initialize DB (safe)
             DBInit.initDatabase();
+            // Build the in-memory reservation store and availability structures up front (otherwise built on first use)
+            ReservationStore.getInstance().load();
+            AvailabilityIndex.getInstance().load();
+            AvailabilityCalendar.getInstance().load();
+            RoomCatalog.getInstance().load();
+            CustomerIdentityIndex.getInstance().load();
+            RateCalendar.getInstance().load();
+            TypeInventory.getInstance().load();
+
+            // Complete past stays and free their rooms now and periodically
+            CheckoutSweeper.getInstance().start();
 
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/login.fxml"));
             Scene scene = new Scene(loader.load());
@@ -34,6 +57,9 @@ public class MainApp extends Application {
             primaryStage.toFront();
             primaryStage.requestFocus();
 
+            // Log anything that blocks the UI thread for too long
+            FxStallWatchdog.getInstance().start();
+
         } catch (Exception ex) {
             // Print to console
             ex.printStackTrace();
@@ -69,6 +95,19 @@ public class MainApp extends Application {
         }
     }
 
+    @Override
+    public void stop() {
+        FxStallWatchdog.getInstance().stop();
+        CheckoutSweeper.getInstance().stop();
+        if (Boolean.getBoolean("hotel.cache.stats")) {
+            // -Dhotel.cache.stats=true: hit rates, for sizing hotel.cache.customers / hotel.cache.reservations
+            System.out.println(CustomerDAO.getCacheStats());
+            System.out.println(ReservationDAO.getCacheStats());
+        }
+        // release pooled SQLite connections (checkpoints the WAL on last close)
+        DBUtil.shutdown();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,212 @@
+package com.hotelapp.controllers;
+
+import com.hotelapp.services.AsyncSupport;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs DAO / service calls for one screen off the JavaFX Application Thread
+ * and hands the result back on it, so a slow query or a busy database never
+ * freezes the UI.
+ *
+ * Each call runs on its own virtual thread. A call submitted with a key
+ * supersedes the previous call with the same key (e.g. "load", "search"):
+ * the older call is not interrupted, since a write may already be queued,
+ * but its result is dropped. busyProperty() is true while any call of this
+ * screen is in flight; bindIndicator() shows a node (usually a
+ * ProgressIndicator) for that time and drops all results once the screen
+ * has been replaced in its window.
+ *
+ * All methods must be called on the FX thread; callbacks run on it too.
+ */
+public final class BackgroundTasks {
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fx-background-", 0).factory());
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T call() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * A submitted call; cancel() drops its result (the call itself may still complete).
+     */
+    public final class Handle {
+        private final String key;
+        private boolean done;           // result delivered or cancelled (FX thread only)
+        private volatile boolean cancelled;
+
+        private Handle(String key) {
+            this.key = key;
+        }
+
+        public boolean isCancelled() { return cancelled; }
+
+        public void cancel() {
+            cancelled = true;
+            complete(this);
+        }
+    }
+
+    private final ReadOnlyBooleanWrapper busy = new ReadOnlyBooleanWrapper(this, "busy", false);
+    private final Map<String, Handle> latest = new HashMap<>();
+    private int running;
+
+    /**
+     * Run work in the background, then onSuccess (or onFailure) on the FX thread.
+     *
+     * @param key calls with the same key supersede each other; null = never superseded
+     */
+    public <T> Handle submit(String key, Work<T> work, Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        Handle handle = track(key);
+        EXECUTOR.execute(() -> {
+            if (handle.cancelled) {
+                return;     // superseded before it started
+            }
+            try {
+                T result = work.call();
+                Platform.runLater(() -> {
+                    if (complete(handle)) onSuccess.accept(result);
+                });
+            } catch (Throwable t) {
+                Platform.runLater(() -> {
+                    if (complete(handle)) onFailure.accept(t);
+                });
+            }
+        });
+        return handle;
+    }
+
+    /**
+     * Deliver the outcome of an already started asynchronous call (e.g. one of
+     * the services' ...Async methods) on the FX thread, with the same
+     * superseding and busy tracking as submit(). Failures are passed on
+     * unwrapped from CompletionException.
+     */
+    public <T> Handle submitAsync(String key, Supplier<? extends CompletionStage<T>> call,
+                                  Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        Handle handle = track(key);
+        CompletionStage<T> stage;
+        try {
+            stage = call.get();
+        } catch (RuntimeException e) {
+            complete(handle);
+            throw e;
+        }
+        stage.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (!complete(handle)) return;
+            if (error == null) {
+                onSuccess.accept(result);
+            } else {
+                onFailure.accept(AsyncSupport.unwrap(error));
+            }
+        }));
+        return handle;
+    }
+
+    public Handle submit(String key, Action action, Runnable onSuccess, Consumer<Throwable> onFailure) {
+        return submit(key, () -> {
+            action.run();
+            return null;
+        }, ignored -> onSuccess.run(), onFailure);
+    }
+
+    /**
+     * Drop the result of the pending call with this key, if any.
+     */
+    public void cancel(String key) {
+        checkFxThread();
+        Handle handle = latest.get(key);
+        if (handle != null) handle.cancel();
+    }
+
+    /**
+     * Drop the results of every pending call, e.g. when leaving the screen.
+     */
+    public void cancelAll() {
+        checkFxThread();
+        for (Handle handle : latest.values().toArray(new Handle[0])) {
+            handle.cancel();
+        }
+        // keyless calls are not tracked individually; their results are still delivered
+    }
+
+    /**
+     * True if a call with this key is in flight and its result not yet delivered.
+     */
+    public boolean isPending(String key) {
+        checkFxThread();
+        return latest.containsKey(key);
+    }
+
+    public ReadOnlyBooleanProperty busyProperty() {
+        return busy.getReadOnlyProperty();
+    }
+
+    public boolean isBusy() {
+        return busy.get();
+    }
+
+    /**
+     * Show the node only while a call is in flight, and cancel all pending
+     * calls once the node's scene is no longer shown in its window.
+     */
+    public void bindIndicator(Node indicator) {
+        indicator.visibleProperty().bind(busy);
+        indicator.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene != null) watchWindow(newScene);
+        });
+        if (indicator.getScene() != null) watchWindow(indicator.getScene());
+    }
+
+    private void watchWindow(Scene scene) {
+        scene.windowProperty().addListener((obs, oldWindow, newWindow) -> {
+            if (oldWindow != null && newWindow == null) cancelAll();
+        });
+    }
+
+    private Handle track(String key) {
+        checkFxThread();
+        Handle handle = new Handle(key);
+        if (key != null) {
+            Handle previous = latest.put(key, handle);
+            if (previous != null) previous.cancel();
+        }
+        running++;
+        busy.set(true);
+        return handle;
+    }
+
+    // true if the handle was still pending, i.e. its result should be delivered
+    private boolean complete(Handle handle) {
+        if (handle.done) return false;
+        handle.done = true;
+        if (handle.key != null) latest.remove(handle.key, handle);
+        running--;
+        busy.set(running > 0);
+        return !handle.cancelled;
+    }
+
+    private static void checkFxThread() {
+        if (!Platform.isFxApplicationThread()) {
+            throw new IllegalStateException("BackgroundTasks must be used on the JavaFX Application Thread");
+        }
+    }
+}
@@ -12,7 +12,6 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 
 import java.time.LocalDate;
-import java.util.List;
 
 public class CheckInOutController {
     @FXML private TableView<Reservation> tblCheckIns;
@@ -33,10 +32,14 @@ public class CheckInOutController {
     @FXML private TableColumn<Reservation, Double> colCheckOutTotal;
     @FXML private TableColumn<Reservation, String> colCheckOutAction;
 
+    @FXML private ProgressIndicator busyIndicator;
+
     private final ReservationService reservationService = new ReservationService();
+    private final BackgroundTasks tasks = new BackgroundTasks();
 
     @FXML
     public void initialize() {
+        tasks.bindIndicator(busyIndicator);
         setupCheckInTable();
         setupCheckOutTable();
         loadData();
@@ -95,20 +98,17 @@ public class CheckInOutController {
     }
 
     private void loadData() {
-        try {
-            // Load today's check-ins
-            List<Reservation> checkIns = reservationService.getTodayCheckIns();
+        // Today's check-ins and check-outs, queried concurrently
+        tasks.submitAsync("load", reservationService::getTodayMovementsAsync, movements -> {
             tblCheckIns.getItems().clear();
-            tblCheckIns.getItems().addAll(checkIns);
+            tblCheckIns.getItems().addAll(movements.getCheckIns());
 
-            // Load today's check-outs
-            List<Reservation> checkOuts = reservationService.getTodayCheckOuts();
             tblCheckOuts.getItems().clear();
-            tblCheckOuts.getItems().addAll(checkOuts);
-        } catch (Exception e) {
+            tblCheckOuts.getItems().addAll(movements.getCheckOuts());
+        }, e -> {
             e.printStackTrace();
             showError("Failed to load check-in/check-out data: " + e.getMessage());
-        }
+        });
     }
 
     private void handleCheckIn(int reservationId) {
@@ -118,13 +118,17 @@ public class CheckInOutController {
             confirm.setHeaderText(null);
             confirm.setContentText("Check in this guest? The room will be marked as OCCUPIED.");
             if (confirm.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
-                reservationService.checkIn(reservationId);
-                Alert success = new Alert(Alert.AlertType.INFORMATION);
-                success.setTitle("Success");
-                success.setHeaderText(null);
-                success.setContentText("Guest checked in successfully!");
-                success.showAndWait();
-                loadData();
+                tasks.submitAsync(null, () -> reservationService.checkInAsync(reservationId), ignored -> {
+                    Alert success = new Alert(Alert.AlertType.INFORMATION);
+                    success.setTitle("Success");
+                    success.setHeaderText(null);
+                    success.setContentText("Guest checked in successfully!");
+                    success.showAndWait();
+                    loadData();
+                }, e -> {
+                    e.printStackTrace();
+                    showError("Check-in failed: " + e.getMessage());
+                });
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -139,13 +143,17 @@ public class CheckInOutController {
             confirm.setHeaderText(null);
             confirm.setContentText("Check out this guest? The room will be marked as FREE.");
             if (confirm.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
-                reservationService.checkOut(reservationId);
-                Alert success = new Alert(Alert.AlertType.INFORMATION);
-                success.setTitle("Success");
-                success.setHeaderText(null);
-                success.setContentText("Guest checked out successfully!");
-                success.showAndWait();
-                loadData();
+                tasks.submitAsync(null, () -> reservationService.checkOutAsync(reservationId), ignored -> {
+                    Alert success = new Alert(Alert.AlertType.INFORMATION);
+                    success.setTitle("Success");
+                    success.setHeaderText(null);
+                    success.setContentText("Guest checked out successfully!");
+                    success.showAndWait();
+                    loadData();
+                }, e -> {
+                    e.printStackTrace();
+                    showError("Check-out failed: " + e.getMessage());
+                });
             }
         } catch (Exception e) {
             e.printStackTrace();
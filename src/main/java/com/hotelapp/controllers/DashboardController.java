@@ -2,11 +2,10 @@ package com.hotelapp.controllers;
 
 import com.hotelapp.dao.CustomerDAO;
 import com.hotelapp.dao.ReservationDAO;
-import com.hotelapp.dao.RoomDAO;
 import com.hotelapp.models.Customer;
+import com.hotelapp.models.DashboardStats;
 import com.hotelapp.models.Reservation;
-import com.hotelapp.models.Room;
-import com.hotelapp.services.ReservationService;
+import com.hotelapp.services.DashboardSnapshotService;
 import com.hotelapp.utils.DBInit;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.fxml.FXML;
@@ -55,24 +54,31 @@ public class DashboardController {
     @FXML private Label lblGuestAddress;
     @FXML private Label lblGuestNid;
     @FXML private TableView<Reservation> tblGuestHistory;
+    @FXML private ProgressIndicator busyIndicator;
 
-    private final RoomDAO roomDAO = new RoomDAO();
     private final ReservationDAO reservationDAO = new ReservationDAO();
     private final CustomerDAO customerDAO = new CustomerDAO();
-    private final ReservationService reservationService = new ReservationService();
+    private final DashboardSnapshotService snapshotService = new DashboardSnapshotService();
+    private final BackgroundTasks tasks = new BackgroundTasks();
 
     @FXML
     public void initialize() {
+        tasks.bindIndicator(busyIndicator);
+
         // Configure table columns (matching Reservation model getters)
         try {
-            colResId.setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue().getId()));
-            colResRoom.setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue().getRoomNumber()));
-            colResGuest.setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue().getCustomerName()));
-            colResPhone.setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue().getCustomerPhone() != null ? cell.getValue().getCustomerPhone() : "-"));
+            // rows of the paged list can be null while a page fails to load
+            colResId.setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue() == null ? null : cell.getValue().getId()));
+            colResRoom.setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue() == null ? null : cell.getValue().getRoomNumber()));
+            colResGuest.setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue() == null ? null : cell.getValue().getCustomerName()));
+            colResPhone.setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue() == null ? null : cell.getValue().getCustomerPhone() != null ? cell.getValue().getCustomerPhone() : "-"));
             colResCheckin.setCellValueFactory(new PropertyValueFactory<>("checkin"));
             colResCheckout.setCellValueFactory(new PropertyValueFactory<>("checkout"));
             colResStatus.setCellValueFactory(new PropertyValueFactory<>("status"));
             colResTotal.setCellValueFactory(new PropertyValueFactory<>("total"));
+
+            // the paged list is read-only and always newest first, so no column sorting
+            tblReservations.getColumns().forEach(col -> col.setSortable(false));
         } catch (Exception e) {
             // In case columns not wired in FXML exactly (defensive)
             e.printStackTrace();
@@ -109,17 +115,21 @@ public class DashboardController {
             return row;
         });
 
-        // Ensure past-dated stays are auto-completed and rooms freed.
-        // Any database lock issues (SQLITE_BUSY) are handled silently inside the service.
-        try {
-            reservationService.autoCompletePastCheckouts();
-        } catch (Exception e) {
-            // Log to console only; do not show popup to avoid bothering the user
-            e.printStackTrace();
-        }
+        // Past-dated stays are auto-completed by the background CheckoutSweeper
+        loadDashboard();
+    }
 
-        loadStats();
-        loadRecentReservations();
+    /**
+     * Load the snapshot in the background, then fill the counters and the table.
+     */
+    private void loadDashboard() {
+        tasks.submitAsync("snapshot", () -> snapshotService.getSnapshotAsync(PagedReservationList.PAGE_SIZE), stats -> {
+            showStats(stats);
+            showRecentReservations(stats);
+        }, e -> {
+            e.printStackTrace();
+            showError("Failed to load dashboard: " + e.getMessage());
+        });
     }
 
     /**
@@ -127,30 +137,24 @@ public class DashboardController {
      */
     @FXML
     public void loadStats() {
-        try {
-            List<Room> rooms = roomDAO.getAllRooms();
-            int total = rooms.size();
-            int free = (int) rooms.stream().filter(r -> "FREE".equalsIgnoreCase(r.getStatus())).count();
-            int occupied = (int) rooms.stream().filter(r -> "BOOKED".equalsIgnoreCase(r.getStatus())).count();
-
-            lblTotalRooms.setText(String.valueOf(total));
-            lblFreeRooms.setText(String.valueOf(free));
-            lblOccupiedRooms.setText(String.valueOf(occupied));
+        // one cached snapshot; reloaded only after a write or a date change
+        tasks.submitAsync("stats", () -> snapshotService.getSnapshotAsync(PagedReservationList.PAGE_SIZE), this::showStats, e -> {
+            e.printStackTrace();
+            showError("Failed to load dashboard stats: " + e.getMessage());
+        });
+    }
 
-            // total reservations count
-            List<Reservation> all = reservationDAO.getAllReservations();
-            lblTotalReservations.setText(String.valueOf(all.size()));
+    private void showStats(DashboardStats stats) {
+        lblTotalRooms.setText(String.valueOf(stats.getTotalRooms()));
+        lblFreeRooms.setText(String.valueOf(stats.getFreeRooms()));
+        lblOccupiedRooms.setText(String.valueOf(stats.getBookedRooms()));
 
-            // Today's check-ins and check-outs
-            List<Reservation> todayCheckIns = reservationService.getTodayCheckIns();
-            lblTodayCheckIns.setText(String.valueOf(todayCheckIns.size()));
+        // total reservations count
+        lblTotalReservations.setText(String.valueOf(stats.getTotalReservations()));
 
-            List<Reservation> todayCheckOuts = reservationService.getTodayCheckOuts();
-            lblTodayCheckOuts.setText(String.valueOf(todayCheckOuts.size()));
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Failed to load dashboard stats: " + e.getMessage());
-        }
+        // Today's check-ins and check-outs
+        lblTodayCheckIns.setText(String.valueOf(stats.getTodayCheckIns()));
+        lblTodayCheckOuts.setText(String.valueOf(stats.getTodayCheckOuts()));
     }
 
     /**
@@ -158,15 +162,16 @@ public class DashboardController {
      */
     @FXML
     public void loadRecentReservations() {
-        try {
-            tblReservations.getItems().clear();
-            // show last N recent reservations (DAO returns ordered by created_at desc)
-            List<Reservation> recent = reservationDAO.getAllReservations();
-            tblReservations.getItems().addAll(recent);
-        } catch (Exception e) {
+        tasks.submitAsync("reservations", () -> snapshotService.getSnapshotAsync(PagedReservationList.PAGE_SIZE), this::showRecentReservations, e -> {
             e.printStackTrace();
             showError("Failed to load reservations: " + e.getMessage());
-        }
+        });
+    }
+
+    private void showRecentReservations(DashboardStats stats) {
+        // whole history, newest first, fetched page by page while scrolling;
+        // the snapshot already holds the total and the first page
+        tblReservations.setItems(new PagedReservationList(tasks, stats.getTotalReservations(), stats.getRecentReservations()));
     }
 
     /**
@@ -206,6 +211,22 @@ public class DashboardController {
         }
     }
 
+    /**
+     * Open the Occupancy & Revenue reports screen.
+     */
+    @FXML
+    public void openReports() {
+        try {
+            Parent root = FXMLLoader.load(getClass().getResource("/fxml/reports.fxml"));
+            Stage stage = (Stage) lblTotalRooms.getScene().getWindow();
+            stage.setScene(new Scene(root));
+            stage.centerOnScreen();
+        } catch (Exception e) {
+            e.printStackTrace();
+            showError("Unable to open Reports: " + e.getMessage());
+        }
+    }
+
     /**
      * Open the Guests Management screen.
      */
@@ -276,8 +297,7 @@ public class DashboardController {
      */
     @FXML
     public void handleRefresh() {
-        loadStats();
-        loadRecentReservations();
+        loadDashboard();
     }
 
     @FXML
@@ -288,90 +308,112 @@ public class DashboardController {
             return;
         }
 
-        try {
-            // Search by phone or nid_passport (handle case where columns might not exist)
-            String sql = "SELECT id, name, phone, " +
-                    "COALESCE(address, '') as address, " +
-                    "COALESCE(nid_passport, '') as nid_passport " +
-                    "FROM customers WHERE phone = ? OR nid_passport = ?";
-            Customer customer = null;
-            try (var conn = com.hotelapp.utils.DBUtil.getConnection();
-                 var ps = conn.prepareStatement(sql)) {
-                ps.setString(1, searchText);
-                ps.setString(2, searchText);
-                try (var rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        customer = new Customer();
-                        customer.setId(rs.getInt("id"));
-                        customer.setName(rs.getString("name"));
-                        customer.setPhone(rs.getString("phone"));
-                        String address = rs.getString("address");
-                        customer.setAddress(address != null && !address.isEmpty() ? address : null);
-                        String nid = rs.getString("nid_passport");
-                        customer.setNidPassport(nid != null && !nid.isEmpty() ? nid : null);
-                    }
+        tasks.submit("guestSearch", () -> lookupGuest(searchText), this::showGuest, e -> {
+            e.printStackTrace();
+            showError("Failed to search guest: " + e.getMessage());
+        });
+    }
+
+    // result of a guest lookup: the customer (null if not found) and all their reservations
+    private static final class GuestLookup {
+        final Customer customer;
+        final List<Reservation> history;
+
+        GuestLookup(Customer customer, List<Reservation> history) {
+            this.customer = customer;
+            this.history = history;
+        }
+    }
+
+    // runs in the background
+    private GuestLookup lookupGuest(String searchText) throws Exception {
+        // Search by phone or nid_passport (handle case where columns might not exist)
+        String sql = "SELECT id, name, phone, " +
+                "COALESCE(address, '') as address, " +
+                "COALESCE(nid_passport, '') as nid_passport " +
+                "FROM customers WHERE phone = ? OR nid_passport = ?";
+        Customer customer = null;
+        try (var conn = com.hotelapp.utils.DBUtil.getConnection();
+             var ps = conn.prepareStatement(sql)) {
+            ps.setString(1, searchText);
+            ps.setString(2, searchText);
+            try (var rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    customer = new Customer();
+                    customer.setId(rs.getInt("id"));
+                    customer.setName(rs.getString("name"));
+                    customer.setPhone(rs.getString("phone"));
+                    String address = rs.getString("address");
+                    customer.setAddress(address != null && !address.isEmpty() ? address : null);
+                    String nid = rs.getString("nid_passport");
+                    customer.setNidPassport(nid != null && !nid.isEmpty() ? nid : null);
                 }
             }
+        }
 
-            if (customer == null) {
-                showError("Customer not found");
-                gridGuestInfo.setVisible(false);
-                tblGuestHistory.setVisible(false);
-                return;
-            }
+        if (customer == null) {
+            return new GuestLookup(null, List.of());
+        }
+        // Load purchase history - show ALL reservations for this customer
+        return new GuestLookup(customer, reservationDAO.getReservationsByCustomerId(customer.getId()));
+    }
 
-            // Display customer information
-            lblGuestName.setText(customer.getName() != null ? customer.getName() : "-");
-            lblGuestPhone.setText(customer.getPhone() != null ? customer.getPhone() : "-");
-            lblGuestAddress.setText(customer.getAddress() != null ? customer.getAddress() : "-");
-            lblGuestNid.setText(customer.getNidPassport() != null ? customer.getNidPassport() : "-");
-            gridGuestInfo.setVisible(true);
-
-            // Load purchase history - show ALL reservations for this customer
-            var history = reservationDAO.getReservationsByCustomerId(customer.getId());
-            tblGuestHistory.getItems().clear();
-            if (!history.isEmpty()) {
-                tblGuestHistory.getItems().addAll(history);
-                tblGuestHistory.setVisible(true);
-            } else {
-                tblGuestHistory.setVisible(false);
-            }
+    private void showGuest(GuestLookup lookup) {
+        Customer customer = lookup.customer;
+        if (customer == null) {
+            showError("Customer not found");
+            gridGuestInfo.setVisible(false);
+            tblGuestHistory.setVisible(false);
+            return;
+        }
 
-            // Configure history table columns (configure once in initialize if needed, but this works too)
-            if (tblGuestHistory.getColumns().size() == 6 && tblGuestHistory.getColumns().get(0).getCellValueFactory() == null) {
-                @SuppressWarnings("unchecked")
-                var cols = tblGuestHistory.getColumns();
-                ((TableColumn<Reservation, Integer>) cols.get(0)).setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue().getId()));
-                ((TableColumn<Reservation, String>) cols.get(1)).setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue().getRoomNumber()));
-                ((TableColumn<Reservation, LocalDate>) cols.get(2)).setCellValueFactory(new PropertyValueFactory<>("checkin"));
-                ((TableColumn<Reservation, LocalDate>) cols.get(3)).setCellValueFactory(new PropertyValueFactory<>("checkout"));
-                ((TableColumn<Reservation, String>) cols.get(4)).setCellValueFactory(new PropertyValueFactory<>("status"));
-                ((TableColumn<Reservation, Double>) cols.get(5)).setCellValueFactory(new PropertyValueFactory<>("total"));
-            }
-            
-            // Style history table rows (red for cancelled)
-            tblGuestHistory.setRowFactory(tv -> {
-                TableRow<Reservation> row = new TableRow<Reservation>() {
-                    @Override
-                    protected void updateItem(Reservation item, boolean empty) {
-                        super.updateItem(item, empty);
-                        if (empty || item == null) {
-                            setStyle("");
+        // Display customer information
+        lblGuestName.setText(customer.getName() != null ? customer.getName() : "-");
+        lblGuestPhone.setText(customer.getPhone() != null ? customer.getPhone() : "-");
+        lblGuestAddress.setText(customer.getAddress() != null ? customer.getAddress() : "-");
+        lblGuestNid.setText(customer.getNidPassport() != null ? customer.getNidPassport() : "-");
+        gridGuestInfo.setVisible(true);
+
+        var history = lookup.history;
+        tblGuestHistory.getItems().clear();
+        if (!history.isEmpty()) {
+            tblGuestHistory.getItems().addAll(history);
+            tblGuestHistory.setVisible(true);
+        } else {
+            tblGuestHistory.setVisible(false);
+        }
+
+        // Configure history table columns (configure once in initialize if needed, but this works too)
+        if (tblGuestHistory.getColumns().size() == 6 && tblGuestHistory.getColumns().get(0).getCellValueFactory() == null) {
+            @SuppressWarnings("unchecked")
+            var cols = tblGuestHistory.getColumns();
+            ((TableColumn<Reservation, Integer>) cols.get(0)).setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue().getId()));
+            ((TableColumn<Reservation, String>) cols.get(1)).setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue().getRoomNumber()));
+            ((TableColumn<Reservation, LocalDate>) cols.get(2)).setCellValueFactory(new PropertyValueFactory<>("checkin"));
+            ((TableColumn<Reservation, LocalDate>) cols.get(3)).setCellValueFactory(new PropertyValueFactory<>("checkout"));
+            ((TableColumn<Reservation, String>) cols.get(4)).setCellValueFactory(new PropertyValueFactory<>("status"));
+            ((TableColumn<Reservation, Double>) cols.get(5)).setCellValueFactory(new PropertyValueFactory<>("total"));
+        }
+        
+        // Style history table rows (red for cancelled)
+        tblGuestHistory.setRowFactory(tv -> {
+            TableRow<Reservation> row = new TableRow<Reservation>() {
+                @Override
+                protected void updateItem(Reservation item, boolean empty) {
+                    super.updateItem(item, empty);
+                    if (empty || item == null) {
+                        setStyle("");
+                    } else {
+                        if ("CANCELLED".equalsIgnoreCase(item.getStatus())) {
+                            setStyle("-fx-background-color: #ffcccc;");
                         } else {
-                            if ("CANCELLED".equalsIgnoreCase(item.getStatus())) {
-                                setStyle("-fx-background-color: #ffcccc;");
-                            } else {
-                                setStyle("");
-                            }
+                            setStyle("");
                         }
                     }
-                };
-                return row;
-            });
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Failed to search guest: " + e.getMessage());
-        }
+                }
+            };
+            return row;
+        });
     }
 
     private void showError(String msg) {
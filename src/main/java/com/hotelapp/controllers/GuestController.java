@@ -1,8 +1,11 @@
 package com.hotelapp.controllers;
 
 import com.hotelapp.dao.CustomerDAO;
+import com.hotelapp.dao.CustomerSearchDAO;
+import com.hotelapp.dao.CustomerSummaryDAO;
 import com.hotelapp.dao.ReservationDAO;
 import com.hotelapp.models.Customer;
+import com.hotelapp.models.CustomerSummary;
 import com.hotelapp.models.Reservation;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -20,8 +23,8 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class GuestController {
     @FXML private TableView<CustomerRow> tblGuests;
@@ -32,9 +35,13 @@ public class GuestController {
     @FXML private TableColumn<CustomerRow, String> colGuestNid;
     @FXML private TableColumn<CustomerRow, Integer> colGuestReservations;
     @FXML private TextField tfSearch;
+    @FXML private ProgressIndicator busyIndicator;
 
     private final CustomerDAO customerDAO = new CustomerDAO();
     private final ReservationDAO reservationDAO = new ReservationDAO();
+    private final CustomerSummaryDAO customerSummaryDAO = new CustomerSummaryDAO();
+    private final CustomerSearchDAO customerSearchDAO = new CustomerSearchDAO();
+    private final BackgroundTasks tasks = new BackgroundTasks();
     private ObservableList<CustomerRow> allGuests = FXCollections.observableArrayList();
 
     // Wrapper class to include reservation count
@@ -59,6 +66,8 @@ public class GuestController {
 
     @FXML
     public void initialize() {
+        tasks.bindIndicator(busyIndicator);
+
         // Setup columns
         colGuestId.setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue().getId()));
         colGuestName.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getName()));
@@ -82,20 +91,25 @@ public class GuestController {
     }
 
     private void loadGuests() {
-        try {
-            List<Customer> customers = customerDAO.getAllCustomers();
-            allGuests.clear();
-            
-            for (Customer customer : customers) {
-                List<Reservation> reservations = reservationDAO.getReservationsByCustomerId(customer.getId());
-                allGuests.add(new CustomerRow(customer, reservations.size()));
+        // one query: customers joined with their maintained reservation aggregates
+        tasks.submit("load", () -> toRows(customerSummaryDAO.getAllSummaries()), rows -> {
+            allGuests.setAll(rows);
+            // a search started meanwhile keeps its own results
+            if (!tasks.isPending("search")) {
+                tblGuests.setItems(allGuests);
             }
-            
-            tblGuests.setItems(allGuests);
-        } catch (Exception e) {
+        }, e -> {
             e.printStackTrace();
             showError("Failed to load guests: " + e.getMessage());
+        });
+    }
+
+    private static List<CustomerRow> toRows(List<CustomerSummary> summaries) {
+        List<CustomerRow> rows = new ArrayList<>(summaries.size());
+        for (CustomerSummary summary : summaries) {
+            rows.add(new CustomerRow(summary.getCustomer(), summary.getReservationCount()));
         }
+        return rows;
     }
 
     @FXML
@@ -106,26 +120,24 @@ public class GuestController {
 
     @FXML
     public void handleSearch() {
-        String searchText = tfSearch.getText().trim().toLowerCase();
+        String searchText = tfSearch.getText().trim();
         if (searchText.isEmpty()) {
+            tasks.cancel("search");
             tblGuests.setItems(allGuests);
             return;
         }
 
-        List<CustomerRow> filtered = allGuests.stream()
-                .filter(row -> {
-                    Customer c = row.getCustomer();
-                    return (c.getName() != null && c.getName().toLowerCase().contains(searchText)) ||
-                           (c.getPhone() != null && c.getPhone().contains(searchText)) ||
-                           (c.getNidPassport() != null && c.getNidPassport().toLowerCase().contains(searchText));
-                })
-                .collect(Collectors.toList());
-        
-        tblGuests.setItems(FXCollections.observableArrayList(filtered));
+        // ranked prefix matches from the full-text index instead of scanning every row
+        tasks.submit("search", () -> toRows(customerSearchDAO.search(searchText)),
+                rows -> tblGuests.setItems(FXCollections.observableArrayList(rows)), e -> {
+                    e.printStackTrace();
+                    showError("Search failed: " + e.getMessage());
+                });
     }
 
     @FXML
     public void handleClear() {
+        tasks.cancel("search");
         tfSearch.clear();
         tblGuests.setItems(allGuests);
     }
@@ -193,8 +205,14 @@ public class GuestController {
             historyTable.getColumns().addAll(colId, colRoom, colCheckin, colCheckout, colStatus, colTotal);
             historyTable.setPrefHeight(250);
 
-            List<Reservation> history = reservationDAO.getReservationsByCustomerId(customer.getId());
-            historyTable.getItems().addAll(history);
+            historyTable.setPlaceholder(new Label("Loading..."));
+            tasks.submit("history", () -> reservationDAO.getReservationsByCustomerId(customer.getId()), history -> {
+                historyTable.setPlaceholder(new Label("No reservations"));
+                historyTable.getItems().setAll(history);
+            }, ex -> {
+                ex.printStackTrace();
+                historyTable.setPlaceholder(new Label("Failed to load purchase history"));
+            });
 
             // Save button action
             btnSave.setOnAction(e -> {
@@ -223,19 +241,24 @@ public class GuestController {
                     customer.setAddress(tfAddress.getText().trim());
                     customer.setNidPassport(tfNidPassport.getText().trim());
                     
-                    customerDAO.updateCustomer(customer);
-                    
-                    Alert success = new Alert(Alert.AlertType.INFORMATION);
-                    success.setTitle("Success");
-                    success.setHeaderText(null);
-                    success.setContentText("Guest information updated successfully!");
-                    success.showAndWait();
-                    
-                    // Refresh the table
-                    loadGuests();
-                    
-                    // Close dialog
-                    dialog.close();
+                    btnSave.setDisable(true);
+                    tasks.submit(null, () -> customerDAO.updateCustomer(customer), () -> {
+                        Alert success = new Alert(Alert.AlertType.INFORMATION);
+                        success.setTitle("Success");
+                        success.setHeaderText(null);
+                        success.setContentText("Guest information updated successfully!");
+                        success.showAndWait();
+
+                        // Refresh the table
+                        loadGuests();
+
+                        // Close dialog
+                        dialog.close();
+                    }, ex -> {
+                        btnSave.setDisable(false);
+                        ex.printStackTrace();
+                        showError("Failed to update guest information: " + ex.getMessage());
+                    });
                 } catch (Exception ex) {
                     ex.printStackTrace();
                     showError("Failed to update guest information: " + ex.getMessage());
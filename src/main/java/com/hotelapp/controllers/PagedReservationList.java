@@ -0,0 +1,160 @@
+package com.hotelapp.controllers;
+
+import com.hotelapp.dao.ReservationDAO;
+import com.hotelapp.models.Reservation;
+import javafx.collections.ObservableListBase;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only list of reservations (newest first) for a TableView that loads
+ * rows page by page as they are scrolled into view, instead of materializing
+ * the whole history.
+ *
+ * Pages are fetched with ReservationDAO.findPage (keyset pagination); only the
+ * {@value #MAX_PAGES} most recently used pages are kept in memory. Like every
+ * DAO call from the UI, fetching runs through the screen's BackgroundTasks:
+ * get() on a row whose page is not loaded returns null (an empty row) and
+ * requests the page, one call per page; when it arrives the page's rows are
+ * reported as updated, so the table redraws them. The size is counted in the
+ * background too; call {@link #refresh()} after changes.
+ *
+ * Used on the FX thread only, like the TableView it backs.
+ */
+public final class PagedReservationList extends ObservableListBase<Reservation> {
+    public static final int PAGE_SIZE = 50;
+    private static final int MAX_PAGES = 8;
+
+    private final ReservationDAO reservationDAO = new ReservationDAO();
+    private final BackgroundTasks tasks;
+    private final String keyPrefix = "reservation-page@" + Integer.toHexString(System.identityHashCode(this)) + ":";
+    private final String status;
+    private final Integer roomId;
+    private int size;
+    private int generation;                     // bumped by refresh(); older page results are dropped
+
+    private final Map<Integer, List<Reservation>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Reservation>> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+    // page number -> id to continue after (last id of the previous page); ints only, so kept for all pages seen
+    private final Map<Integer, Integer> pageAfterIds = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+
+    /**
+     * All reservations matching the optional filters (null = any); empty
+     * until the count, run on the given tasks, arrives.
+     */
+    public PagedReservationList(BackgroundTasks tasks, String status, Integer roomId) {
+        this.tasks = tasks;
+        this.status = status;
+        this.roomId = roomId;
+        refresh();
+    }
+
+    /**
+     * All reservations, when the total and the first page are already known
+     * (e.g. from DashboardSnapshotService; firstPage must be the newest rows).
+     */
+    public PagedReservationList(BackgroundTasks tasks, int totalCount, List<Reservation> firstPage) {
+        this.tasks = tasks;
+        this.status = null;
+        this.roomId = null;
+        this.size = totalCount;
+        if (firstPage.size() >= Math.min(PAGE_SIZE, totalCount)) {
+            storePage(0, firstPage.subList(0, Math.min(PAGE_SIZE, firstPage.size())));
+        }
+    }
+
+    @Override
+    public Reservation get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int pageNo = index / PAGE_SIZE;
+        List<Reservation> page = pages.get(pageNo);
+        if (page == null) {
+            requestPage(pageNo);
+            return null;    // placeholder row until the page arrives
+        }
+        int offset = index % PAGE_SIZE;
+        // rows deleted since the count was taken leave empty rows until refresh()
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Re-count in the background, then drop cached pages, e.g. after reservations were added or changed.
+     */
+    public void refresh() {
+        tasks.submit(keyPrefix + "count", () -> reservationDAO.countReservations(status, roomId), count -> {
+            int oldSize = size;
+            size = count;
+            generation++;
+            pages.clear();
+            pageAfterIds.clear();
+            loading.clear();
+
+            // every row may have moved; the old rows are no longer known
+            beginChange();
+            nextReplace(0, size, Collections.nCopies(oldSize, (Reservation) null));
+            endChange();
+        }, e -> {
+            e.printStackTrace();
+            System.out.println("Warning: reservation count failed: " + e.getMessage());
+        });
+    }
+
+    // fetch the page in the background unless it is already on its way
+    private void requestPage(int pageNo) {
+        if (!loading.add(pageNo)) return;
+        int requestedIn = generation;
+        Integer knownAfterId = pageNo == 0 ? null : pageAfterIds.get(pageNo);
+        tasks.submit(keyPrefix + pageNo, () -> fetchPage(pageNo, knownAfterId), page -> {
+            if (requestedIn != generation) return;      // refreshed meanwhile: the page may be wrong
+            loading.remove(pageNo);
+            storePage(pageNo, page);
+            int from = pageNo * PAGE_SIZE;
+            int to = Math.min(from + PAGE_SIZE, size);
+            if (from >= to) return;
+            beginChange();
+            for (int i = from; i < to; i++) {
+                nextUpdate(i);
+            }
+            endChange();
+        }, e -> {
+            if (requestedIn == generation) loading.remove(pageNo);     // retried when scrolled into view again
+            e.printStackTrace();
+        });
+    }
+
+    // background thread: reads final fields only
+    private List<Reservation> fetchPage(int pageNo, Integer knownAfterId) throws Exception {
+        Integer afterId = knownAfterId;
+        if (pageNo > 0 && afterId == null) {
+            // jumped past pages we have not seen: find the boundary directly
+            afterId = reservationDAO.findIdAtOffset(pageNo * PAGE_SIZE - 1, status, roomId);
+            if (afterId == null) return List.of();
+        }
+        return reservationDAO.findPage(afterId, PAGE_SIZE, status, roomId);
+    }
+
+    private void storePage(int pageNo, List<Reservation> page) {
+        pages.put(pageNo, page);
+        if (page.size() == PAGE_SIZE) {
+            pageAfterIds.put(pageNo + 1, page.get(PAGE_SIZE - 1).getId());
+        }
+    }
+}
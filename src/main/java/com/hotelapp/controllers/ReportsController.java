@@ -0,0 +1,158 @@
+package com.hotelapp.controllers;
+
+import com.hotelapp.services.KpiRow;
+import com.hotelapp.services.KpiService;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.stage.Stage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * ReportsController - occupancy and revenue figures (occupancy, ADR, RevPAR,
+ * average stay, cancellations, lead time) for a date range, computed by KpiService.
+ */
+public class ReportsController {
+    @FXML private DatePicker dpFrom;
+    @FXML private DatePicker dpTo;
+    @FXML private ComboBox<KpiService.Grouping> cmbGrouping;
+    @FXML private CheckBox chkByType;
+
+    @FXML private TableView<KpiRow> tblKpis;
+    @FXML private TableColumn<KpiRow, String> colPeriod;
+    @FXML private TableColumn<KpiRow, String> colType;
+    @FXML private TableColumn<KpiRow, String> colOccupancy;
+    @FXML private TableColumn<KpiRow, String> colAdr;
+    @FXML private TableColumn<KpiRow, String> colRevpar;
+    @FXML private TableColumn<KpiRow, String> colRevenue;
+    @FXML private TableColumn<KpiRow, String> colSold;
+    @FXML private TableColumn<KpiRow, String> colAlos;
+    @FXML private TableColumn<KpiRow, String> colCancel;
+    @FXML private TableColumn<KpiRow, String> colLead;
+
+    @FXML private Label lblSummary;
+    @FXML private ProgressIndicator busyIndicator;
+
+    private final KpiService kpiService = new KpiService();
+    private final BackgroundTasks tasks = new BackgroundTasks();
+
+    @FXML
+    public void initialize() {
+        tasks.bindIndicator(busyIndicator);
+
+        // default: this month so far, by day
+        LocalDate today = LocalDate.now();
+        dpFrom.setValue(today.withDayOfMonth(1));
+        dpTo.setValue(today);
+        cmbGrouping.getItems().setAll(KpiService.Grouping.values());
+        cmbGrouping.getSelectionModel().select(KpiService.Grouping.DAY);
+
+        colPeriod.setCellValueFactory(cell -> text(period(cell.getValue())));
+        colType.setCellValueFactory(cell -> text(cell.getValue().getRoomType() == null ? "All" : cell.getValue().getRoomType()));
+        colOccupancy.setCellValueFactory(cell -> text(String.format("%.1f %%", cell.getValue().getOccupancy() * 100)));
+        colAdr.setCellValueFactory(cell -> text(String.format("%.2f", cell.getValue().getAdr())));
+        colRevpar.setCellValueFactory(cell -> text(String.format("%.2f", cell.getValue().getRevpar())));
+        colRevenue.setCellValueFactory(cell -> text(String.format("%.2f", cell.getValue().getRevenue())));
+        colSold.setCellValueFactory(cell -> text(String.valueOf(cell.getValue().getSoldNights())));
+        colAlos.setCellValueFactory(cell -> text(String.format("%.1f", cell.getValue().getAverageStay())));
+        colCancel.setCellValueFactory(cell -> text(String.format("%.1f %%", cell.getValue().getCancellationRate() * 100)));
+        colLead.setCellValueFactory(cell -> text(String.format("%.1f", cell.getValue().getAverageLeadDays())));
+
+        handleRun();
+    }
+
+    private static SimpleStringProperty text(String value) {
+        return new SimpleStringProperty(value);
+    }
+
+    private static String period(KpiRow row) {
+        if (row.getPeriodStart().equals(row.getPeriodEnd())) {
+            return row.getPeriodStart().toString();
+        }
+        return row.getPeriodStart() + " - " + row.getPeriodEnd();
+    }
+
+    @FXML
+    public void handleRun() {
+        LocalDate from = dpFrom.getValue();
+        LocalDate to = dpTo.getValue();
+        if (from == null || to == null) {
+            showError("Please choose both dates.");
+            return;
+        }
+        if (to.isBefore(from)) {
+            showError("The end date must not be before the start date.");
+            return;
+        }
+        KpiService.Grouping grouping = cmbGrouping.getValue() == null ? KpiService.Grouping.DAY : cmbGrouping.getValue();
+        boolean byType = chkByType.isSelected();
+        long start = System.nanoTime();
+        tasks.submit("report", () -> kpiService.compute(from, to, grouping, byType), rows -> {
+            tblKpis.getItems().setAll(rows);
+            lblSummary.setText(summary(rows, (System.nanoTime() - start) / 1_000_000.0));
+        }, e -> {
+            e.printStackTrace();
+            showError("Failed to compute the report: " + e.getMessage());
+        });
+    }
+
+    // whole-range figures for the status line
+    private static String summary(List<KpiRow> rows, double millis) {
+        long available = 0;
+        long sold = 0;
+        double revenue = 0;
+        for (KpiRow r : rows) {
+            available += r.getAvailableNights();
+            sold += r.getSoldNights();
+            revenue += r.getRevenue();
+        }
+        double occupancy = available == 0 ? 0 : 100.0 * sold / available;
+        double adr = sold == 0 ? 0 : revenue / sold;
+        double revpar = available == 0 ? 0 : revenue / available;
+        return String.format("Whole range: occupancy %.1f %%, ADR Tk %.2f, RevPAR Tk %.2f, revenue Tk %.2f  (%d rows in %.0f ms)",
+                occupancy, adr, revpar, revenue, rows.size(), millis);
+    }
+
+    @FXML
+    public void goBack() {
+        try {
+            Parent root = FXMLLoader.load(getClass().getResource("/fxml/dashboard.fxml"));
+            Stage stage = (Stage) tblKpis.getScene().getWindow();
+            stage.setScene(new Scene(root));
+            stage.centerOnScreen();
+        } catch (Exception e) {
+            e.printStackTrace();
+            showError("Unable to go back: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Logout back to the login screen.
+     */
+    @FXML
+    public void handleLogout() {
+        try {
+            Parent root = FXMLLoader.load(getClass().getResource("/fxml/login.fxml"));
+            Stage stage = (Stage) tblKpis.getScene().getWindow();
+            stage.setScene(new Scene(root));
+            stage.setTitle("Hotel Reservation System - Login");
+            stage.centerOnScreen();
+        } catch (Exception e) {
+            e.printStackTrace();
+            showError("Unable to logout: " + e.getMessage());
+        }
+    }
+
+    private void showError(String msg) {
+        Alert a = new Alert(Alert.AlertType.ERROR);
+        a.setTitle("Error");
+        a.setHeaderText(null);
+        a.setContentText(msg);
+        a.showAndWait();
+    }
+}
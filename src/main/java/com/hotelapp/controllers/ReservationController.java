@@ -1,23 +1,32 @@
 package com.hotelapp.controllers;
 
-import com.hotelapp.dao.RoomDAO;
 import com.hotelapp.models.Customer;
 import com.hotelapp.models.Room;
+import com.hotelapp.services.AvailabilityService;
+import com.hotelapp.services.BookingResult;
+import com.hotelapp.services.RateCalendar;
 import com.hotelapp.services.ReservationService;
+import com.hotelapp.services.StayOption;
+import com.hotelapp.services.StaySearch;
+import javafx.animation.PauseTransition;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Label;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ChoiceDialog;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 import javafx.scene.Scene;
+import javafx.util.Duration;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
 
 public class ReservationController {
@@ -32,12 +41,24 @@ public class ReservationController {
     @FXML private Label lblNights;
     @FXML private Label lblTotal;
     @FXML private Label lblStatus;
+    @FXML private ProgressIndicator busyIndicator;
 
-    private final RoomDAO roomDAO = new RoomDAO();
     private final ReservationService reservationService = new ReservationService();
+    private final AvailabilityService availabilityService = new AvailabilityService();
+    private final RateCalendar rateCalendar = RateCalendar.getInstance();
+    private final StaySearch staySearch = new StaySearch();
+    private final BackgroundTasks tasks = new BackgroundTasks();
+
+    // "sometime in the next two weeks" for the cheapest-dates search
+    private static final int FLEXIBLE_WINDOW_DAYS = 14;
+
+    // re-run the room search once the date pickers have been quiet for a moment
+    private final PauseTransition roomSearchDelay = new PauseTransition(Duration.millis(300));
+    private boolean booking;    // a booking is in flight; ignore further clicks
 
     @FXML
     public void initialize() {
+        tasks.bindIndicator(busyIndicator);
         loadFreeRooms();
         if (lblPrice != null) lblPrice.setText("-");
         if (lblNights != null) lblNights.setText("0");
@@ -46,25 +67,54 @@ public class ReservationController {
         // Update price when room is selected
         cmbRoom.setOnAction(e -> updatePrice());
         
-        // Update calculation when dates change
-        dpCheckIn.valueProperty().addListener((obs, oldVal, newVal) -> handleCalculate());
-        dpCheckOut.valueProperty().addListener((obs, oldVal, newVal) -> handleCalculate());
+        // Update calculation and the available rooms when dates change
+        roomSearchDelay.setOnFinished(e -> loadFreeRooms());
+        dpCheckIn.valueProperty().addListener((obs, oldVal, newVal) -> {
+            handleCalculate();
+            roomSearchDelay.playFromStart();
+        });
+        dpCheckOut.valueProperty().addListener((obs, oldVal, newVal) -> {
+            handleCalculate();
+            roomSearchDelay.playFromStart();
+        });
     }
 
+    /**
+     * Load rooms that are free for the selected stay (tonight if no valid dates yet).
+     * The query runs in the background; a newer search supersedes an older one.
+     */
     private void loadFreeRooms() {
-        try {
-            var freeRooms = roomDAO.getFreeRooms();
-            cmbRoom.getItems().clear();
-            cmbRoom.getItems().addAll(freeRooms);
-            if (freeRooms.isEmpty()) {
-                lblStatus.setText("No free rooms available");
-                lblStatus.setStyle("-fx-text-fill:red;");
-            } else {
-                lblStatus.setText("");
-            }
-        } catch (Exception e) {
+        LocalDate checkIn = dpCheckIn.getValue();
+        LocalDate checkOut = dpCheckOut.getValue();
+        if (checkIn == null || checkOut == null || !checkIn.isBefore(checkOut)) {
+            checkIn = LocalDate.now();
+            checkOut = checkIn.plusDays(1);
+        }
+        final LocalDate from = checkIn;
+        final LocalDate to = checkOut;
+
+        tasks.submit("search", () -> availabilityService.findAvailableRooms(from, to), this::showFreeRooms, e -> {
             e.printStackTrace();
             showError("Failed to load rooms: " + e.getMessage());
+        });
+    }
+
+    private void showFreeRooms(List<Room> freeRooms) {
+        // keep the current choice if it is still available for the new dates
+        Room selected = cmbRoom.getSelectionModel().getSelectedItem();
+        cmbRoom.getItems().setAll(freeRooms);
+        if (selected != null) {
+            freeRooms.stream()
+                    .filter(r -> r.getId() == selected.getId())
+                    .findFirst()
+                    .ifPresent(r -> cmbRoom.getSelectionModel().select(r));
+        }
+        if (freeRooms.isEmpty()) {
+            lblStatus.setText("No rooms available for the selected dates");
+            lblStatus.setStyle("-fx-text-fill:red;");
+        } else if (cmbRoom.getSelectionModel().isEmpty()) {
+            lblPrice.setText("-");
+            lblStatus.setText("");
         }
     }
 
@@ -105,15 +155,69 @@ public class ReservationController {
         }
 
         long nights = ChronoUnit.DAYS.between(checkIn, checkOut);
-        double total = nights * selected.getPrice();
+        double total;
+        try {
+            total = rateCalendar.quote(selected, checkIn, checkOut);
+        } catch (Exception e) {
+            e.printStackTrace();
+            showError("Failed to price the stay: " + e.getMessage());
+            return;
+        }
 
         lblNights.setText(String.valueOf(nights));
         lblTotal.setText("Tk " + String.format("%.2f", total));
         lblStatus.setText("");
     }
 
+    /**
+     * Cheapest rooms and dates for a stay as long as the selected one (one
+     * night if none) in the two weeks from the check-in date (today if none).
+     */
+    @FXML
+    public void handleFindCheapest() {
+        LocalDate checkIn = dpCheckIn.getValue();
+        LocalDate checkOut = dpCheckOut.getValue();
+        int nights = checkIn != null && checkOut != null && checkIn.isBefore(checkOut)
+                ? (int) ChronoUnit.DAYS.between(checkIn, checkOut) : 1;
+        LocalDate from = checkIn != null && !checkIn.isBefore(LocalDate.now()) ? checkIn : LocalDate.now();
+        LocalDate to = from.plusDays(Math.max(FLEXIBLE_WINDOW_DAYS, nights));
+
+        tasks.submit("cheapest", () -> staySearch.findCheapest(from, to, nights), options -> {
+            if (options.isEmpty()) {
+                lblStatus.setText("No room is free for " + nights + " night(s) between " + from + " and " + to);
+                lblStatus.setStyle("-fx-text-fill:red;");
+                return;
+            }
+            ChoiceDialog<StayOption> dialog = new ChoiceDialog<>(options.get(0), options);
+            dialog.setTitle("Cheapest Dates");
+            dialog.setHeaderText("Cheapest " + nights + "-night stays between " + from + " and " + to);
+            dialog.setContentText("Stay:");
+            dialog.showAndWait().ifPresent(this::selectOption);
+        }, e -> {
+            e.printStackTrace();
+            showError("Search failed: " + e.getMessage());
+        });
+    }
+
+    private void selectOption(StayOption option) {
+        dpCheckIn.setValue(option.getCheckin());
+        dpCheckOut.setValue(option.getCheckout());
+        // the room list is reloaded for the new dates and keeps this selection
+        Room room = cmbRoom.getItems().stream()
+                .filter(r -> r.getId() == option.getRoom().getId())
+                .findFirst()
+                .orElse(null);
+        if (room == null) {
+            room = option.getRoom();
+            cmbRoom.getItems().add(room);
+        }
+        cmbRoom.getSelectionModel().select(room);
+        updatePrice();
+    }
+
     @FXML
     public void handleBook() {
+        if (booking) return;
         Room selected = cmbRoom.getSelectionModel().getSelectedItem();
         LocalDate checkIn = dpCheckIn.getValue();
         LocalDate checkOut = dpCheckOut.getValue();
@@ -153,35 +257,47 @@ public class ReservationController {
             return;
         }
 
+        // Calculate total from the rate calendar (weekend / season / override rates)
+        double total;
         try {
-            // Calculate total
-            long nights = ChronoUnit.DAYS.between(checkIn, checkOut);
-            double total = nights * selected.getPrice();
-
-            // Create customer with all information
-            Customer customer = new Customer(name, phone, null, address, nidPassport);
+            total = rateCalendar.quote(selected, checkIn, checkOut);
+        } catch (Exception e) {
+            e.printStackTrace();
+            showError("Failed to price the stay: " + e.getMessage());
+            return;
+        }
 
-            // Book reservation
-            int reservationId = reservationService.bookReservation(customer, selected.getId(), checkIn, checkOut, total);
+        // Create customer with all information
+        Customer customer = new Customer(name, phone, null, address, nidPassport);
 
-            if (reservationId > 0) {
+        // Book reservation (keyless: a booking is never superseded)
+        booking = true;
+        tasks.submitAsync(null, () -> reservationService.tryBookAsync(customer, selected.getId(), checkIn, checkOut, total), result -> {
+            booking = false;
+            if (result.isBooked()) {
+                int reservationId = result.getReservationId();
                 Alert success = new Alert(Alert.AlertType.INFORMATION);
                 success.setTitle("Success");
                 success.setHeaderText(null);
                 success.setContentText("Reservation booked successfully! Reservation ID: " + reservationId);
-                Optional<ButtonType> result = success.showAndWait();
-                if (result.isPresent()) {
+                Optional<ButtonType> answer = success.showAndWait();
+                if (answer.isPresent()) {
                     // Reload free rooms before going back (in case user wants to book again)
                     loadFreeRooms();
                     goBack();
                 }
+            } else if (result.getStatus() == BookingResult.Status.SOLD_OUT) {
+                showError("No more " + selected.getType() + " rooms can be sold for the selected dates.");
             } else {
-                showError("Failed to book reservation");
+                // taken since the list was loaded (e.g. from another terminal)
+                showError("Room " + selected.getRoomNumber() + " is no longer available for the selected dates. Please choose another room.");
+                loadFreeRooms();
             }
-        } catch (Exception e) {
+        }, e -> {
+            booking = false;
             e.printStackTrace();
             showError("Booking failed: " + e.getMessage());
-        }
+        });
     }
 
     @FXML
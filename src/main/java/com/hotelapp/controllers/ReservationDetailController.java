@@ -1,6 +1,7 @@
 package com.hotelapp.controllers;
 
 import com.hotelapp.models.Reservation;
+import com.hotelapp.services.RateCalendar;
 import com.hotelapp.services.ReservationService;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -22,51 +23,82 @@ public class ReservationDetailController {
     @FXML private Label lblStatus;
     @FXML private Button btnCheckIn;
     @FXML private Button btnCheckOut;
+    @FXML private ProgressIndicator busyIndicator;
 
     private final ReservationService reservationService = new ReservationService();
+    private final RateCalendar rateCalendar = RateCalendar.getInstance();
+    private final BackgroundTasks tasks = new BackgroundTasks();
     private Reservation current;
 
     private int reservationId;
 
+    @FXML
+    public void initialize() {
+        tasks.bindIndicator(busyIndicator);
+        // re-price the stay as the dates are edited
+        dpCheckIn.valueProperty().addListener((obs, o, n) -> showQuote());
+        dpCheckOut.valueProperty().addListener((obs, o, n) -> showQuote());
+    }
+
+    private void showQuote() {
+        if (current == null) return;
+        LocalDate in = dpCheckIn.getValue();
+        LocalDate out = dpCheckOut.getValue();
+        if (in == null || out == null || !in.isBefore(out)) return;
+        if (in.equals(current.getCheckin()) && out.equals(current.getCheckout())) {
+            lblTotal.setText(String.format("Tk %.2f", current.getTotal()));    // as booked
+            return;
+        }
+        try {
+            lblTotal.setText(String.format("Tk %.2f", rateCalendar.quote(current.getRoomId(), in, out)));
+        } catch (Exception e) {
+            e.printStackTrace();
+            lblTotal.setText("-");
+        }
+    }
+
     public void setReservationId(int id) {
         this.reservationId = id;
         loadReservation();
     }
 
     private void loadReservation() {
-        try {
-            current = reservationService.getReservationById(reservationId);
-            if (current == null) {
-                showError("Reservation not found.");
-                return;
-            }
-            lblId.setText(String.valueOf(current.getId()));
-            lblGuest.setText(current.getCustomerName());
-            lblRoom.setText(current.getRoomNumber() != null ? current.getRoomNumber() : String.valueOf(current.getRoomId()));
-            dpCheckIn.setValue(current.getCheckin());
-            dpCheckOut.setValue(current.getCheckout());
-            lblTotal.setText(String.format("Tk %.2f", current.getTotal()));
-            lblStatus.setText(current.getStatus());
-            
-            // Show/hide check-in/check-out buttons based on status
-            if ("CONFIRMED".equalsIgnoreCase(current.getStatus())) {
-                btnCheckIn.setVisible(true);
-                btnCheckOut.setVisible(false);
-            } else if ("CHECKED_IN".equalsIgnoreCase(current.getStatus())) {
-                btnCheckIn.setVisible(false);
-                btnCheckOut.setVisible(true);
-            } else {
-                btnCheckIn.setVisible(false);
-                btnCheckOut.setVisible(false);
-            }
-        } catch (Exception e) {
+        tasks.submit("load", () -> reservationService.getReservationById(reservationId), this::showReservation, e -> {
             e.printStackTrace();
             showError("Failed to load reservation: " + e.getMessage());
+        });
+    }
+
+    private void showReservation(Reservation loaded) {
+        current = loaded;
+        if (current == null) {
+            showError("Reservation not found.");
+            return;
+        }
+        lblId.setText(String.valueOf(current.getId()));
+        lblGuest.setText(current.getCustomerName());
+        lblRoom.setText(current.getRoomNumber() != null ? current.getRoomNumber() : String.valueOf(current.getRoomId()));
+        dpCheckIn.setValue(current.getCheckin());
+        dpCheckOut.setValue(current.getCheckout());
+        lblTotal.setText(String.format("Tk %.2f", current.getTotal()));
+        lblStatus.setText(current.getStatus());
+        
+        // Show/hide check-in/check-out buttons based on status
+        if ("CONFIRMED".equalsIgnoreCase(current.getStatus())) {
+            btnCheckIn.setVisible(true);
+            btnCheckOut.setVisible(false);
+        } else if ("CHECKED_IN".equalsIgnoreCase(current.getStatus())) {
+            btnCheckIn.setVisible(false);
+            btnCheckOut.setVisible(true);
+        } else {
+            btnCheckIn.setVisible(false);
+            btnCheckOut.setVisible(false);
         }
     }
 
     @FXML
     public void handleSave() {
+        if (current == null) return;     // still loading
         try {
             LocalDate in = dpCheckIn.getValue();
             LocalDate out = dpCheckOut.getValue();
@@ -74,16 +106,17 @@ public class ReservationDetailController {
                 showError("Invalid dates.");
                 return;
             }
-            long nights = java.time.temporal.ChronoUnit.DAYS.between(in, out);
-            // fetch room price simple query - compute total = nights * price
-            // For simplicity, keep same total if nights==0 we keep existing total
-            double pricePerNight = current.getTotal() / Math.max(1, java.time.temporal.ChronoUnit.DAYS.between(current.getCheckin(), current.getCheckout()));
-            double total = nights * pricePerNight;
-
-            reservationService.updateReservationDates(current.getId(), in, out, total);
-            Alert ok = new Alert(Alert.AlertType.INFORMATION, "Reservation updated", ButtonType.OK);
-            ok.showAndWait();
-            goBack();
+            // re-price the new dates from the rate calendar
+            int id = current.getId();
+            int roomId = current.getRoomId();
+            tasks.submit(null, () -> reservationService.updateReservationDates(id, in, out, rateCalendar.quote(roomId, in, out)), () -> {
+                Alert ok = new Alert(Alert.AlertType.INFORMATION, "Reservation updated", ButtonType.OK);
+                ok.showAndWait();
+                goBack();
+            }, e -> {
+                e.printStackTrace();
+                showError("Save failed: " + e.getMessage());
+            });
         } catch (Exception e) {
             e.printStackTrace();
             showError("Save failed: " + e.getMessage());
@@ -92,14 +125,20 @@ public class ReservationDetailController {
 
     @FXML
     public void handleCheckIn() {
+        if (current == null) return;
         try {
             Alert confirm = new Alert(Alert.AlertType.CONFIRMATION, "Check in this guest? The room will be marked as OCCUPIED.", ButtonType.OK, ButtonType.CANCEL);
             Optional<ButtonType> r = confirm.showAndWait();
             if (r.isEmpty() || r.get() != ButtonType.OK) return;
-            reservationService.checkIn(current.getId());
-            Alert ok = new Alert(Alert.AlertType.INFORMATION, "Guest checked in successfully!", ButtonType.OK);
-            ok.showAndWait();
-            loadReservation(); // Reload to update status and buttons
+            int id = current.getId();
+            tasks.submit(null, () -> reservationService.checkIn(id), () -> {
+                Alert ok = new Alert(Alert.AlertType.INFORMATION, "Guest checked in successfully!", ButtonType.OK);
+                ok.showAndWait();
+                loadReservation(); // Reload to update status and buttons
+            }, e -> {
+                e.printStackTrace();
+                showError("Check-in failed: " + e.getMessage());
+            });
         } catch (Exception e) {
             e.printStackTrace();
             showError("Check-in failed: " + e.getMessage());
@@ -108,14 +147,20 @@ public class ReservationDetailController {
 
     @FXML
     public void handleCheckOut() {
+        if (current == null) return;
         try {
             Alert confirm = new Alert(Alert.AlertType.CONFIRMATION, "Check out this guest? The room will be marked as FREE.", ButtonType.OK, ButtonType.CANCEL);
             Optional<ButtonType> r = confirm.showAndWait();
             if (r.isEmpty() || r.get() != ButtonType.OK) return;
-            reservationService.checkOut(current.getId());
-            Alert ok = new Alert(Alert.AlertType.INFORMATION, "Guest checked out successfully!", ButtonType.OK);
-            ok.showAndWait();
-            loadReservation(); // Reload to update status and buttons
+            int id = current.getId();
+            tasks.submit(null, () -> reservationService.checkOut(id), () -> {
+                Alert ok = new Alert(Alert.AlertType.INFORMATION, "Guest checked out successfully!", ButtonType.OK);
+                ok.showAndWait();
+                loadReservation(); // Reload to update status and buttons
+            }, e -> {
+                e.printStackTrace();
+                showError("Check-out failed: " + e.getMessage());
+            });
         } catch (Exception e) {
             e.printStackTrace();
             showError("Check-out failed: " + e.getMessage());
@@ -124,14 +169,20 @@ public class ReservationDetailController {
 
     @FXML
     public void handleCancel() {
+        if (current == null) return;
         try {
             Alert confirm = new Alert(Alert.AlertType.CONFIRMATION, "Cancel this reservation?", ButtonType.OK, ButtonType.CANCEL);
             Optional<ButtonType> r = confirm.showAndWait();
             if (r.isEmpty() || r.get() != ButtonType.OK) return;
-            reservationService.cancelReservation(current.getId());
-            Alert ok = new Alert(Alert.AlertType.INFORMATION, "Reservation cancelled", ButtonType.OK);
-            ok.showAndWait();
-            goBack();
+            int id = current.getId();
+            tasks.submit(null, () -> reservationService.cancelReservation(id), () -> {
+                Alert ok = new Alert(Alert.AlertType.INFORMATION, "Reservation cancelled", ButtonType.OK);
+                ok.showAndWait();
+                goBack();
+            }, e -> {
+                e.printStackTrace();
+                showError("Cancel failed: " + e.getMessage());
+            });
         } catch (Exception e) {
             e.printStackTrace();
             showError("Cancel failed: " + e.getMessage());
@@ -1,7 +1,8 @@
 package com.hotelapp.controllers;
 
-import com.hotelapp.dao.RoomDAO;
 import com.hotelapp.models.Room;
+import com.hotelapp.services.RoomCatalog;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -11,7 +12,6 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 import javafx.scene.Scene;
 
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -30,11 +30,17 @@ public class RoomController {
     @FXML private TextField tfType;
     @FXML private TextField tfPrice;
     @FXML private ComboBox<String> cmbStatus;
+    @FXML private ProgressIndicator busyIndicator;
 
-    private final RoomDAO roomDAO = new RoomDAO();
+    private final RoomCatalog catalog = RoomCatalog.getInstance();
+    private final BackgroundTasks tasks = new BackgroundTasks();
+    // redraw the table whenever the catalog changes, whoever changed it
+    private final RoomCatalog.Listener catalogListener = version -> Platform.runLater(this::refreshTable);
 
     @FXML
     public void initialize() {
+        tasks.bindIndicator(busyIndicator);
+
         // Setup columns
         colId.setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue().getId()));
         colNumber.setCellValueFactory(new PropertyValueFactory<>("roomNumber"));
@@ -54,6 +60,7 @@ public class RoomController {
             cmbStatus.getItems().addAll("FREE", "BOOKED", "MAINTENANCE");
         }
 
+        catalog.addListener(catalogListener);
         refreshTable();
     }
 
@@ -64,20 +71,25 @@ public class RoomController {
         cmbStatus.getSelectionModel().select(r.getStatus());
     }
 
+    /**
+     * Re-read the rooms from the database, picking up changes made on other terminals.
+     */
     @FXML
     public void handleRefresh() {
-        refreshTable();
+        tasks.submit("reload", catalog::load, () -> {}, e -> {
+            e.printStackTrace();
+            showError("Failed to load rooms: " + e.getMessage());
+        });
     }
 
     private void refreshTable() {
-        try {
-            List<Room> rooms = roomDAO.getAllRooms();
+        tasks.submit("load", catalog::getAllRooms, rooms -> {
             tblRooms.getItems().clear();
             tblRooms.getItems().addAll(rooms);
-        } catch (Exception e) {
+        }, e -> {
             e.printStackTrace();
             showError("Failed to load rooms: " + e.getMessage());
-        }
+        });
     }
 
     @FXML
@@ -101,10 +113,13 @@ public class RoomController {
             }
 
             Room r = new Room(number, type, price, status);
-            roomDAO.addRoom(r);
-            showInfo("Room added.");
-            clearForm();
-            refreshTable();
+            tasks.submit(null, () -> catalog.addRoom(r), () -> {
+                showInfo("Room added.");
+                clearForm();
+            }, e -> {
+                e.printStackTrace();
+                showError("Add failed: " + e.getMessage());
+            });
         } catch (Exception e) {
             e.printStackTrace();
             showError("Add failed: " + e.getMessage());
@@ -142,10 +157,13 @@ public class RoomController {
             selected.setPrice(price);
             selected.setStatus(status);
 
-            roomDAO.updateRoom(selected);
-            showInfo("Room updated.");
-            clearForm();
-            refreshTable();
+            tasks.submit(null, () -> catalog.updateRoom(selected), () -> {
+                showInfo("Room updated.");
+                clearForm();
+            }, e -> {
+                e.printStackTrace();
+                showError("Update failed: " + e.getMessage());
+            });
         } catch (Exception e) {
             e.printStackTrace();
             showError("Update failed: " + e.getMessage());
@@ -168,10 +186,13 @@ public class RoomController {
             Optional<ButtonType> r = confirm.showAndWait();
             if (r.isEmpty() || r.get() != ButtonType.OK) return;
 
-            roomDAO.deleteRoom(selected.getId());
-            showInfo("Room deleted.");
-            clearForm();
-            refreshTable();
+            tasks.submit(null, () -> catalog.deleteRoom(selected.getId()), () -> {
+                showInfo("Room deleted.");
+                clearForm();
+            }, e -> {
+                e.printStackTrace();
+                showError("Delete failed: " + e.getMessage());
+            });
         } catch (Exception e) {
             e.printStackTrace();
             showError("Delete failed: " + e.getMessage());
@@ -179,6 +200,7 @@ public class RoomController {
     }
 
     public void goBack() {
+        catalog.removeListener(catalogListener);
         try {
             Parent root = FXMLLoader.load(getClass().getResource("/fxml/dashboard.fxml"));
             Stage stage = (Stage) tblRooms.getScene().getWindow();
@@ -195,6 +217,7 @@ public class RoomController {
      */
     @FXML
     public void handleLogout() {
+        catalog.removeListener(catalogListener);
         try {
             Parent root = FXMLLoader.load(getClass().getResource("/fxml/login.fxml"));
             Stage stage = (Stage) tblRooms.getScene().getWindow();
@@ -3,6 +3,7 @@ package com.hotelapp.dao;
 
 import com.hotelapp.models.Customer;
 import com.hotelapp.utils.DBUtil;
+import com.hotelapp.utils.EntityCache;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -10,20 +11,60 @@ import java.util.List;
 
 public class CustomerDAO {
 
+    // Customer mutations without a caller-supplied connection are queued on the
+    // single writer thread (DBUtil.write), like RoomDAO.
+
+    // findById is served from a read-through cache that every mutation below
+    // invalidates. 2048 keeps the guests in house and arriving of a few hundred
+    // rooms in the protected segment; override with -Dhotel.cache.customers=N.
+    private static final int DEFAULT_CACHE_SIZE = 2048;
+    private static final EntityCache<Integer, Customer> CACHE = new EntityCache<>("customers",
+            Integer.getInteger("hotel.cache.customers", DEFAULT_CACHE_SIZE),
+            EntityCache.configuredTtlSeconds(), CustomerDAO::copy);
+
+    private final CustomerIdentityIndex identities = CustomerIdentityIndex.getInstance();
+
+    public static EntityCache.Stats getCacheStats() {
+        return CACHE.getStats();
+    }
+
+    private static Customer copy(Customer c) {
+        return new Customer(c.getId(), c.getName(), c.getPhone(), c.getEmail(), c.getAddress(), c.getNidPassport());
+    }
+
     public int createCustomer(Customer customer) throws SQLException {
-        String sql = "INSERT INTO customers(name, phone, email, address, nid_passport) VALUES (?, ?, ?, ?, ?)";
-        try (Connection c = DBUtil.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        return DBUtil.write(conn -> createCustomer(customer, conn));
+    }
+
+    /**
+     * Insert the customer even if another one has the same name and phone
+     * (the new row then does not take over that identity for findOrCreate).
+     */
+    public int createCustomer(Customer customer, Connection conn) throws SQLException {
+        String nameKey = CustomerIdentityIndex.nameKey(customer.getName());
+        String phoneNorm = CustomerIdentityIndex.phoneNorm(customer.getPhone());
+        boolean owner = identities.find(nameKey, phoneNorm, conn) == null;
+        int id = insert(customer, owner ? nameKey : null, owner ? phoneNorm : null, conn);
+        customer.setId(id);
+        return id;
+    }
+
+    private int insert(Customer customer, String nameKey, String phoneNorm, Connection conn) throws SQLException {
+        String sql = "INSERT INTO customers(name, phone, email, address, nid_passport, name_key, phone_norm) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, customer.getName());
             ps.setString(2, customer.getPhone());
             ps.setString(3, customer.getEmail());
             ps.setString(4, customer.getAddress());
             ps.setString(5, customer.getNidPassport());
+            ps.setString(6, nameKey);
+            ps.setString(7, phoneNorm);
             ps.executeUpdate();
             try (ResultSet rs = ps.getGeneratedKeys()) {
                 if (rs.next()) {
                     int id = rs.getInt(1);
-                    customer.setId(id);
+                    if (nameKey != null) identities.added(nameKey, phoneNorm, id);
                     return id;
                 }
             }
@@ -32,6 +73,10 @@ public class CustomerDAO {
     }
 
     public Customer findById(int id) throws SQLException {
+        return CACHE.get(id, this::loadById);
+    }
+
+    private Customer loadById(int id) throws SQLException {
         String sql = "SELECT id, name, phone, email, " +
                     "COALESCE(address, '') as address, " +
                     "COALESCE(nid_passport, '') as nid_passport " +
@@ -65,8 +110,8 @@ public class CustomerDAO {
                     "COALESCE(nid_passport, '') as nid_passport " +
                     "FROM customers ORDER BY name";
         try (Connection c = DBUtil.getConnection();
-             Statement st = c.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 Customer cust = new Customer();
                 cust.setId(rs.getInt("id"));
@@ -84,54 +129,69 @@ public class CustomerDAO {
     }
 
     public void updateCustomer(Customer customer) throws SQLException {
-        String sql = "UPDATE customers SET name = ?, phone = ?, email = ?, address = ?, nid_passport = ? WHERE id = ?";
-        try (Connection c = DBUtil.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        DBUtil.write(conn -> {
+            updateCustomer(customer, conn);
+            return null;
+        });
+    }
+
+    public void updateCustomer(Customer customer, Connection conn) throws SQLException {
+        // the new identity is kept only if no other customer already owns it
+        identities.removed(customer.getId());
+        String nameKey = CustomerIdentityIndex.nameKey(customer.getName());
+        String phoneNorm = CustomerIdentityIndex.phoneNorm(customer.getPhone());
+        Integer owner = identities.find(nameKey, phoneNorm, conn);
+        boolean keyed = owner == null || owner == customer.getId();
+
+        String sql = "UPDATE customers SET name = ?, phone = ?, email = ?, address = ?, nid_passport = ?, " +
+                "name_key = ?, phone_norm = ? WHERE id = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, customer.getName());
             ps.setString(2, customer.getPhone());
             ps.setString(3, customer.getEmail()); // Keep existing email or null
             ps.setString(4, customer.getAddress());
             ps.setString(5, customer.getNidPassport());
-            ps.setInt(6, customer.getId());
+            ps.setString(6, keyed ? nameKey : null);
+            ps.setString(7, keyed ? phoneNorm : null);
+            ps.setInt(8, customer.getId());
             ps.executeUpdate();
         }
+        if (keyed) identities.added(nameKey, phoneNorm, customer.getId());
+        CACHE.invalidate(customer.getId());
+        ReservationDAO.invalidateAllCached();   // reservations carry the guest's name
     }
 
     public void deleteCustomer(int id) throws SQLException {
+        DBUtil.write(conn -> {
+            deleteCustomer(id, conn);
+            return null;
+        });
+    }
+
+    public void deleteCustomer(int id, Connection conn) throws SQLException {
         String sql = "DELETE FROM customers WHERE id = ?";
-        try (Connection c = DBUtil.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, id);
             ps.executeUpdate();
         }
+        identities.removed(id);
+        CACHE.invalidate(id);
+        ReservationDAO.invalidateAllCached();
+        ReservationStore.getInstance().customerDeleted(id);    // reservations cascade
     }
 
     /**
      * findOrCreate: look up customer by (name, phone) and return id; if not found insert and return new id.
+     * Name and phone are compared in normal form (case, spacing, phone punctuation
+     * ignored), through CustomerIdentityIndex and the unique identity index, so
+     * the lookup never scans the customers table.
      * This variant accepts a Connection so the caller can use it inside a transaction.
      */
     public int findOrCreate(Customer customer, Connection conn) throws SQLException {
-        String findSql = "SELECT id FROM customers WHERE name = ? AND phone = ?";
-        try (PreparedStatement ps = conn.prepareStatement(findSql)) {
-            ps.setString(1, customer.getName());
-            ps.setString(2, customer.getPhone());
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return rs.getInt("id");
-            }
-        }
-
-        String insertSql = "INSERT INTO customers(name, phone, email, address, nid_passport) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement ps = conn.prepareStatement(insertSql, PreparedStatement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, customer.getName());
-            ps.setString(2, customer.getPhone());
-            ps.setString(3, customer.getEmail());
-            ps.setString(4, customer.getAddress());
-            ps.setString(5, customer.getNidPassport());
-            ps.executeUpdate();
-            try (ResultSet rs = ps.getGeneratedKeys()) {
-                if (rs.next()) return rs.getInt(1);
-            }
-        }
-        throw new SQLException("Failed to create or find customer");
+        String nameKey = CustomerIdentityIndex.nameKey(customer.getName());
+        String phoneNorm = CustomerIdentityIndex.phoneNorm(customer.getPhone());
+        Integer id = identities.find(nameKey, phoneNorm, conn);
+        if (id != null) return id;
+        return insert(customer, nameKey, phoneNorm, conn);
     }
 }
@@ -0,0 +1,160 @@
+package com.hotelapp.dao;
+
+import com.hotelapp.utils.DBUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Guest identity (name + phone) -> customer id, for CustomerDAO.findOrCreate.
+ *
+ * Identities are compared in normal form: the name with Unicode compatibility
+ * forms folded, case folded and runs of whitespace collapsed, and the phone
+ * reduced to its digits. The normal forms are stored in customers.name_key /
+ * customers.phone_norm under a unique index (Migrations v6), so a miss here
+ * is one index probe, never a table scan. Older duplicate rows keep NULL
+ * keys; the oldest row of an identity owns it.
+ *
+ * The map is warmed at startup ({@link #load()}) and otherwise filled as
+ * identities are looked up. New ids are only added once the insert has
+ * committed, and a customer's entry is dropped whenever it is updated or
+ * deleted here. Other processes (another terminal, the DatabaseUtility app)
+ * may change customers behind the map's back, so a hit is still confirmed
+ * with a primary-key probe on the caller's connection; a stale entry is
+ * dropped and the identity looked up again.
+ */
+public class CustomerIdentityIndex {
+
+    private static final CustomerIdentityIndex INSTANCE = new CustomerIdentityIndex();
+
+    public static CustomerIdentityIndex getInstance() {
+        return INSTANCE;
+    }
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    // the reverse of ids, so a customer's entry is dropped without a scan; both change under this
+    private final ConcurrentHashMap<Integer, String> keys = new ConcurrentHashMap<>();
+
+    private CustomerIdentityIndex() {}
+
+    /**
+     * Canonical form of a guest name: NFKC, case folded, single spaces, trimmed.
+     */
+    public static String nameKey(String name) {
+        if (name == null) return "";
+        String s = Normalizer.normalize(name, Normalizer.Form.NFKC);
+        s = s.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+        return s.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Canonical form of a phone number: its digits only ("" if none).
+     */
+    public static String phoneNorm(String phone) {
+        if (phone == null) return "";
+        StringBuilder sb = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char ch = phone.charAt(i);
+            if (Character.isDigit(ch)) sb.append(Character.forDigit(Character.digit(ch, 10), 10));
+        }
+        return sb.toString();
+    }
+
+    private static String key(String nameKey, String phoneNorm) {
+        return nameKey + '\u0000' + phoneNorm;
+    }
+
+    /**
+     * Read every keyed customer into the map.
+     */
+    public void load() throws SQLException {
+        long start = System.nanoTime();
+        String sql = "SELECT id, name_key, phone_norm FROM customers WHERE name_key IS NOT NULL";
+        int count = 0;
+        try (Connection c = DBUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                put(key(rs.getString("name_key"), rs.getString("phone_norm")), rs.getInt("id"));
+                count++;
+            }
+        }
+        System.out.printf("Customer identity index loaded: %d guests (%.1f ms)%n",
+                count, (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    /**
+     * The id of the customer owning this identity, read on the given
+     * connection if it is not in the map yet. Null if there is none.
+     */
+    Integer find(String nameKey, String phoneNorm, Connection conn) throws SQLException {
+        String key = key(nameKey, phoneNorm);
+        Integer id = ids.get(key);
+        if (id != null) {
+            if (stillOwns(id, nameKey, phoneNorm, conn)) return id;
+            remove(id);     // deleted or edited by another process
+        }
+
+        String sql = "SELECT id FROM customers WHERE name_key = ? AND phone_norm = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, nameKey);
+            ps.setString(2, phoneNorm);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                id = rs.getInt(1);
+            }
+        }
+        int found = id;
+        DBUtil.onCommit(() -> put(key, found));    // the row may be this transaction's own insert
+        return id;
+    }
+
+    private static boolean stillOwns(int id, String nameKey, String phoneNorm, Connection conn) throws SQLException {
+        String sql = "SELECT 1 FROM customers WHERE id = ? AND name_key = ? AND phone_norm = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            ps.setString(2, nameKey);
+            ps.setString(3, phoneNorm);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Remember an identity inserted by the calling write command, once it commits.
+     */
+    void added(String nameKey, String phoneNorm, int id) {
+        String key = key(nameKey, phoneNorm);
+        DBUtil.onCommit(() -> put(key, id));
+    }
+
+    /**
+     * Forget the customer's identity, now and when the write transaction ends.
+     */
+    void removed(int id) {
+        remove(id);
+        DBUtil.afterCommit(() -> remove(id));
+    }
+
+    private synchronized void put(String key, int id) {
+        Integer oldId = ids.put(key, id);
+        if (oldId != null && oldId != id) keys.remove(oldId, key);
+        String oldKey = keys.put(id, key);
+        if (oldKey != null && !oldKey.equals(key)) ids.remove(oldKey, id);
+    }
+
+    private synchronized void remove(int id) {
+        String key = keys.remove(id);
+        if (key != null) ids.remove(key, id);
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,91 @@
+package com.hotelapp.dao;
+
+import com.hotelapp.models.CustomerSummary;
+import com.hotelapp.utils.DBUtil;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Guest search over the customers_fts full-text index (see Migrations v5).
+ *
+ * Every word typed is matched as a prefix in name, phone, NID/passport or
+ * address; results are ranked with bm25, name and identifiers weighing more
+ * than address. If no customer matches all words, customers matching any
+ * of them are returned instead, best matches first, so a misspelled word
+ * does not hide an otherwise good hit.
+ */
+public class CustomerSearchDAO {
+    public static final int DEFAULT_LIMIT = 100;
+
+    // bm25 column weights: name, phone, nid_passport, address
+    private static final String RANK = "bm25(customers_fts, 10.0, 8.0, 8.0, 1.0)";
+
+    public List<CustomerSummary> search(String text) throws SQLException {
+        return search(text, DEFAULT_LIMIT);
+    }
+
+    /**
+     * Customers matching the search text, best match first (empty if the text has no words).
+     */
+    public List<CustomerSummary> search(String text, int limit) throws SQLException {
+        List<String> terms = tokenize(text);
+        if (terms.isEmpty()) return new ArrayList<>();
+
+        List<CustomerSummary> result = query(matchExpression(terms, " AND "), limit);
+        if (result.isEmpty() && terms.size() > 1) {
+            result = query(matchExpression(terms, " OR "), limit);
+        }
+        return result;
+    }
+
+    private List<CustomerSummary> query(String match, int limit) throws SQLException {
+        String sql = "SELECT c.id, c.name, c.phone, c.email, c.address, c.nid_passport, " +
+                "COALESCE(s.reservation_count, 0) AS reservation_count, " +
+                "COALESCE(s.lifetime_spend, 0) AS lifetime_spend, " +
+                "s.last_stay, " +
+                "COALESCE(s.active_stays, 0) AS active_stays " +
+                "FROM customers_fts f " +
+                "JOIN customers c ON c.id = f.rowid " +
+                "LEFT JOIN customer_stats s ON s.customer_id = c.id " +
+                "WHERE customers_fts MATCH ? " +
+                "ORDER BY " + RANK + ", c.name " +
+                "LIMIT ?";
+        List<CustomerSummary> list = new ArrayList<>();
+        try (Connection c = DBUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, match);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(CustomerSummaryDAO.mapSummary(rs));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Split on anything that is not a letter or digit, the same way the
+     * unicode61 tokenizer does, so "+880-1711" finds phone 880-1711-...
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) return terms;
+        for (String t : text.split("[^\\p{L}\\p{N}]+")) {
+            if (!t.isEmpty()) terms.add(t);
+        }
+        return terms;
+    }
+
+    // each term quoted (no FTS5 operators from user input) and matched as a prefix
+    private static String matchExpression(List<String> terms, String operator) {
+        StringBuilder sb = new StringBuilder();
+        for (String t : terms) {
+            if (sb.length() > 0) sb.append(operator);
+            sb.append('"').append(t).append("\"*");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.hotelapp.dao;
+
+import com.hotelapp.models.Customer;
+import com.hotelapp.models.CustomerSummary;
+import com.hotelapp.utils.DBUtil;
+import com.hotelapp.utils.Migrations;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Customers with reservation count, lifetime spend, last stay and active-stay flag.
+ *
+ * getAllSummaries() reads the customer_stats table, which triggers on
+ * reservations keep up to date (see Migrations v4), so it is a single pass
+ * over customers. computeAllSummaries() derives the same data directly from
+ * reservations with one GROUP BY, e.g. to check or rebuild the table.
+ */
+public class CustomerSummaryDAO {
+
+    public List<CustomerSummary> getAllSummaries() throws SQLException {
+        String sql = "SELECT c.id, c.name, c.phone, c.email, c.address, c.nid_passport, " +
+                "COALESCE(s.reservation_count, 0) AS reservation_count, " +
+                "COALESCE(s.lifetime_spend, 0) AS lifetime_spend, " +
+                "s.last_stay, " +
+                "COALESCE(s.active_stays, 0) AS active_stays " +
+                "FROM customers c " +
+                "LEFT JOIN customer_stats s ON s.customer_id = c.id " +
+                "ORDER BY c.name";
+        return query(sql);
+    }
+
+    public List<CustomerSummary> computeAllSummaries() throws SQLException {
+        String sql = "SELECT c.id, c.name, c.phone, c.email, c.address, c.nid_passport, " +
+                "COUNT(r.id) AS reservation_count, " +
+                "COALESCE(SUM(CASE WHEN r.status <> 'CANCELLED' THEN r.total END), 0) AS lifetime_spend, " +
+                "MAX(CASE WHEN r.status <> 'CANCELLED' THEN r.checkin END) AS last_stay, " +
+                "COALESCE(SUM(r.status IN ('CONFIRMED', 'CHECKED_IN')), 0) AS active_stays " +
+                "FROM customers c " +
+                "LEFT JOIN reservations r ON r.customer_id = c.id " +
+                "GROUP BY c.id " +
+                "ORDER BY c.name";
+        return query(sql);
+    }
+
+    /**
+     * Recompute customer_stats from scratch (on the writer thread).
+     */
+    public void rebuildStats() throws SQLException {
+        DBUtil.write(conn -> {
+            try (Statement st = conn.createStatement()) {
+                st.executeUpdate("DELETE FROM customer_stats");
+                st.executeUpdate("INSERT INTO customer_stats " + Migrations.customerStatsSelect("1 = 1"));
+            }
+            return null;
+        });
+    }
+
+    private List<CustomerSummary> query(String sql) throws SQLException {
+        List<CustomerSummary> list = new ArrayList<>();
+        try (Connection c = DBUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                list.add(mapSummary(rs));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Map one row with the customer columns plus reservation_count,
+     * lifetime_spend, last_stay and active_stays.
+     */
+    static CustomerSummary mapSummary(ResultSet rs) throws SQLException {
+        Customer cust = new Customer();
+        cust.setId(rs.getInt("id"));
+        cust.setName(rs.getString("name"));
+        cust.setPhone(rs.getString("phone"));
+        cust.setEmail(rs.getString("email"));
+        String address = rs.getString("address");
+        cust.setAddress(address != null && !address.isEmpty() ? address : null);
+        String nid = rs.getString("nid_passport");
+        cust.setNidPassport(nid != null && !nid.isEmpty() ? nid : null);
+
+        long lastStayDay = rs.getLong("last_stay");
+        LocalDate lastStay = rs.wasNull() ? null : LocalDate.ofEpochDay(lastStayDay);
+        return new CustomerSummary(cust,
+                rs.getInt("reservation_count"),
+                rs.getDouble("lifetime_spend"),
+                lastStay,
+                rs.getInt("active_stays") > 0);
+    }
+}
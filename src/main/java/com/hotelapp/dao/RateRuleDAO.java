@@ -0,0 +1,79 @@
+package com.hotelapp.dao;
+
+import com.hotelapp.models.RateRule;
+import com.hotelapp.utils.DBUtil;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RateRuleDAO {
+
+    // Mutations without a caller-supplied connection are queued on the
+    // single writer thread (DBUtil.write), like RoomDAO.
+
+    /**
+     * All rules in the order they were added (later rules win between overrides).
+     */
+    public List<RateRule> getAllRules() throws SQLException {
+        List<RateRule> list = new ArrayList<>();
+        String sql = "SELECT id, room_type, kind, start_day, end_day, rate FROM rate_rules ORDER BY id";
+        try (Connection c = DBUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                RateRule r = new RateRule();
+                r.setId(rs.getInt("id"));
+                r.setRoomType(rs.getString("room_type"));
+                r.setKind(rs.getString("kind"));
+                long start = rs.getLong("start_day");
+                r.setStartDate(rs.wasNull() ? null : LocalDate.ofEpochDay(start));
+                long end = rs.getLong("end_day");
+                r.setEndDate(rs.wasNull() ? null : LocalDate.ofEpochDay(end));
+                r.setRate(rs.getDouble("rate"));
+                list.add(r);
+            }
+        }
+        return list;
+    }
+
+    public int addRule(RateRule rule) throws SQLException {
+        return DBUtil.write(conn -> addRule(rule, conn));
+    }
+
+    public int addRule(RateRule rule, Connection conn) throws SQLException {
+        String sql = "INSERT INTO rate_rules(room_type, kind, start_day, end_day, rate) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, rule.getRoomType());
+            ps.setString(2, rule.getKind());
+            ps.setObject(3, rule.getStartDate() == null ? null : rule.getStartDate().toEpochDay());
+            ps.setObject(4, rule.getEndDate() == null ? null : rule.getEndDate().toEpochDay());
+            ps.setDouble(5, rule.getRate());
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next()) {
+                    int id = rs.getInt(1);
+                    rule.setId(id);
+                    return id;
+                }
+            }
+        }
+        throw new SQLException("Failed to add rate rule");
+    }
+
+    public void deleteRule(int id) throws SQLException {
+        DBUtil.write(conn -> {
+            deleteRule(id, conn);
+            return null;
+        });
+    }
+
+    public void deleteRule(int id, Connection conn) throws SQLException {
+        String sql = "DELETE FROM rate_rules WHERE id = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            ps.executeUpdate();
+        }
+    }
+}
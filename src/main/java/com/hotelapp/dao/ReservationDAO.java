@@ -2,16 +2,49 @@ package com.hotelapp.dao;
 
 import com.hotelapp.models.Reservation;
 import com.hotelapp.utils.DBUtil;
+import com.hotelapp.utils.EntityCache;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class ReservationDAO {
 
+    // Mutations without a caller-supplied connection are queued on the
+    // single writer thread (DBUtil.write), like RoomDAO.
+
+    // findById is served from a read-through cache that every mutation below
+    // invalidates (and customer / room changes, for the joined names). Sized
+    // like the customer cache; override with -Dhotel.cache.reservations=N.
+    private static final int DEFAULT_CACHE_SIZE = 2048;
+    private static final EntityCache<Integer, Reservation> CACHE = new EntityCache<>("reservations",
+            Integer.getInteger("hotel.cache.reservations", DEFAULT_CACHE_SIZE),
+            EntityCache.configuredTtlSeconds(), ReservationDAO::copy);
+
+    public static EntityCache.Stats getCacheStats() {
+        return CACHE.getStats();
+    }
+
+    static void invalidateAllCached() {
+        CACHE.invalidateAll();
+    }
+
+    // column store of every stay, updated by the mutations below on commit
+    private final ReservationStore store = ReservationStore.getInstance();
+
+    private static Reservation copy(Reservation r) {
+        Reservation c = new Reservation(r.getCustomerId(), r.getRoomId(), r.getCheckin(), r.getCheckout(), r.getStatus(), r.getTotal());
+        c.setId(r.getId());
+        c.setCustomerName(r.getCustomerName());
+        c.setCustomerPhone(r.getCustomerPhone());
+        c.setRoomNumber(r.getRoomNumber());
+        return c;
+    }
+
     public int insertReservation(int customerId, int roomId, LocalDate checkin, LocalDate checkout, String status, double total) throws SQLException {
-        return insertReservation(customerId, roomId, checkin, checkout, status, total, null);
+        return DBUtil.write(conn -> insertReservation(customerId, roomId, checkin, checkout, status, total, conn));
     }
 
     public int insertReservation(int customerId, int roomId, LocalDate checkin, LocalDate checkout, String status, double total, Connection conn) throws SQLException {
@@ -23,13 +56,17 @@ public class ReservationDAO {
         try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setInt(1, customerId);
             ps.setInt(2, roomId);
-            ps.setString(3, checkin.toString());
-            ps.setString(4, checkout.toString());
+            ps.setLong(3, checkin.toEpochDay());
+            ps.setLong(4, checkout.toEpochDay());
             ps.setString(5, status);
             ps.setDouble(6, total);
             ps.executeUpdate();
             try (ResultSet rs = ps.getGeneratedKeys()) {
-                if (rs.next()) return rs.getInt(1);
+                if (rs.next()) {
+                    int id = rs.getInt(1);
+                    store.inserted(id, customerId, roomId, checkin, checkout, status, total);
+                    return id;
+                }
             }
         } finally {
             if (shouldClose && conn != null) {
@@ -39,7 +76,41 @@ public class ReservationDAO {
         return -1;
     }
 
+    /**
+     * Insert a CONFIRMED reservation only if the room has no CONFIRMED or
+     * CHECKED_IN stay overlapping [checkin, checkout). Check and insert are one
+     * statement, so no other writer can slip in between them.
+     * Returns the new id, or -1 if the room is taken.
+     */
+    public int insertIfAvailable(int customerId, int roomId, LocalDate checkin, LocalDate checkout, double total, Connection conn) throws SQLException {
+        String sql = "INSERT INTO reservations(customer_id, room_id, checkin, checkout, status, total) " +
+                "SELECT ?, ?, ?, ?, 'CONFIRMED', ? " +
+                "WHERE NOT EXISTS (SELECT 1 FROM reservations " +
+                "WHERE room_id = ? AND status IN ('CONFIRMED', 'CHECKED_IN') AND checkin < ? AND checkout > ?) " +
+                "RETURNING id";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, customerId);
+            ps.setInt(2, roomId);
+            ps.setLong(3, checkin.toEpochDay());
+            ps.setLong(4, checkout.toEpochDay());
+            ps.setDouble(5, total);
+            ps.setInt(6, roomId);
+            ps.setLong(7, checkout.toEpochDay());
+            ps.setLong(8, checkin.toEpochDay());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return -1;
+                int id = rs.getInt(1);
+                store.inserted(id, customerId, roomId, checkin, checkout, "CONFIRMED", total);
+                return id;
+            }
+        }
+    }
+
     public Reservation findById(int id) throws SQLException {
+        return CACHE.get(id, this::loadById);
+    }
+
+    private Reservation loadById(int id) throws SQLException {
         String sql = "SELECT r.id, r.customer_id, r.room_id, r.checkin, r.checkout, r.status, r.total, " +
                 "c.name AS customer_name, rm.room_number " +
                 "FROM reservations r " +
@@ -55,8 +126,8 @@ public class ReservationDAO {
                     r.setId(rs.getInt("id"));
                     r.setCustomerId(rs.getInt("customer_id"));
                     r.setRoomId(rs.getInt("room_id"));
-                    r.setCheckin(LocalDate.parse(rs.getString("checkin")));
-                    r.setCheckout(LocalDate.parse(rs.getString("checkout")));
+                    r.setCheckin(LocalDate.ofEpochDay(rs.getLong("checkin")));
+                    r.setCheckout(LocalDate.ofEpochDay(rs.getLong("checkout")));
                     r.setStatus(rs.getString("status"));
                     r.setTotal(rs.getDouble("total"));
                     r.setCustomerName(rs.getString("customer_name"));
@@ -68,29 +139,55 @@ public class ReservationDAO {
         return null;
     }
 
+    /**
+     * The reservation row alone (no customer / room names), read on the given
+     * connection, e.g. inside a write transaction. Null if not found.
+     */
+    public Reservation findRowById(int id, Connection conn) throws SQLException {
+        String sql = "SELECT id, customer_id, room_id, checkin, checkout, status, total FROM reservations WHERE id = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    Reservation r = new Reservation();
+                    r.setId(rs.getInt("id"));
+                    r.setCustomerId(rs.getInt("customer_id"));
+                    r.setRoomId(rs.getInt("room_id"));
+                    r.setCheckin(LocalDate.ofEpochDay(rs.getLong("checkin")));
+                    r.setCheckout(LocalDate.ofEpochDay(rs.getLong("checkout")));
+                    r.setStatus(rs.getString("status"));
+                    r.setTotal(rs.getDouble("total"));
+                    return r;
+                }
+            }
+        }
+        return null;
+    }
+
     public List<Reservation> findReservationsBetween(LocalDate from, LocalDate to) throws SQLException {
         return findReservationsBetween(from, to, null);
     }
 
     public List<Reservation> findReservationsBetween(LocalDate from, LocalDate to, Connection conn) throws SQLException {
         List<Reservation> list = new ArrayList<>();
+        // [checkin, checkout) overlaps [from, to)
         String sql = "SELECT id, customer_id, room_id, checkin, checkout, status, total FROM reservations " +
-                "WHERE NOT (checkout <= ? OR checkin >= ?) AND status = 'CONFIRMED'";
+                "WHERE status IN ('CONFIRMED', 'CHECKED_IN') AND checkin < ? AND checkout > ?";
         boolean shouldClose = (conn == null);
         if (conn == null) {
             conn = DBUtil.getConnection();
         }
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, from.toString());
-            ps.setString(2, to.toString());
+            ps.setLong(1, to.toEpochDay());
+            ps.setLong(2, from.toEpochDay());
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     Reservation r = new Reservation();
                     r.setId(rs.getInt("id"));
                     r.setCustomerId(rs.getInt("customer_id"));
                     r.setRoomId(rs.getInt("room_id"));
-                    r.setCheckin(LocalDate.parse(rs.getString("checkin")));
-                    r.setCheckout(LocalDate.parse(rs.getString("checkout")));
+                    r.setCheckin(LocalDate.ofEpochDay(rs.getLong("checkin")));
+                    r.setCheckout(LocalDate.ofEpochDay(rs.getLong("checkout")));
                     r.setStatus(rs.getString("status"));
                     r.setTotal(rs.getDouble("total"));
                     list.add(r);
@@ -104,6 +201,69 @@ public class ReservationDAO {
         return list;
     }
 
+    /**
+     * True if the room has a CONFIRMED or CHECKED_IN reservation overlapping [from, to).
+     * Answered from idx_res_availability alone (room_id, status, checkin, checkout).
+     */
+    public boolean hasConflict(int roomId, LocalDate from, LocalDate to, Connection conn) throws SQLException {
+        String sql = "SELECT 1 FROM reservations " +
+                "WHERE room_id = ? AND status IN ('CONFIRMED', 'CHECKED_IN') AND checkin < ? AND checkout > ? LIMIT 1";
+        boolean shouldClose = (conn == null);
+        if (conn == null) {
+            conn = DBUtil.getConnection();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, roomId);
+            ps.setLong(2, to.toEpochDay());
+            ps.setLong(3, from.toEpochDay());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        } finally {
+            if (shouldClose && conn != null) {
+                conn.close();
+            }
+        }
+    }
+
+    /**
+     * Fewest rooms of the room's type left on any night of [from, to): rooms
+     * of the type not under MAINTENANCE minus the CONFIRMED / CHECKED_IN stays
+     * in rooms of the type on that night (negative if oversold). The busiest
+     * night is {@code from} or the check-in night of one of those stays, so
+     * only those nights are counted. Integer.MAX_VALUE if the room does not
+     * exist (nothing to limit).
+     */
+    public int fewestRoomsLeft(int roomId, LocalDate from, LocalDate to, Connection conn) throws SQLException {
+        String sql = "WITH typed AS (SELECT id, status FROM rooms WHERE type = (SELECT type FROM rooms WHERE id = ?)), " +
+                "stays AS (SELECT checkin, checkout FROM reservations " +
+                "  WHERE room_id IN (SELECT id FROM typed) AND status IN ('CONFIRMED', 'CHECKED_IN') " +
+                "  AND checkin < ? AND checkout > ?), " +
+                "nights AS (SELECT ? AS night UNION SELECT checkin FROM stays WHERE checkin > ?) " +
+                "SELECT (SELECT COUNT(*) FROM typed), " +
+                "(SELECT COUNT(*) FROM typed WHERE status <> 'MAINTENANCE') - " +
+                "(SELECT MAX((SELECT COUNT(*) FROM stays s WHERE s.checkin <= n.night AND s.checkout > n.night)) FROM nights n)";
+        boolean shouldClose = (conn == null);
+        if (conn == null) {
+            conn = DBUtil.getConnection();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, roomId);
+            ps.setLong(2, to.toEpochDay());
+            ps.setLong(3, from.toEpochDay());
+            ps.setLong(4, from.toEpochDay());
+            ps.setLong(5, from.toEpochDay());
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1) == 0 ? Integer.MAX_VALUE : rs.getInt(2);
+            }
+        } finally {
+            if (shouldClose && conn != null) {
+                conn.close();
+            }
+        }
+    }
+
     public List<Reservation> getAllReservations() throws SQLException {
         List<Reservation> list = new ArrayList<>();
         String sql = "SELECT r.id, r.customer_id, r.room_id, r.checkin, r.checkout, r.status, r.total, " +
@@ -113,15 +273,15 @@ public class ReservationDAO {
                 "LEFT JOIN rooms rm ON r.room_id = rm.id " +
                 "ORDER BY r.id DESC";
         try (Connection c = DBUtil.getConnection();
-             Statement st = c.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 Reservation r = new Reservation();
                 r.setId(rs.getInt("id"));
                 r.setCustomerId(rs.getInt("customer_id"));
                 r.setRoomId(rs.getInt("room_id"));
-                r.setCheckin(LocalDate.parse(rs.getString("checkin")));
-                r.setCheckout(LocalDate.parse(rs.getString("checkout")));
+                r.setCheckin(LocalDate.ofEpochDay(rs.getLong("checkin")));
+                r.setCheckout(LocalDate.ofEpochDay(rs.getLong("checkout")));
                 r.setStatus(rs.getString("status"));
                 r.setTotal(rs.getDouble("total"));
                 r.setCustomerName(rs.getString("customer_name"));
@@ -133,8 +293,128 @@ public class ReservationDAO {
         return list;
     }
 
+    /**
+     * The newest {@code limit} reservations, same columns as getAllReservations().
+     */
+    public List<Reservation> getRecentReservations(int limit) throws SQLException {
+        List<Reservation> list = new ArrayList<>();
+        String sql = "SELECT r.id, r.customer_id, r.room_id, r.checkin, r.checkout, r.status, r.total, " +
+                "c.name AS customer_name, c.phone AS customer_phone, rm.room_number " +
+                "FROM reservations r " +
+                "LEFT JOIN customers c ON r.customer_id = c.id " +
+                "LEFT JOIN rooms rm ON r.room_id = rm.id " +
+                "ORDER BY r.id DESC LIMIT ?";
+        try (Connection c = DBUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Reservation r = new Reservation();
+                    r.setId(rs.getInt("id"));
+                    r.setCustomerId(rs.getInt("customer_id"));
+                    r.setRoomId(rs.getInt("room_id"));
+                    r.setCheckin(LocalDate.ofEpochDay(rs.getLong("checkin")));
+                    r.setCheckout(LocalDate.ofEpochDay(rs.getLong("checkout")));
+                    r.setStatus(rs.getString("status"));
+                    r.setTotal(rs.getDouble("total"));
+                    r.setCustomerName(rs.getString("customer_name"));
+                    r.setCustomerPhone(rs.getString("customer_phone"));
+                    r.setRoomNumber(rs.getString("room_number"));
+                    list.add(r);
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Keyset pagination, newest first: up to {@code limit} reservations with
+     * id below {@code afterId} (null = start from the newest). Pass the last id
+     * of one page as {@code afterId} of the next; each page is a range scan on
+     * the primary key, however deep it is. {@code status} and {@code roomId}
+     * are optional filters (null = any).
+     */
+    public List<Reservation> findPage(Integer afterId, int limit, String status, Integer roomId) throws SQLException {
+        List<Reservation> list = new ArrayList<>();
+        String sql = "SELECT r.id, r.customer_id, r.room_id, r.checkin, r.checkout, r.status, r.total, " +
+                "c.name AS customer_name, c.phone AS customer_phone, rm.room_number " +
+                "FROM reservations r " +
+                "LEFT JOIN customers c ON r.customer_id = c.id " +
+                "LEFT JOIN rooms rm ON r.room_id = rm.id " +
+                "WHERE r.id < ? " +
+                "AND (? IS NULL OR r.status = ?) " +
+                "AND (? IS NULL OR r.room_id = ?) " +
+                "ORDER BY r.id DESC LIMIT ?";
+        try (Connection c = DBUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, afterId == null ? Integer.MAX_VALUE : afterId);
+            ps.setString(2, status);
+            ps.setString(3, status);
+            ps.setObject(4, roomId);
+            ps.setObject(5, roomId);
+            ps.setInt(6, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Reservation r = new Reservation();
+                    r.setId(rs.getInt("id"));
+                    r.setCustomerId(rs.getInt("customer_id"));
+                    r.setRoomId(rs.getInt("room_id"));
+                    r.setCheckin(LocalDate.ofEpochDay(rs.getLong("checkin")));
+                    r.setCheckout(LocalDate.ofEpochDay(rs.getLong("checkout")));
+                    r.setStatus(rs.getString("status"));
+                    r.setTotal(rs.getDouble("total"));
+                    r.setCustomerName(rs.getString("customer_name"));
+                    r.setCustomerPhone(rs.getString("customer_phone"));
+                    r.setRoomNumber(rs.getString("room_number"));
+                    list.add(r);
+                }
+            }
+        }
+        return list;
+    }
+
+    public int countReservations(String status, Integer roomId) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM reservations " +
+                "WHERE (? IS NULL OR status = ?) AND (? IS NULL OR room_id = ?)";
+        try (Connection c = DBUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, status);
+            ps.setString(2, status);
+            ps.setObject(3, roomId);
+            ps.setObject(4, roomId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Id of the reservation at {@code offset} in findPage order (0 = newest), or null.
+     * Lets a pager jump deep into the list without walking every page before it;
+     * only ids are read, so it scans the primary key and not the rows.
+     */
+    public Integer findIdAtOffset(int offset, String status, Integer roomId) throws SQLException {
+        String sql = "SELECT id FROM reservations " +
+                "WHERE (? IS NULL OR status = ?) AND (? IS NULL OR room_id = ?) " +
+                "ORDER BY id DESC LIMIT 1 OFFSET ?";
+        try (Connection c = DBUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, status);
+            ps.setString(2, status);
+            ps.setObject(3, roomId);
+            ps.setObject(4, roomId);
+            ps.setInt(5, offset);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
     public void updateReservationDates(int id, LocalDate checkin, LocalDate checkout, double total) throws SQLException {
-        updateReservationDates(id, checkin, checkout, total, null);
+        DBUtil.write(conn -> {
+            updateReservationDates(id, checkin, checkout, total, conn);
+            return null;
+        });
     }
 
     public void updateReservationDates(int id, LocalDate checkin, LocalDate checkout, double total, Connection conn) throws SQLException {
@@ -144,8 +424,8 @@ public class ReservationDAO {
             conn = DBUtil.getConnection();
         }
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, checkin.toString());
-            ps.setString(2, checkout.toString());
+            ps.setLong(1, checkin.toEpochDay());
+            ps.setLong(2, checkout.toEpochDay());
             ps.setDouble(3, total);
             ps.setInt(4, id);
             ps.executeUpdate();
@@ -154,10 +434,15 @@ public class ReservationDAO {
                 conn.close();
             }
         }
+        CACHE.invalidate(id);
+        store.datesChanged(id, checkin, checkout, total);
     }
 
     public void updateStatus(int id, String status) throws SQLException {
-        updateStatus(id, status, null);
+        DBUtil.write(conn -> {
+            updateStatus(id, status, conn);
+            return null;
+        });
     }
 
     public void updateStatus(int id, String status, Connection conn) throws SQLException {
@@ -175,15 +460,44 @@ public class ReservationDAO {
                 conn.close();
             }
         }
+        CACHE.invalidate(id);
+        store.statusChanged(id, status);
     }
 
-    public void deleteReservation(int id) throws SQLException {
-        String sql = "DELETE FROM reservations WHERE id = ?";
-        try (Connection c = DBUtil.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setInt(1, id);
-            ps.executeUpdate();
+    /**
+     * Write status, dates and total of several reservations as one JDBC batch.
+     */
+    public void updateReservations(Collection<Reservation> reservations, Connection conn) throws SQLException {
+        if (reservations.isEmpty()) return;
+        String sql = "UPDATE reservations SET status = ?, checkin = ?, checkout = ?, total = ? WHERE id = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (Reservation r : reservations) {
+                ps.setString(1, r.getStatus());
+                ps.setLong(2, r.getCheckin().toEpochDay());
+                ps.setLong(3, r.getCheckout().toEpochDay());
+                ps.setDouble(4, r.getTotal());
+                ps.setInt(5, r.getId());
+                ps.addBatch();
+            }
+            ps.executeBatch();
         }
+        for (Reservation r : reservations) {
+            CACHE.invalidate(r.getId());
+            store.updated(r.getId(), r.getCheckin(), r.getCheckout(), r.getStatus(), r.getTotal());
+        }
+    }
+
+    public void deleteReservation(int id) throws SQLException {
+        DBUtil.write(conn -> {
+            String sql = "DELETE FROM reservations WHERE id = ?";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, id);
+                ps.executeUpdate();
+            }
+            CACHE.invalidate(id);
+            store.deleted(id);
+            return null;
+        });
     }
 
     public List<Reservation> getReservationsByCustomerId(int customerId) throws SQLException {
@@ -204,8 +518,8 @@ public class ReservationDAO {
                     r.setId(rs.getInt("id"));
                     r.setCustomerId(rs.getInt("customer_id"));
                     r.setRoomId(rs.getInt("room_id"));
-                    r.setCheckin(LocalDate.parse(rs.getString("checkin")));
-                    r.setCheckout(LocalDate.parse(rs.getString("checkout")));
+                    r.setCheckin(LocalDate.ofEpochDay(rs.getLong("checkin")));
+                    r.setCheckout(LocalDate.ofEpochDay(rs.getLong("checkout")));
                     r.setStatus(rs.getString("status"));
                     r.setTotal(rs.getDouble("total"));
                     r.setCustomerName(rs.getString("customer_name"));
@@ -228,15 +542,15 @@ public class ReservationDAO {
                 "ORDER BY r.checkin";
         try (Connection c = DBUtil.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, date.toString());
+            ps.setLong(1, date.toEpochDay());
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     Reservation r = new Reservation();
                     r.setId(rs.getInt("id"));
                     r.setCustomerId(rs.getInt("customer_id"));
                     r.setRoomId(rs.getInt("room_id"));
-                    r.setCheckin(LocalDate.parse(rs.getString("checkin")));
-                    r.setCheckout(LocalDate.parse(rs.getString("checkout")));
+                    r.setCheckin(LocalDate.ofEpochDay(rs.getLong("checkin")));
+                    r.setCheckout(LocalDate.ofEpochDay(rs.getLong("checkout")));
                     r.setStatus(rs.getString("status"));
                     r.setTotal(rs.getDouble("total"));
                     r.setCustomerName(rs.getString("customer_name"));
@@ -261,15 +575,15 @@ public class ReservationDAO {
                 "ORDER BY r.checkout";
         try (Connection c = DBUtil.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, date.toString());
+            ps.setLong(1, date.toEpochDay());
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     Reservation r = new Reservation();
                     r.setId(rs.getInt("id"));
                     r.setCustomerId(rs.getInt("customer_id"));
                     r.setRoomId(rs.getInt("room_id"));
-                    r.setCheckin(LocalDate.parse(rs.getString("checkin")));
-                    r.setCheckout(LocalDate.parse(rs.getString("checkout")));
+                    r.setCheckin(LocalDate.ofEpochDay(rs.getLong("checkin")));
+                    r.setCheckout(LocalDate.ofEpochDay(rs.getLong("checkout")));
                     r.setStatus(rs.getString("status"));
                     r.setTotal(rs.getDouble("total"));
                     r.setCustomerName(rs.getString("customer_name"));
@@ -282,6 +596,30 @@ public class ReservationDAO {
         return list;
     }
 
+    public List<Reservation> getReservationsByStatus(String status) throws SQLException {
+        List<Reservation> list = new ArrayList<>();
+        String sql = "SELECT id, customer_id, room_id, checkin, checkout, status, total " +
+                "FROM reservations WHERE status = ?";
+        try (Connection c = DBUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, status);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Reservation r = new Reservation();
+                    r.setId(rs.getInt("id"));
+                    r.setCustomerId(rs.getInt("customer_id"));
+                    r.setRoomId(rs.getInt("room_id"));
+                    r.setCheckin(LocalDate.ofEpochDay(rs.getLong("checkin")));
+                    r.setCheckout(LocalDate.ofEpochDay(rs.getLong("checkout")));
+                    r.setStatus(rs.getString("status"));
+                    r.setTotal(rs.getDouble("total"));
+                    list.add(r);
+                }
+            }
+        }
+        return list;
+    }
+
     /**
      * Find reservations whose checkout date is before the given date
      * and are still in an active state (CONFIRMED or CHECKED_IN).
@@ -294,15 +632,15 @@ public class ReservationDAO {
                 "WHERE checkout < ? AND status IN ('CONFIRMED', 'CHECKED_IN')";
         try (Connection c = DBUtil.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, today.toString());
+            ps.setLong(1, today.toEpochDay());
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     Reservation r = new Reservation();
                     r.setId(rs.getInt("id"));
                     r.setCustomerId(rs.getInt("customer_id"));
                     r.setRoomId(rs.getInt("room_id"));
-                    r.setCheckin(LocalDate.parse(rs.getString("checkin")));
-                    r.setCheckout(LocalDate.parse(rs.getString("checkout")));
+                    r.setCheckin(LocalDate.ofEpochDay(rs.getLong("checkin")));
+                    r.setCheckout(LocalDate.ofEpochDay(rs.getLong("checkout")));
                     r.setStatus(rs.getString("status"));
                     r.setTotal(rs.getDouble("total"));
                     list.add(r);
@@ -311,4 +649,28 @@ public class ReservationDAO {
         }
         return list;
     }
+
+    /**
+     * Mark every active stay whose checkout is before {@code today} as COMPLETED
+     * in one statement. Returns the ids of the reservations that were changed.
+     */
+    public List<Integer> completeOverdue(LocalDate today, Connection conn) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        String sql = "UPDATE reservations SET status = 'COMPLETED' " +
+                "WHERE checkout < ? AND status IN ('CONFIRMED', 'CHECKED_IN') " +
+                "RETURNING id";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, today.toEpochDay());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        for (Integer id : ids) {
+            CACHE.invalidate(id);
+        }
+        store.statusChanged(ids, "COMPLETED");
+        return ids;
+    }
 }
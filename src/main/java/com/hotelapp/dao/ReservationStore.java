@@ -0,0 +1,502 @@
+package com.hotelapp.dao;
+
+import com.hotelapp.utils.DBUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Every reservation row held in memory column by column, for scans that
+ * would otherwise read and materialize the whole reservations table.
+ *
+ * Each column is a primitive array indexed by row: room id, customer id,
+ * check-in and check-out as epoch days, the status as a one-byte code, the
+ * total in minor units (cents) and the day the stay was booked (created_at,
+ * UTC). A stay costs about 37 bytes, so a million historical stays fit in
+ * some 37 MB, and a scan is a loop over
+ * arrays that allocates nothing per row. Display fields (guest name, room
+ * number) are not kept; read those through ReservationDAO.
+ *
+ * Loaded once from the database (on first use, or via {@link #load()} at
+ * startup) and then kept current by ReservationDAO: every insert and update
+ * is applied here when its write transaction commits (DBUtil.onCommit), so
+ * a rolled-back write never shows. Deleted stays, including those removed
+ * by deleting their room or customer, are marked and skipped by scans.
+ * Readers, parallel scans included, share a fair read lock; the writer
+ * thread takes the write lock only to apply a commit.
+ */
+public class ReservationStore {
+
+    // status codes, in the order of STATUS_NAMES
+    public static final byte CONFIRMED = 0;
+    public static final byte CHECKED_IN = 1;
+    public static final byte COMPLETED = 2;
+    public static final byte CANCELLED = 3;
+    public static final byte OTHER = 4;
+    private static final byte DELETED = -1;
+
+    private static final String[] STATUS_NAMES = {"CONFIRMED", "CHECKED_IN", "COMPLETED", "CANCELLED", "OTHER"};
+    public static final int STATUS_COUNT = STATUS_NAMES.length;
+
+    /** Booking day of rows whose created_at is missing or unreadable. */
+    public static final int UNKNOWN_DAY = Integer.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // rows per fork/join leaf of scanParallel
+    private static final int ROWS_PER_TASK = 65_536;
+
+    private static final ReservationStore INSTANCE = new ReservationStore();
+
+    public static ReservationStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * One row of a scan, as primitives.
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+        void visit(int reservationId, int roomId, int customerId, int checkin, int checkout, byte status, long totalMinorUnits);
+    }
+
+    /**
+     * One row of a parallel scan, added into the calling task's accumulator.
+     * bookedDay is an epoch day or UNKNOWN_DAY.
+     */
+    @FunctionalInterface
+    public interface StayVisitor<A> {
+        void visit(A accumulator, int roomId, int checkin, int checkout, byte status, long totalMinorUnits, int bookedDay);
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);     // fair: see scanParallel
+
+    // all fields below are guarded by lock
+    private int size;
+    private int live;                       // rows not deleted
+    private int[] ids = new int[0];
+    private int[] roomIds = new int[0];
+    private int[] customerIds = new int[0];
+    private int[] checkins = new int[0];
+    private int[] checkouts = new int[0];
+    private byte[] statuses = new byte[0];
+    private long[] totals = new long[0];
+    private int[] bookedDays = new int[0];
+    private int[] rowOfId = new int[0];     // reservation id -> row, -1 = none
+    private boolean loaded;
+
+    private ReservationStore() {}
+
+    public static byte statusCode(String status) {
+        for (byte i = 0; i < OTHER; i++) {
+            if (STATUS_NAMES[i].equalsIgnoreCase(status)) return i;
+        }
+        return OTHER;
+    }
+
+    public static String statusName(byte code) {
+        return STATUS_NAMES[code];
+    }
+
+    public static boolean isBlocking(byte status) {
+        return status == CONFIRMED || status == CHECKED_IN;
+    }
+
+    public static long toMinorUnits(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    /**
+     * (Re)read every reservation, streaming the rows straight into the columns.
+     */
+    public void load() throws SQLException {
+        long start = System.nanoTime();
+        // created_at is 'YYYY-MM-DD HH:MM:SS' in UTC; 2440587.5 is the Julian day of 1970-01-01
+        String sql = "SELECT id, room_id, customer_id, checkin, checkout, status, total, " +
+                "CAST(julianday(created_at) - 2440587.5 AS INTEGER) FROM reservations ORDER BY id";
+        lock.writeLock().lock();
+        try {
+            clear();
+            try (Connection c = DBUtil.getConnection();
+                 PreparedStatement ps = c.prepareStatement(sql)) {
+                ps.setFetchSize(4096);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int bookedDay = rs.getInt(8);
+                        if (rs.wasNull()) bookedDay = UNKNOWN_DAY;
+                        append(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5),
+                                statusCode(rs.getString(6)), toMinorUnits(rs.getDouble(7)), bookedDay);
+                    }
+                }
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.printf("Reservation store loaded: %d stays, %.1f MB (%.1f ms)%n",
+                size, memoryBytes() / (1024.0 * 1024.0), (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    private void ensureLoaded() throws SQLException {
+        lock.readLock().lock();
+        try {
+            if (loaded) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        load();
+    }
+
+    // ---- scans ----
+
+    /**
+     * Visit every stay, in reservation id order, under the read lock: the
+     * visitor must not call back into the store's writers.
+     */
+    public void scan(RowVisitor visitor) throws SQLException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < size; row++) {
+                if (statuses[row] == DELETED) continue;
+                visitor.visit(ids[row], roomIds[row], customerIds[row], checkins[row], checkouts[row], statuses[row], totals[row]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visit the CONFIRMED and CHECKED_IN stays only.
+     */
+    public void scanBlocking(RowVisitor visitor) throws SQLException {
+        scan((id, room, customer, in, out, status, total) -> {
+            if (isBlocking(status)) visitor.visit(id, room, customer, in, out, status, total);
+        });
+    }
+
+    /**
+     * Fold every stay into accumulators on the common fork/join pool: the
+     * rows are split into ranges of {@value #ROWS_PER_TASK}, each range is
+     * visited into its own accumulator from newAccumulator, and the
+     * accumulators are combined pairwise (combine may return either argument,
+     * updated).
+     *
+     * The read lock is held until the last range is done, so the scan sees
+     * the store as of one commit: rows are changed in place, and a commit
+     * applied half-way through would otherwise be seen half applied. The
+     * lock is fair, so a commit waiting behind a long report also holds
+     * back readers that arrive after it rather than waiting for them too.
+     */
+    public <A> A scanParallel(Supplier<A> newAccumulator, StayVisitor<A> visitor, BinaryOperator<A> combine) throws SQLException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            // the pool's threads read the columns while this thread holds the lock for them
+            Columns columns = new Columns(size, roomIds, checkins, checkouts, statuses, totals, bookedDays);
+            return ForkJoinPool.commonPool().invoke(new RangeScan<>(columns, 0, columns.size, newAccumulator, visitor, combine));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // the column arrays, handed to the fork/join tasks
+    private static final class Columns {
+        final int size;
+        final int[] roomIds;
+        final int[] checkins;
+        final int[] checkouts;
+        final byte[] statuses;
+        final long[] totals;
+        final int[] bookedDays;
+
+        Columns(int size, int[] roomIds, int[] checkins, int[] checkouts, byte[] statuses, long[] totals, int[] bookedDays) {
+            this.size = size;
+            this.roomIds = roomIds;
+            this.checkins = checkins;
+            this.checkouts = checkouts;
+            this.statuses = statuses;
+            this.totals = totals;
+            this.bookedDays = bookedDays;
+        }
+    }
+
+    // rows [from, to) into one accumulator
+    private static final class RangeScan<A> extends RecursiveTask<A> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Columns columns;
+        private final int from;
+        private final int to;
+        private final transient Supplier<A> newAccumulator;
+        private final transient StayVisitor<A> visitor;
+        private final transient BinaryOperator<A> combine;
+
+        RangeScan(Columns columns, int from, int to, Supplier<A> newAccumulator, StayVisitor<A> visitor, BinaryOperator<A> combine) {
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+            this.newAccumulator = newAccumulator;
+            this.visitor = visitor;
+            this.combine = combine;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= ROWS_PER_TASK) {
+                Columns c = columns;
+                A acc = newAccumulator.get();
+                for (int row = from; row < to; row++) {
+                    byte status = c.statuses[row];
+                    if (status == DELETED) continue;
+                    visitor.visit(acc, c.roomIds[row], c.checkins[row], c.checkouts[row], status, c.totals[row], c.bookedDays[row]);
+                }
+                return acc;
+            }
+            int mid = (from + to) >>> 1;
+            RangeScan<A> left = new RangeScan<>(columns, from, mid, newAccumulator, visitor, combine);
+            RangeScan<A> right = new RangeScan<>(columns, mid, to, newAccumulator, visitor, combine);
+            left.fork();
+            A acc = right.compute();
+            return combine.apply(left.join(), acc);
+        }
+    }
+
+    /**
+     * Number of stays (deleted ones excluded).
+     */
+    public int count() throws SQLException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of stays per status, indexed by status code.
+     */
+    public int[] countByStatus() throws SQLException {
+        ensureLoaded();
+        int[] counts = new int[STATUS_COUNT];
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < size; row++) {
+                if (statuses[row] != DELETED) counts[statuses[row]]++;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+
+    /**
+     * The day's expected movements in one pass: {arrivals, departures}.
+     * Arrivals are CONFIRMED stays checking in on the day, departures
+     * CONFIRMED or CHECKED_IN stays checking out on it (the rules of
+     * ReservationDAO.getReservationsByCheckInDate / CheckOutDate).
+     */
+    public int[] countArrivalsAndDepartures(LocalDate day) throws SQLException {
+        ensureLoaded();
+        int d = (int) day.toEpochDay();
+        int arrivals = 0;
+        int departures = 0;
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < size; row++) {
+                if (checkins[row] == d && statuses[row] == CONFIRMED) arrivals++;
+                if (checkouts[row] == d && isBlocking(statuses[row])) departures++;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new int[] {arrivals, departures};
+    }
+
+    /**
+     * Approximate heap taken by the columns, in bytes.
+     */
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) ids.length * (6 * Integer.BYTES + 1 + Long.BYTES) + (long) rowOfId.length * Integer.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- changes, applied once the calling write command commits ----
+
+    void inserted(int id, int customerId, int roomId, LocalDate checkin, LocalDate checkout, String status, double total) {
+        int in = (int) checkin.toEpochDay();
+        int out = (int) checkout.toEpochDay();
+        byte code = statusCode(status);
+        long minor = toMinorUnits(total);
+        int bookedDay = (int) LocalDate.now(ZoneOffset.UTC).toEpochDay();    // created_at defaults to CURRENT_TIMESTAMP
+        DBUtil.onCommit(() -> apply(() -> {
+            int row = rowOf(id);
+            if (row < 0) {
+                append(id, roomId, customerId, in, out, code, minor, bookedDay);
+            } else {
+                set(row, in, out, code, minor);
+            }
+        }));
+    }
+
+    void datesChanged(int id, LocalDate checkin, LocalDate checkout, double total) {
+        int in = (int) checkin.toEpochDay();
+        int out = (int) checkout.toEpochDay();
+        long minor = toMinorUnits(total);
+        DBUtil.onCommit(() -> apply(() -> {
+            int row = rowOf(id);
+            if (row >= 0) set(row, in, out, statuses[row], minor);
+        }));
+    }
+
+    void statusChanged(int id, String status) {
+        byte code = statusCode(status);
+        DBUtil.onCommit(() -> apply(() -> {
+            int row = rowOf(id);
+            if (row >= 0) statuses[row] = code;
+        }));
+    }
+
+    void statusChanged(Collection<Integer> ids, String status) {
+        if (ids.isEmpty()) return;
+        int[] changed = ids.stream().mapToInt(Integer::intValue).toArray();
+        byte code = statusCode(status);
+        DBUtil.onCommit(() -> apply(() -> {
+            for (int id : changed) {
+                int row = rowOf(id);
+                if (row >= 0) statuses[row] = code;
+            }
+        }));
+    }
+
+    void updated(int id, LocalDate checkin, LocalDate checkout, String status, double total) {
+        int in = (int) checkin.toEpochDay();
+        int out = (int) checkout.toEpochDay();
+        byte code = statusCode(status);
+        long minor = toMinorUnits(total);
+        DBUtil.onCommit(() -> apply(() -> {
+            int row = rowOf(id);
+            if (row >= 0) set(row, in, out, code, minor);
+        }));
+    }
+
+    void deleted(int id) {
+        DBUtil.onCommit(() -> apply(() -> {
+            int row = rowOf(id);
+            if (row >= 0) delete(row);
+        }));
+    }
+
+    /**
+     * The room's stays went with it (ON DELETE CASCADE).
+     */
+    void roomDeleted(int roomId) {
+        DBUtil.onCommit(() -> apply(() -> {
+            for (int row = 0; row < size; row++) {
+                if (roomIds[row] == roomId && statuses[row] != DELETED) delete(row);
+            }
+        }));
+    }
+
+    /**
+     * The customer's stays went with it (ON DELETE CASCADE).
+     */
+    void customerDeleted(int customerId) {
+        DBUtil.onCommit(() -> apply(() -> {
+            for (int row = 0; row < size; row++) {
+                if (customerIds[row] == customerId && statuses[row] != DELETED) delete(row);
+            }
+        }));
+    }
+
+    // run a change under the write lock; before the first load there is nothing to change
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---- column maintenance, called holding the write lock ----
+
+    private void clear() {
+        size = 0;
+        live = 0;
+        ids = new int[INITIAL_CAPACITY];
+        roomIds = new int[INITIAL_CAPACITY];
+        customerIds = new int[INITIAL_CAPACITY];
+        checkins = new int[INITIAL_CAPACITY];
+        checkouts = new int[INITIAL_CAPACITY];
+        statuses = new byte[INITIAL_CAPACITY];
+        totals = new long[INITIAL_CAPACITY];
+        bookedDays = new int[INITIAL_CAPACITY];
+        rowOfId = new int[0];
+        loaded = false;
+    }
+
+    private void append(int id, int roomId, int customerId, int checkin, int checkout, byte status, long total, int bookedDay) {
+        if (size == ids.length) {
+            int capacity = ids.length + (ids.length >> 1);  // grow by half
+            ids = Arrays.copyOf(ids, capacity);
+            roomIds = Arrays.copyOf(roomIds, capacity);
+            customerIds = Arrays.copyOf(customerIds, capacity);
+            checkins = Arrays.copyOf(checkins, capacity);
+            checkouts = Arrays.copyOf(checkouts, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            totals = Arrays.copyOf(totals, capacity);
+            bookedDays = Arrays.copyOf(bookedDays, capacity);
+        }
+        if (id >= rowOfId.length) {
+            int old = rowOfId.length;
+            rowOfId = Arrays.copyOf(rowOfId, Math.max(id + 1, old + (old >> 1)));
+            Arrays.fill(rowOfId, old, rowOfId.length, -1);
+        }
+        ids[size] = id;
+        roomIds[size] = roomId;
+        customerIds[size] = customerId;
+        checkins[size] = checkin;
+        checkouts[size] = checkout;
+        statuses[size] = status;
+        totals[size] = total;
+        bookedDays[size] = bookedDay;
+        rowOfId[id] = size;
+        size++;
+        live++;
+    }
+
+    private void set(int row, int checkin, int checkout, byte status, long total) {
+        checkins[row] = checkin;
+        checkouts[row] = checkout;
+        statuses[row] = status;
+        totals[row] = total;
+    }
+
+    private void delete(int row) {
+        statuses[row] = DELETED;
+        rowOfId[ids[row]] = -1;
+        live--;
+    }
+
+    private int rowOf(int id) {
+        return id >= 0 && id < rowOfId.length ? rowOfId[id] : -1;
+    }
+}
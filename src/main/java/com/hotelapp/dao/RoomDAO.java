@@ -4,66 +4,100 @@ import com.hotelapp.models.Room;
 import com.hotelapp.utils.DBUtil;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class RoomDAO {
 
+    // Room mutations without a caller-supplied connection are queued on the
+    // single writer thread (DBUtil.write) instead of opening their own transaction.
+
     public void addRoom(Room room) throws SQLException {
+        DBUtil.write(conn -> {
+            addRoom(room, conn);
+            return null;
+        });
+    }
+
+    /**
+     * Insert the room and set its generated id on it.
+     */
+    public void addRoom(Room room, Connection conn) throws SQLException {
         String sql = "INSERT INTO rooms(room_number, type, price, status) VALUES (?, ?, ?, ?)";
-        try (Connection c = DBUtil.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, room.getRoomNumber());
             ps.setString(2, room.getType());
             ps.setDouble(3, room.getPrice());
             ps.setString(4, room.getStatus());
             ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next()) room.setId(rs.getInt(1));
+            }
         }
     }
 
     public List<Room> getAllRooms() throws SQLException {
+        try (Connection c = DBUtil.getConnection()) {
+            return getAllRooms(c);
+        }
+    }
+
+    /**
+     * Every room on the given connection, e.g. inside a write transaction to see its own changes.
+     */
+    public List<Room> getAllRooms(Connection conn) throws SQLException {
         List<Room> list = new ArrayList<>();
         String sql = "SELECT id, room_number, type, price, status FROM rooms ORDER BY room_number";
-        try (Connection c = DBUtil.getConnection();
-             Statement st = c.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+        try (PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
-                Room r = new Room();
-                r.setId(rs.getInt("id"));
-                r.setRoomNumber(rs.getString("room_number"));
-                r.setType(rs.getString("type"));
-                r.setPrice(rs.getDouble("price"));
-                r.setStatus(rs.getString("status"));
-                list.add(r);
+                list.add(mapRoom(rs));
             }
         }
         return list;
     }
 
     public Room findById(int id) throws SQLException {
+        try (Connection c = DBUtil.getConnection()) {
+            return findById(id, c);
+        }
+    }
+
+    public Room findById(int id, Connection conn) throws SQLException {
         String sql = "SELECT id, room_number, type, price, status FROM rooms WHERE id = ?";
-        try (Connection c = DBUtil.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    Room r = new Room();
-                    r.setId(rs.getInt("id"));
-                    r.setRoomNumber(rs.getString("room_number"));
-                    r.setType(rs.getString("type"));
-                    r.setPrice(rs.getDouble("price"));
-                    r.setStatus(rs.getString("status"));
-                    return r;
+                    return mapRoom(rs);
                 }
             }
         }
         return null;
     }
 
+    private static Room mapRoom(ResultSet rs) throws SQLException {
+        Room r = new Room();
+        r.setId(rs.getInt("id"));
+        r.setRoomNumber(rs.getString("room_number"));
+        r.setType(rs.getString("type"));
+        r.setPrice(rs.getDouble("price"));
+        r.setStatus(rs.getString("status"));
+        return r;
+    }
+
     public void updateRoom(Room room) throws SQLException {
+        DBUtil.write(conn -> {
+            updateRoom(room, conn);
+            return null;
+        });
+    }
+
+    public void updateRoom(Room room, Connection conn) throws SQLException {
         String sql = "UPDATE rooms SET room_number = ?, type = ?, price = ?, status = ? WHERE id = ?";
-        try (Connection c = DBUtil.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, room.getRoomNumber());
             ps.setString(2, room.getType());
             ps.setDouble(3, room.getPrice());
@@ -71,44 +105,64 @@ public class RoomDAO {
             ps.setInt(5, room.getId());
             ps.executeUpdate();
         }
+        ReservationDAO.invalidateAllCached();   // reservations carry the room number
     }
 
     public void updateStatus(int roomId, String status) throws SQLException {
-        updateStatus(roomId, status, null);
+        DBUtil.write(conn -> {
+            updateStatus(roomId, status, conn);
+            return null;
+        });
     }
 
     public void updateStatus(int roomId, String status, Connection conn) throws SQLException {
         String sql = "UPDATE rooms SET status = ? WHERE id = ?";
-        boolean shouldClose = (conn == null);
-        if (conn == null) {
-            conn = DBUtil.getConnection();
-        }
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, status);
             ps.setInt(2, roomId);
             ps.executeUpdate();
-        } finally {
-            if (shouldClose && conn != null) {
-                conn.close();
+        }
+    }
+
+    /**
+     * Set the status of several rooms (room id -> status) as one JDBC batch.
+     */
+    public void updateStatuses(Map<Integer, String> statusByRoom, Connection conn) throws SQLException {
+        if (statusByRoom.isEmpty()) return;
+        String sql = "UPDATE rooms SET status = ? WHERE id = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (Map.Entry<Integer, String> e : statusByRoom.entrySet()) {
+                ps.setString(1, e.getValue());
+                ps.setInt(2, e.getKey());
+                ps.addBatch();
             }
+            ps.executeBatch();
         }
     }
 
     public void deleteRoom(int id) throws SQLException {
+        DBUtil.write(conn -> {
+            deleteRoom(id, conn);
+            return null;
+        });
+    }
+
+    public void deleteRoom(int id, Connection conn) throws SQLException {
         String sql = "DELETE FROM rooms WHERE id = ?";
-        try (Connection c = DBUtil.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, id);
             ps.executeUpdate();
         }
+        ReservationDAO.invalidateAllCached();
+        ReservationStore.getInstance().roomDeleted(id);    // reservations cascade
     }
 
     public List<Room> getFreeRooms() throws SQLException {
         List<Room> list = new ArrayList<>();
         String sql = "SELECT id, room_number, type, price, status FROM rooms WHERE status = 'FREE' ORDER BY room_number";
         try (Connection c = DBUtil.getConnection();
-             Statement st = c.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 Room r = new Room();
                 r.setId(rs.getInt("id"));
@@ -121,4 +175,64 @@ public class RoomDAO {
         }
         return list;
     }
+
+    /**
+     * Rooms with no CONFIRMED or CHECKED_IN stay overlapping [checkin, checkout),
+     * cheapest first. Rooms under MAINTENANCE are never offered. {@code type} and
+     * {@code maxPrice} are optional (null = any). The NOT EXISTS probe is served
+     * by idx_res_availability, and the fixed SQL text keeps the statement cached.
+     */
+    public List<Room> findAvailableRooms(LocalDate checkin, LocalDate checkout, String type, Double maxPrice, int limit) throws SQLException {
+        List<Room> list = new ArrayList<>();
+        String sql = "SELECT rm.id, rm.room_number, rm.type, rm.price, rm.status FROM rooms rm " +
+                "WHERE rm.status <> 'MAINTENANCE' " +
+                "AND (? IS NULL OR rm.type = ?) " +
+                "AND (? IS NULL OR rm.price <= ?) " +
+                "AND NOT EXISTS (SELECT 1 FROM reservations r " +
+                "  WHERE r.room_id = rm.id AND r.status IN ('CONFIRMED', 'CHECKED_IN') " +
+                "  AND r.checkin < ? AND r.checkout > ?) " +
+                "ORDER BY rm.price, rm.room_number " +
+                "LIMIT ?";
+        try (Connection c = DBUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, type);
+            ps.setString(2, type);
+            ps.setObject(3, maxPrice);
+            ps.setObject(4, maxPrice);
+            ps.setLong(5, checkout.toEpochDay());
+            ps.setLong(6, checkin.toEpochDay());
+            ps.setInt(7, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Room r = new Room();
+                    r.setId(rs.getInt("id"));
+                    r.setRoomNumber(rs.getString("room_number"));
+                    r.setType(rs.getString("type"));
+                    r.setPrice(rs.getDouble("price"));
+                    r.setStatus(rs.getString("status"));
+                    list.add(r);
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Set BOOKED/OCCUPIED rooms back to FREE when they hold an overdue active stay
+     * (checkout before {@code today}) and no other active stay. Must run before the
+     * overdue reservations are completed. Returns the number of rooms freed.
+     */
+    public int freeRoomsWithOverdueStays(LocalDate today, Connection conn) throws SQLException {
+        String sql = "UPDATE rooms SET status = 'FREE' " +
+                "WHERE status IN ('BOOKED', 'OCCUPIED') " +
+                "AND EXISTS (SELECT 1 FROM reservations r WHERE r.room_id = rooms.id " +
+                "  AND r.status IN ('CONFIRMED', 'CHECKED_IN') AND r.checkout < ?) " +
+                "AND NOT EXISTS (SELECT 1 FROM reservations r WHERE r.room_id = rooms.id " +
+                "  AND r.status IN ('CONFIRMED', 'CHECKED_IN') AND r.checkout >= ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, today.toEpochDay());
+            ps.setLong(2, today.toEpochDay());
+            return ps.executeUpdate();
+        }
+    }
 }
@@ -0,0 +1,39 @@
+package com.hotelapp.models;
+
+import java.time.LocalDate;
+
+/**
+ * A customer together with their reservation aggregates (see CustomerSummaryDAO).
+ */
+public class CustomerSummary {
+    private Customer customer;
+    private int reservationCount;
+    private double lifetimeSpend;     // totals of all non-cancelled reservations
+    private LocalDate lastStay;       // latest non-cancelled check-in, null if none
+    private boolean activeStay;       // has a CONFIRMED or CHECKED_IN reservation
+
+    public CustomerSummary() {}
+
+    public CustomerSummary(Customer customer, int reservationCount, double lifetimeSpend, LocalDate lastStay, boolean activeStay) {
+        this.customer = customer;
+        this.reservationCount = reservationCount;
+        this.lifetimeSpend = lifetimeSpend;
+        this.lastStay = lastStay;
+        this.activeStay = activeStay;
+    }
+
+    public Customer getCustomer() { return customer; }
+    public void setCustomer(Customer customer) { this.customer = customer; }
+
+    public int getReservationCount() { return reservationCount; }
+    public void setReservationCount(int reservationCount) { this.reservationCount = reservationCount; }
+
+    public double getLifetimeSpend() { return lifetimeSpend; }
+    public void setLifetimeSpend(double lifetimeSpend) { this.lifetimeSpend = lifetimeSpend; }
+
+    public LocalDate getLastStay() { return lastStay; }
+    public void setLastStay(LocalDate lastStay) { this.lastStay = lastStay; }
+
+    public boolean isActiveStay() { return activeStay; }
+    public void setActiveStay(boolean activeStay) { this.activeStay = activeStay; }
+}
@@ -0,0 +1,44 @@
+package com.hotelapp.models;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Everything the dashboard shows, loaded at once by DashboardSnapshotService.
+ */
+public class DashboardStats {
+    private LocalDate date;
+    private int totalRooms;
+    private int freeRooms;
+    private int bookedRooms;
+    private int totalReservations;
+    private int todayCheckIns;
+    private int todayCheckOuts;
+    private List<Reservation> recentReservations;
+
+    public DashboardStats() {}
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public int getTotalRooms() { return totalRooms; }
+    public void setTotalRooms(int totalRooms) { this.totalRooms = totalRooms; }
+
+    public int getFreeRooms() { return freeRooms; }
+    public void setFreeRooms(int freeRooms) { this.freeRooms = freeRooms; }
+
+    public int getBookedRooms() { return bookedRooms; }
+    public void setBookedRooms(int bookedRooms) { this.bookedRooms = bookedRooms; }
+
+    public int getTotalReservations() { return totalReservations; }
+    public void setTotalReservations(int totalReservations) { this.totalReservations = totalReservations; }
+
+    public int getTodayCheckIns() { return todayCheckIns; }
+    public void setTodayCheckIns(int todayCheckIns) { this.todayCheckIns = todayCheckIns; }
+
+    public int getTodayCheckOuts() { return todayCheckOuts; }
+    public void setTodayCheckOuts(int todayCheckOuts) { this.todayCheckOuts = todayCheckOuts; }
+
+    public List<Reservation> getRecentReservations() { return recentReservations; }
+    public void setRecentReservations(List<Reservation> recentReservations) { this.recentReservations = recentReservations; }
+}
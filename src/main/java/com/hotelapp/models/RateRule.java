@@ -0,0 +1,56 @@
+package com.hotelapp.models;
+
+import java.time.LocalDate;
+
+/**
+ * One pricing rule of the rate calendar (see RateCalendar).
+ *
+ * WEEKEND multiplies the Friday and Saturday nights, SEASON multiplies every
+ * night in [startDate, endDate), OVERRIDE replaces the nightly rate for those
+ * nights. A null room type applies to every type; null dates leave that end open.
+ */
+public class RateRule {
+    public static final String WEEKEND = "WEEKEND";
+    public static final String SEASON = "SEASON";
+    public static final String OVERRIDE = "OVERRIDE";
+
+    private int id;
+    private String roomType;      // null = every room type
+    private String kind;          // WEEKEND, SEASON, OVERRIDE
+    private LocalDate startDate;  // first night, null = open
+    private LocalDate endDate;    // night after the last, null = open
+    private double rate;          // multiplier (WEEKEND, SEASON) or nightly rate (OVERRIDE)
+
+    public RateRule() {}
+
+    public RateRule(String roomType, String kind, LocalDate startDate, LocalDate endDate, double rate) {
+        this.roomType = roomType;
+        this.kind = kind;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.rate = rate;
+    }
+
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getRoomType() { return roomType; }
+    public void setRoomType(String roomType) { this.roomType = roomType; }
+
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+    public double getRate() { return rate; }
+    public void setRate(double rate) { this.rate = rate; }
+
+    @Override
+    public String toString() {
+        return kind + " " + (roomType == null ? "*" : roomType) + " [" + startDate + ", " + endDate + ") " + rate;
+    }
+}
@@ -0,0 +1,78 @@
+package com.hotelapp.services;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared plumbing for the services' CompletableFuture methods.
+ *
+ * By default each call runs on its own virtual thread: the calls mostly wait
+ * on SQLite (reads on pooled connections, writes on the writer thread), so
+ * there is no reason to bound them with a platform thread pool.
+ */
+public final class AsyncSupport {
+
+    private static final ExecutorService VIRTUAL_THREADS =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("service-async-", 0).factory());
+
+    private AsyncSupport() {}
+
+    /**
+     * The default executor: one virtual thread per call.
+     */
+    public static Executor defaultExecutor() {
+        return VIRTUAL_THREADS;
+    }
+
+    /**
+     * Run a blocking call on the executor. Unlike CompletableFuture.supplyAsync
+     * this accepts checked exceptions; the future completes exceptionally with
+     * the exception the call threw.
+     */
+    public static <T> CompletableFuture<T> supply(Callable<T> call, Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (future.isDone()) return;    // cancelled before it started
+            try {
+                future.complete(call.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Wait for a future and rethrow what the call threw, rather than the
+     * CompletionException / ExecutionException wrapping it.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw rethrowable(e.getCause());
+        }
+    }
+
+    /**
+     * The exception a failed stage actually failed with (unwrapping CompletionException).
+     */
+    public static Throwable unwrap(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    private static Exception rethrowable(Throwable t) {
+        t = unwrap(t);
+        if (t instanceof Exception) return (Exception) t;
+        if (t instanceof Error) throw (Error) t;
+        return new Exception(t);
+    }
+}
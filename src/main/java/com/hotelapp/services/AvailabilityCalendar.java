@@ -0,0 +1,232 @@
+package com.hotelapp.services;
+
+import com.hotelapp.dao.ReservationStore;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Booked-night calendar for "any free room for these nights" searches.
+ *
+ * Each room has a bitset of booked nights over a rolling horizon starting
+ * today (bit i = night of origin + i). A range query masks the few words
+ * covering the requested nights in every room and returns the matching room
+ * ids as a {@link BitSet}; no per-reservation work is done at query time.
+ *
+ * Built from ReservationStore on first use and kept current through
+ * {@link ReservationEvents}. The horizon is re-based (rebuilt) once it has
+ * slid {@value #REBASE_AFTER_DAYS} days into the past. Ranges outside the
+ * horizon are rejected; check {@link #covers} first and fall back to
+ * {@link AvailabilityIndex} or SQL for those.
+ *
+ * Horizon length: -Dhotel.calendar.horizonDays (default 731, about two years).
+ */
+public class AvailabilityCalendar implements ReservationEvents.Listener {
+
+    private static final int HORIZON_DAYS = Integer.getInteger("hotel.calendar.horizonDays", 731);
+    private static final int WORDS = (HORIZON_DAYS + 63) >>> 6;
+    private static final int REBASE_AFTER_DAYS = 30;
+
+    private static final AvailabilityCalendar INSTANCE = new AvailabilityCalendar();
+
+    public static AvailabilityCalendar getInstance() {
+        return INSTANCE;
+    }
+
+    // all fields below are guarded by this
+    private long origin;                                // epoch day of bit 0
+    private long[][] bits = new long[0][];              // indexed by room id, null = no bookings
+    private final Map<Integer, Stay> stays = new HashMap<>();
+    private final Map<Integer, List<Stay>> staysByRoom = new HashMap<>();
+    private boolean loaded;
+    private Clock clock = Clock.systemDefaultZone();
+
+    private AvailabilityCalendar() {
+        ReservationEvents.addListener(this);
+    }
+
+    private static final class Stay {
+        final int reservationId;
+        final int roomId;
+        final long checkin;
+        final long checkout;
+
+        Stay(int reservationId, int roomId, long checkin, long checkout) {
+            this.reservationId = reservationId;
+            this.roomId = roomId;
+            this.checkin = checkin;
+            this.checkout = checkout;
+        }
+    }
+
+    /**
+     * (Re)build the calendar from ReservationStore with the horizon starting today.
+     */
+    public synchronized void load() throws SQLException {
+        long start = System.nanoTime();
+        origin = today();
+        bits = new long[0][];
+        stays.clear();
+        staysByRoom.clear();
+        ReservationStore.getInstance().scanBlocking((id, room, customer, in, out, status, total) ->
+                addStay(new Stay(id, room, in, out)));
+        loaded = true;
+        System.out.printf("Availability calendar loaded: %d stays, %d-day horizon from %s (%.1f ms)%n",
+                stays.size(), HORIZON_DAYS, LocalDate.ofEpochDay(origin), (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    private void ensureCurrent() throws SQLException {
+        if (!loaded || today() - origin >= REBASE_AFTER_DAYS) {
+            load();
+        }
+    }
+
+    private long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+
+    /**
+     * Replace the clock that decides "today" (tests); the next query re-bases if it has moved far enough.
+     */
+    synchronized void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * True if every night of [checkin, checkout) lies inside the current horizon.
+     */
+    public synchronized boolean covers(LocalDate checkin, LocalDate checkout) throws SQLException {
+        ensureCurrent();
+        return checkin.toEpochDay() >= origin && checkout.toEpochDay() <= origin + HORIZON_DAYS;
+    }
+
+    /**
+     * Ids of rooms with at least one booked night in [checkin, checkout).
+     */
+    public synchronized BitSet bookedRooms(LocalDate checkin, LocalDate checkout) throws SQLException {
+        ensureCurrent();
+        int from = (int) (checkin.toEpochDay() - origin);
+        int to = (int) (checkout.toEpochDay() - origin);
+        if (from < 0 || to > HORIZON_DAYS || from > to) {
+            throw new IllegalArgumentException("Range " + checkin + " - " + checkout + " is outside the availability calendar");
+        }
+        BitSet booked = new BitSet(bits.length);
+        if (from == to) return booked;
+
+        // masks for the words covering [from, to); inner words are all ones
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;                   // shifts are mod 64
+        long lastMask = -1L >>> (63 - ((to - 1) & 63));
+
+        for (int room = 0; room < bits.length; room++) {
+            long[] words = bits[room];
+            if (words == null) continue;
+            for (int w = firstWord; w <= lastWord; w++) {
+                long mask = -1L;
+                if (w == firstWord) mask &= firstMask;
+                if (w == lastWord) mask &= lastMask;
+                if ((words[w] & mask) != 0) {
+                    booked.set(room);
+                    break;
+                }
+            }
+        }
+        return booked;
+    }
+
+    /**
+     * The rooms in {@code candidates} (a set of room ids) that are free for every night of [checkin, checkout).
+     */
+    public BitSet freeRooms(BitSet candidates, LocalDate checkin, LocalDate checkout) throws SQLException {
+        BitSet free = (BitSet) candidates.clone();
+        free.andNot(bookedRooms(checkin, checkout));
+        return free;
+    }
+
+    /**
+     * Booked nights of each room over [from, to): bit i set = night from + i
+     * is booked. A copy, taken in one step, so callers can scan it without
+     * holding the calendar. Rooms without bookings get an empty set.
+     */
+    public synchronized Map<Integer, BitSet> bookedNights(Collection<Integer> roomIds, LocalDate from, LocalDate to) throws SQLException {
+        ensureCurrent();
+        int start = (int) (from.toEpochDay() - origin);
+        int end = (int) (to.toEpochDay() - origin);
+        if (start < 0 || end > HORIZON_DAYS || start > end) {
+            throw new IllegalArgumentException("Range " + from + " - " + to + " is outside the availability calendar");
+        }
+        Map<Integer, BitSet> nights = new HashMap<>();
+        for (Integer roomId : roomIds) {
+            long[] words = roomId < bits.length ? bits[roomId] : null;
+            nights.put(roomId, words == null ? new BitSet() : BitSet.valueOf(words).get(start, end));
+        }
+        return nights;
+    }
+
+    // ---- updates, called after the corresponding write has committed ----
+
+    @Override
+    public synchronized void booked(int reservationId, int roomId, LocalDate checkin, LocalDate checkout) {
+        if (!loaded) return;    // will be read from the database on first use
+        removeStay(reservationId);
+        addStay(new Stay(reservationId, roomId, checkin.toEpochDay(), checkout.toEpochDay()));
+    }
+
+    @Override
+    public synchronized void datesChanged(int reservationId, LocalDate checkin, LocalDate checkout) {
+        Stay old = stays.get(reservationId);
+        if (old != null) {
+            booked(reservationId, old.roomId, checkin, checkout);
+        }
+    }
+
+    @Override
+    public synchronized void statusChanged(int reservationId, String status) {
+        if (!AvailabilityIndex.isBlocking(status)) {
+            removeStay(reservationId);
+        }
+    }
+
+    private void addStay(Stay stay) {
+        stays.put(stay.reservationId, stay);
+        staysByRoom.computeIfAbsent(stay.roomId, k -> new ArrayList<>()).add(stay);
+        if (stay.roomId >= bits.length) {
+            bits = Arrays.copyOf(bits, Math.max(stay.roomId + 1, bits.length * 2));
+        }
+        if (bits[stay.roomId] == null) {
+            bits[stay.roomId] = new long[WORDS];
+        }
+        setNights(bits[stay.roomId], stay);
+    }
+
+    private void removeStay(int reservationId) {
+        Stay stay = stays.remove(reservationId);
+        if (stay == null) return;
+        List<Stay> roomStays = staysByRoom.get(stay.roomId);
+        roomStays.remove(stay);
+
+        // nights may be shared with an overlapping stay, so rebuild this room's bits
+        long[] words = bits[stay.roomId];
+        Arrays.fill(words, 0L);
+        for (Stay s : roomStays) {
+            setNights(words, s);
+        }
+    }
+
+    private void setNights(long[] words, Stay stay) {
+        long from = Math.max(stay.checkin - origin, 0);
+        long to = Math.min(stay.checkout - origin, HORIZON_DAYS);
+        for (long night = from; night < to; night++) {
+            words[(int) (night >>> 6)] |= 1L << night;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.hotelapp.services;
+
+import com.hotelapp.dao.ReservationStore;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory availability index.
+ *
+ * For every room it keeps the blocking stays as half-open [checkin, checkout)
+ * epoch-day intervals sorted by checkin, together with a running maximum of
+ * checkout. A stay overlaps [in, out) only if it starts before {@code out};
+ * those are a prefix of the sorted array (one binary search), and one of them
+ * overlaps iff the largest checkout in that prefix is after {@code in}. So
+ * "is room X free" is O(log n) and "which rooms are free" is O(rooms * log n).
+ *
+ * Per-room arrays are immutable and replaced on change, so lookups never lock.
+ * The index is built from the database on first use (or via {@link #load()} at
+ * startup) and kept current through {@link ReservationEvents} after each commit.
+ * It is only a fast pre-check: bookings are still verified against the
+ * database inside the write transaction. Changes made by other processes are
+ * not seen, so a "taken" answer may be stale; callers that act on it should
+ * confirm it with the database (ReservationDAO.hasConflict).
+ */
+public class AvailabilityIndex implements ReservationEvents.Listener {
+
+    private static final AvailabilityIndex INSTANCE = new AvailabilityIndex();
+
+    public static AvailabilityIndex getInstance() {
+        return INSTANCE;
+    }
+
+    private final ConcurrentHashMap<Integer, RoomStays> rooms = new ConcurrentHashMap<>();
+    // reservation id -> room id, for updates that only know the reservation; guarded by this
+    private final Map<Integer, Integer> roomOfReservation = new HashMap<>();
+    private volatile boolean loaded;
+
+    private AvailabilityIndex() {
+        ReservationEvents.addListener(this);
+    }
+
+    /**
+     * Statuses that make a room unavailable (same rule as ReservationDAO.hasConflict).
+     */
+    public static final List<String> BLOCKING_STATUSES = List.of("CONFIRMED", "CHECKED_IN");
+
+    public static boolean isBlocking(String status) {
+        return "CONFIRMED".equalsIgnoreCase(status) || "CHECKED_IN".equalsIgnoreCase(status);
+    }
+
+    /**
+     * (Re)build the whole index from the reservations (via ReservationStore).
+     */
+    public synchronized void load() throws SQLException {
+        long start = System.nanoTime();
+        Map<Integer, List<long[]>> byRoom = new HashMap<>();     // room -> {checkin, checkout, id}
+        ReservationStore.getInstance().scanBlocking((id, room, customer, in, out, status, total) ->
+                byRoom.computeIfAbsent(room, k -> new ArrayList<>()).add(new long[] {in, out, id}));
+
+        rooms.clear();
+        roomOfReservation.clear();
+        int count = 0;
+        for (Map.Entry<Integer, List<long[]>> e : byRoom.entrySet()) {
+            List<long[]> stays = e.getValue();
+            stays.sort((a, b) -> Long.compare(a[0], b[0]));
+            int n = stays.size();
+            long[] starts = new long[n];
+            long[] ends = new long[n];
+            int[] ids = new int[n];
+            for (int i = 0; i < n; i++) {
+                long[] s = stays.get(i);
+                starts[i] = s[0];
+                ends[i] = s[1];
+                ids[i] = (int) s[2];
+                roomOfReservation.put(ids[i], e.getKey());
+            }
+            rooms.put(e.getKey(), new RoomStays(starts, ends, ids));
+            count += n;
+        }
+        loaded = true;
+        System.out.printf("Availability index loaded: %d stays in %d rooms (%.1f ms)%n",
+                count, byRoom.size(), (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    private void ensureLoaded() throws SQLException {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) load();
+            }
+        }
+    }
+
+    /**
+     * True if the room has no blocking stay overlapping [checkin, checkout).
+     */
+    public boolean isFree(int roomId, LocalDate checkin, LocalDate checkout) throws SQLException {
+        ensureLoaded();
+        RoomStays stays = rooms.get(roomId);
+        return stays == null || !stays.overlaps(checkin.toEpochDay(), checkout.toEpochDay());
+    }
+
+    /**
+     * The subset of {@code roomIds} that is free for [checkin, checkout), in the given order.
+     */
+    public List<Integer> freeRooms(Collection<Integer> roomIds, LocalDate checkin, LocalDate checkout) throws SQLException {
+        ensureLoaded();
+        long from = checkin.toEpochDay();
+        long to = checkout.toEpochDay();
+        List<Integer> free = new ArrayList<>();
+        for (Integer roomId : roomIds) {
+            RoomStays stays = rooms.get(roomId);
+            if (stays == null || !stays.overlaps(from, to)) {
+                free.add(roomId);
+            }
+        }
+        return free;
+    }
+
+    // ---- updates, called after the corresponding write has committed ----
+
+    @Override
+    public void booked(int reservationId, int roomId, LocalDate checkin, LocalDate checkout) {
+        put(reservationId, roomId, checkin, checkout);
+    }
+
+    /**
+     * Record a blocking stay, or move an existing one to new dates.
+     */
+    private synchronized void put(int reservationId, int roomId, LocalDate checkin, LocalDate checkout) {
+        if (!loaded) return;    // will be read from the database on first use
+        remove(reservationId);
+        rooms.compute(roomId, (id, stays) -> (stays == null ? RoomStays.EMPTY : stays)
+                .with(reservationId, checkin.toEpochDay(), checkout.toEpochDay()));
+        roomOfReservation.put(reservationId, roomId);
+    }
+
+    /**
+     * Change the dates of a reservation; no-op if it is not blocking.
+     */
+    @Override
+    public synchronized void datesChanged(int reservationId, LocalDate checkin, LocalDate checkout) {
+        Integer roomId = roomOfReservation.get(reservationId);
+        if (roomId != null) {
+            put(reservationId, roomId, checkin, checkout);
+        }
+    }
+
+    /**
+     * Apply a status change; the stay is dropped once it no longer blocks the room.
+     */
+    @Override
+    public synchronized void statusChanged(int reservationId, String status) {
+        if (!isBlocking(status)) {
+            remove(reservationId);
+        }
+    }
+
+    private synchronized void remove(int reservationId) {
+        Integer roomId = roomOfReservation.remove(reservationId);
+        if (roomId != null) {
+            rooms.computeIfPresent(roomId, (id, stays) -> stays.without(reservationId));
+        }
+    }
+
+    /**
+     * Immutable, checkin-sorted stays of one room.
+     */
+    private static final class RoomStays {
+        static final RoomStays EMPTY = new RoomStays(new long[0], new long[0], new int[0]);
+
+        final long[] starts;
+        final long[] ends;
+        final int[] ids;
+        final long[] maxEnd;    // maxEnd[i] = max(ends[0..i])
+
+        RoomStays(long[] starts, long[] ends, int[] ids) {
+            this.starts = starts;
+            this.ends = ends;
+            this.ids = ids;
+            this.maxEnd = new long[starts.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < starts.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnd[i] = max;
+            }
+        }
+
+        boolean overlaps(long from, long to) {
+            int k = lowerBound(starts, to);     // stays [0, k) start before 'to'
+            return k > 0 && maxEnd[k - 1] > from;
+        }
+
+        RoomStays with(int id, long start, long end) {
+            int n = starts.length;
+            int pos = lowerBound(starts, start);
+            long[] s = new long[n + 1];
+            long[] e = new long[n + 1];
+            int[] d = new int[n + 1];
+            System.arraycopy(starts, 0, s, 0, pos);
+            System.arraycopy(ends, 0, e, 0, pos);
+            System.arraycopy(ids, 0, d, 0, pos);
+            s[pos] = start;
+            e[pos] = end;
+            d[pos] = id;
+            System.arraycopy(starts, pos, s, pos + 1, n - pos);
+            System.arraycopy(ends, pos, e, pos + 1, n - pos);
+            System.arraycopy(ids, pos, d, pos + 1, n - pos);
+            return new RoomStays(s, e, d);
+        }
+
+        RoomStays without(int id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    int n = ids.length - 1;
+                    long[] s = Arrays.copyOf(starts, n);
+                    long[] e = Arrays.copyOf(ends, n);
+                    int[] d = Arrays.copyOf(ids, n);
+                    System.arraycopy(starts, i + 1, s, i, n - i);
+                    System.arraycopy(ends, i + 1, e, i, n - i);
+                    System.arraycopy(ids, i + 1, d, i, n - i);
+                    return new RoomStays(s, e, d);
+                }
+            }
+            return this;
+        }
+
+        // first index whose value is >= key
+        private static int lowerBound(long[] a, long key) {
+            int lo = 0, hi = a.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (a[mid] < key) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
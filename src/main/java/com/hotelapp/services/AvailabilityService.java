@@ -0,0 +1,35 @@
+package com.hotelapp.services;
+
+import com.hotelapp.dao.RoomDAO;
+import com.hotelapp.models.Room;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Date-range room search: which rooms can actually be booked for a stay,
+ * as opposed to which rooms have status FREE right now.
+ */
+public class AvailabilityService {
+    public static final int DEFAULT_LIMIT = 200;
+
+    private final RoomDAO roomDAO = new RoomDAO();
+
+    /**
+     * Rooms free for every night of [checkin, checkout), cheapest first.
+     *
+     * @param type     room type to match, or null for any
+     * @param maxPrice highest nightly price, or null for any
+     * @param limit    maximum number of rooms returned
+     */
+    public List<Room> findAvailableRooms(LocalDate checkin, LocalDate checkout, String type, Double maxPrice, int limit) throws Exception {
+        if (checkin == null || checkout == null || !checkin.isBefore(checkout)) {
+            throw new IllegalArgumentException("Check-out date must be after check-in date");
+        }
+        return roomDAO.findAvailableRooms(checkin, checkout, type, maxPrice, limit);
+    }
+
+    public List<Room> findAvailableRooms(LocalDate checkin, LocalDate checkout) throws Exception {
+        return findAvailableRooms(checkin, checkout, null, null, DEFAULT_LIMIT);
+    }
+}
@@ -0,0 +1,56 @@
+package com.hotelapp.services;
+
+/**
+ * Outcome of {@link ReservationService#tryBook}: either the new reservation
+ * id, CONFLICT when the room already has a stay overlapping the dates, or
+ * SOLD_OUT when the room's type has reached its overbooking limit on one of
+ * the nights (see TypeInventory). These are expected answers, not errors,
+ * so they are not thrown.
+ */
+public class BookingResult {
+
+    public enum Status { BOOKED, CONFLICT, SOLD_OUT }
+
+    private final Status status;
+    private final int reservationId;
+    private final int attempts;
+
+    private BookingResult(Status status, int reservationId, int attempts) {
+        this.status = status;
+        this.reservationId = reservationId;
+        this.attempts = attempts;
+    }
+
+    static BookingResult booked(int reservationId, int attempts) {
+        return new BookingResult(Status.BOOKED, reservationId, attempts);
+    }
+
+    static BookingResult conflict(int attempts) {
+        return new BookingResult(Status.CONFLICT, -1, attempts);
+    }
+
+    static BookingResult soldOut() {
+        return new BookingResult(Status.SOLD_OUT, -1, 0);
+    }
+
+    public Status getStatus() { return status; }
+    public boolean isBooked() { return status == Status.BOOKED; }
+
+    /**
+     * The new reservation id, or -1 if not booked.
+     */
+    public int getReservationId() { return reservationId; }
+
+    /**
+     * Write attempts made (more than 1 if the database was busy); 0 if the
+     * in-memory availability check already ruled the room out.
+     */
+    public int getAttempts() { return attempts; }
+
+    @Override
+    public String toString() {
+        return isBooked()
+                ? "BOOKED #" + reservationId + " (" + attempts + " attempt(s))"
+                : status + " (" + attempts + " attempt(s))";
+    }
+}
@@ -0,0 +1,141 @@
+package com.hotelapp.services;
+
+import com.hotelapp.dao.ReservationDAO;
+import com.hotelapp.dao.RoomDAO;
+import com.hotelapp.utils.DBUtil;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job that completes stays whose checkout date has passed and
+ * frees their rooms, so rooms do not stay BOOKED/OCCUPIED after the stay ended.
+ *
+ * Each sweep is two set-based UPDATEs (rooms first, then reservations) run
+ * as one command on the writer thread, i.e. inside one BEGIN IMMEDIATE
+ * transaction. The first sweep runs at start(), then every
+ * -Dhotel.sweeper.intervalMinutes (default 15).
+ */
+public class CheckoutSweeper {
+    private static final long DEFAULT_INTERVAL_MINUTES = 15;
+
+    private static final CheckoutSweeper INSTANCE = new CheckoutSweeper();
+
+    public static CheckoutSweeper getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Outcome of one sweep.
+     */
+    public static class SweepResult {
+        private final LocalDateTime ranAt;
+        private final int reservationsCompleted;
+        private final int roomsFreed;
+        private final double millis;
+
+        SweepResult(LocalDateTime ranAt, int reservationsCompleted, int roomsFreed, double millis) {
+            this.ranAt = ranAt;
+            this.reservationsCompleted = reservationsCompleted;
+            this.roomsFreed = roomsFreed;
+            this.millis = millis;
+        }
+
+        public LocalDateTime getRanAt() { return ranAt; }
+        public int getReservationsCompleted() { return reservationsCompleted; }
+        public int getRoomsFreed() { return roomsFreed; }
+        public double getMillis() { return millis; }
+
+        @Override
+        public String toString() {
+            return String.format("ran at %s: %d reservation(s) completed, %d room(s) freed in %.1f ms",
+                    ranAt.withNano(0), reservationsCompleted, roomsFreed, millis);
+        }
+    }
+
+    private final ReservationDAO reservationDAO = new ReservationDAO();
+    private final RoomDAO roomDAO = new RoomDAO();
+    private ScheduledExecutorService scheduler;     // guarded by this
+
+    private volatile SweepResult lastResult;
+    private volatile long totalRuns;
+    private volatile long totalCompleted;
+
+    private CheckoutSweeper() {}
+
+    /**
+     * Start the periodic sweep (no-op if already running).
+     */
+    public synchronized void start() {
+        if (scheduler != null) return;
+        long interval = Long.getLong("hotel.sweeper.intervalMinutes", DEFAULT_INTERVAL_MINUTES);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "checkout-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                sweepNow();
+            } catch (Exception e) {
+                // keep the schedule alive; the next run will try again
+                System.err.println("Checkout sweep failed: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, 0, interval, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Run one sweep now on the calling thread and wait for it to commit.
+     */
+    public SweepResult sweepNow() throws Exception {
+        LocalDateTime ranAt = LocalDateTime.now();
+        LocalDate today = ranAt.toLocalDate();
+        long start = System.nanoTime();
+
+        int[] roomsFreed = new int[1];
+        List<Integer> completed = DBUtil.write(conn -> {
+            // rooms first: the overdue stays must still be active to be found
+            roomsFreed[0] = roomDAO.freeRoomsWithOverdueStays(today, conn);
+            List<Integer> ids = reservationDAO.completeOverdue(today, conn);
+            // published when this commits, in commit order
+            for (Integer id : ids) {
+                ReservationEvents.fireStatusChanged(id, "COMPLETED");
+            }
+            if (roomsFreed[0] > 0) {
+                RoomCatalog.getInstance().allRoomsWritten(conn);
+            }
+            return ids;
+        });
+
+        SweepResult result = new SweepResult(ranAt, completed.size(), roomsFreed[0],
+                (System.nanoTime() - start) / 1_000_000.0);
+        synchronized (this) {
+            totalRuns++;
+            totalCompleted += completed.size();
+        }
+        lastResult = result;
+        if (!completed.isEmpty()) {
+            System.out.println("Checkout sweep " + result);
+        }
+        return result;
+    }
+
+    /**
+     * Result of the most recent sweep, or null if none has run yet.
+     */
+    public SweepResult getLastResult() { return lastResult; }
+    public long getTotalRuns() { return totalRuns; }
+    public long getTotalCompleted() { return totalCompleted; }
+}
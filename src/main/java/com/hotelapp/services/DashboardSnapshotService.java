@@ -0,0 +1,109 @@
+package com.hotelapp.services;
+
+import com.hotelapp.dao.ReservationDAO;
+import com.hotelapp.dao.ReservationStore;
+import com.hotelapp.models.DashboardStats;
+import com.hotelapp.models.Reservation;
+import com.hotelapp.models.Room;
+import com.hotelapp.utils.DBUtil;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Dashboard data: the counters, counted in memory from RoomCatalog and
+ * ReservationStore, plus the newest N reservations from the database. The
+ * result is cached until the next committed write
+ * ({@link DBUtil#getDataVersion()}) or until the date changes, so showing the
+ * dashboard again without intervening writes costs no work at all. On a miss
+ * the counting and the query run concurrently.
+ */
+public class DashboardSnapshotService {
+    public static final int DEFAULT_RECENT_LIMIT = 50;
+
+    // shared by all dashboard controllers (a new one is created on every navigation)
+    private static volatile CachedSnapshot cached;
+
+    private static final class CachedSnapshot {
+        final long version;
+        final int recentLimit;
+        final DashboardStats stats;
+
+        CachedSnapshot(long version, int recentLimit, DashboardStats stats) {
+            this.version = version;
+            this.recentLimit = recentLimit;
+            this.stats = stats;
+        }
+    }
+
+    private final ReservationDAO reservationDAO = new ReservationDAO();
+
+    public DashboardStats getSnapshot() throws Exception {
+        return getSnapshot(DEFAULT_RECENT_LIMIT);
+    }
+
+    public DashboardStats getSnapshot(int recentLimit) throws Exception {
+        LocalDate today = LocalDate.now();
+        // read the version first: a write committed while we query makes the next call reload
+        long version = DBUtil.getDataVersion();
+        CachedSnapshot c = cached;
+        if (c != null && c.version == version && c.recentLimit == recentLimit && today.equals(c.stats.getDate())) {
+            return c.stats;
+        }
+
+        DashboardStats stats = AsyncSupport.await(getSnapshotAsync(today, recentLimit));
+        cached = new CachedSnapshot(version, recentLimit, stats);
+        return stats;
+    }
+
+    /**
+     * The snapshot without blocking: the cached one if still valid, otherwise
+     * a fresh one (which is then cached).
+     */
+    public CompletableFuture<DashboardStats> getSnapshotAsync(int recentLimit) {
+        return AsyncSupport.supply(() -> getSnapshot(recentLimit), AsyncSupport.defaultExecutor());
+    }
+
+    private CompletableFuture<DashboardStats> getSnapshotAsync(LocalDate today, int recentLimit) {
+        CompletableFuture<DashboardStats> counts =
+                AsyncSupport.supply(() -> loadCounts(today), AsyncSupport.defaultExecutor());
+        CompletableFuture<List<Reservation>> recent =
+                AsyncSupport.supply(() -> reservationDAO.getRecentReservations(recentLimit), AsyncSupport.defaultExecutor());
+        return counts.thenCombine(recent, (stats, reservations) -> {
+            stats.setRecentReservations(Collections.unmodifiableList(reservations));
+            return stats;
+        });
+    }
+
+    private static DashboardStats loadCounts(LocalDate today) throws SQLException {
+        DashboardStats s = new DashboardStats();
+        s.setDate(today);
+        List<Room> rooms = RoomCatalog.getInstance().getAllRooms();
+        int free = 0;
+        int booked = 0;
+        for (Room r : rooms) {
+            if ("FREE".equalsIgnoreCase(r.getStatus())) free++;
+            if ("BOOKED".equalsIgnoreCase(r.getStatus())) booked++;
+        }
+        s.setTotalRooms(rooms.size());
+        s.setFreeRooms(free);
+        s.setBookedRooms(booked);
+
+        ReservationStore store = ReservationStore.getInstance();
+        s.setTotalReservations(store.count());
+        int[] movements = store.countArrivalsAndDepartures(today);
+        s.setTodayCheckIns(movements[0]);
+        s.setTodayCheckOuts(movements[1]);
+        return s;
+    }
+
+    /**
+     * Drop the cached snapshot (e.g. after changes made outside the write queue).
+     */
+    public static void invalidate() {
+        cached = null;
+    }
+}
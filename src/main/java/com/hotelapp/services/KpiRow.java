@@ -0,0 +1,97 @@
+package com.hotelapp.services;
+
+import java.time.LocalDate;
+
+/**
+ * One line of a {@link KpiService} report: the figures of one period, for
+ * one room type or (roomType null) for the whole hotel.
+ *
+ * Occupancy, ADR and RevPAR count the nights sold inside the period.
+ * Average stay, cancellation rate and lead time describe the stays
+ * checking in during the period.
+ */
+public class KpiRow {
+
+    private final LocalDate periodStart;
+    private final LocalDate periodEnd;          // last day of the period
+    private final String roomType;
+    private final long availableNights;
+    private final long soldNights;
+    private final double revenue;
+    private final long arrivals;
+    private final long arrivalNights;
+    private final long bookings;
+    private final long cancellations;
+    private final long leadDays;
+    private final long leadCount;
+
+    public KpiRow(LocalDate periodStart, LocalDate periodEnd, String roomType, long availableNights, long soldNights,
+                  double revenue, long arrivals, long arrivalNights, long bookings, long cancellations,
+                  long leadDays, long leadCount) {
+        this.periodStart = periodStart;
+        this.periodEnd = periodEnd;
+        this.roomType = roomType;
+        this.availableNights = availableNights;
+        this.soldNights = soldNights;
+        this.revenue = revenue;
+        this.arrivals = arrivals;
+        this.arrivalNights = arrivalNights;
+        this.bookings = bookings;
+        this.cancellations = cancellations;
+        this.leadDays = leadDays;
+        this.leadCount = leadCount;
+    }
+
+    public LocalDate getPeriodStart() { return periodStart; }
+    public LocalDate getPeriodEnd() { return periodEnd; }
+    public String getRoomType() { return roomType; }
+    public long getAvailableNights() { return availableNights; }
+    public long getSoldNights() { return soldNights; }
+
+    /** Room revenue earned on the period's nights (a stay's total spread evenly over its nights). */
+    public double getRevenue() { return revenue; }
+
+    /** Stays checking in during the period, cancelled ones excluded. */
+    public long getArrivals() { return arrivals; }
+
+    /** Stays checking in during the period, cancelled ones included. */
+    public long getBookings() { return bookings; }
+    public long getCancellations() { return cancellations; }
+
+    /** Sold nights / available nights, 0..1 (above 1 if oversold). */
+    public double getOccupancy() {
+        return availableNights == 0 ? 0 : (double) soldNights / availableNights;
+    }
+
+    /** Average daily rate: revenue per sold night. */
+    public double getAdr() {
+        return soldNights == 0 ? 0 : revenue / soldNights;
+    }
+
+    /** Revenue per available room night. */
+    public double getRevpar() {
+        return availableNights == 0 ? 0 : revenue / availableNights;
+    }
+
+    /** Average length of stay of the arrivals, in nights. */
+    public double getAverageStay() {
+        return arrivals == 0 ? 0 : (double) arrivalNights / arrivals;
+    }
+
+    /** Cancelled bookings / bookings, 0..1. */
+    public double getCancellationRate() {
+        return bookings == 0 ? 0 : (double) cancellations / bookings;
+    }
+
+    /** Average days between booking and check-in, over bookings with a known booking day. */
+    public double getAverageLeadDays() {
+        return leadCount == 0 ? 0 : (double) leadDays / leadCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s - %s %-12s occ %5.1f%%  ADR %9.2f  RevPAR %9.2f  ALOS %4.1f  cxl %5.1f%%  lead %5.1f",
+                periodStart, periodEnd, roomType == null ? "(all)" : roomType, getOccupancy() * 100, getAdr(),
+                getRevpar(), getAverageStay(), getCancellationRate() * 100, getAverageLeadDays());
+    }
+}
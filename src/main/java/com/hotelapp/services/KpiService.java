@@ -0,0 +1,175 @@
+package com.hotelapp.services;
+
+import com.hotelapp.dao.ReservationStore;
+import com.hotelapp.models.Room;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Occupancy and revenue figures (occupancy %, ADR, RevPAR, average length of
+ * stay, cancellation rate, booking lead time) over a date range, by day, ISO
+ * week, month or for the whole range, optionally per room type. See KpiRow
+ * for what each figure counts.
+ *
+ * One parallel pass over ReservationStore does all the work. Each stay is
+ * cut at the period boundaries and each piece adds its nights and its share
+ * of the total to its period: a stay costs one step per period it touches,
+ * never an object per night. Every fork/join task adds into its own flat
+ * arrays (period x type x figure); the arrays are summed at the end.
+ *
+ * Sold nights and revenue come from CONFIRMED, CHECKED_IN and COMPLETED
+ * stays. Available nights are the rooms in today's RoomCatalog (maintenance
+ * included; room history is not kept) times the days of the period, so
+ * stays of rooms deleted since are not counted at all. Lead time counts the
+ * stays booked on or before their check-in day; rows without a readable
+ * created_at are left out of it.
+ */
+public class KpiService {
+
+    public enum Grouping { DAY, WEEK, MONTH, TOTAL }
+
+    // figures counted per (period, type) cell, FIGURES apart in Totals.counts
+    private static final int SOLD_NIGHTS = 0;
+    private static final int ARRIVALS = 1;
+    private static final int ARRIVAL_NIGHTS = 2;
+    private static final int BOOKINGS = 3;
+    private static final int CANCELLATIONS = 4;
+    private static final int LEAD_DAYS = 5;
+    private static final int LEAD_COUNT = 6;
+    private static final int FIGURES = 7;
+
+    private final ReservationStore store = ReservationStore.getInstance();
+    private final RoomCatalog catalog = RoomCatalog.getInstance();
+
+    // one task's sums; revenue (major units) is kept per cell, the rest per cell and figure
+    private static final class Totals {
+        final long[] counts;
+        final double[] revenue;
+
+        Totals(int cells) {
+            counts = new long[cells * FIGURES];
+            revenue = new double[cells];
+        }
+
+        Totals add(Totals other) {
+            for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+            for (int i = 0; i < revenue.length; i++) revenue[i] += other.revenue[i];
+            return this;
+        }
+    }
+
+    /**
+     * Figures for the nights from {@code from} through {@code to} (both
+     * included), one row per period in date order and, if byRoomType, per
+     * room type within it (sorted by type); otherwise one row per period for
+     * the whole hotel (room type null). Edge weeks and months are clipped to
+     * the range.
+     */
+    public List<KpiRow> compute(LocalDate from, LocalDate to, Grouping grouping, boolean byRoomType) throws SQLException {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("The report must end on or after its first day");
+        }
+        final int first = (int) from.toEpochDay();
+        final int end = (int) to.toEpochDay() + 1;
+
+        // period of every day of the range, and the first day of every period (+ end)
+        final int[] periodOfDay = new int[end - first];
+        int[] starts = new int[periodOfDay.length + 1];
+        int periods = 0;
+        for (int day = first; day < end; day++) {
+            if (day == first || startsPeriod(LocalDate.ofEpochDay(day), grouping)) {
+                starts[periods++] = day;
+            }
+            periodOfDay[day - first] = periods - 1;
+        }
+        starts[periods] = end;
+        final int[] periodStarts = Arrays.copyOf(starts, periods + 1);
+
+        // room id -> type column (-1 = not in the catalog), and rooms per column
+        List<Room> rooms = catalog.getAllRooms();
+        List<String> typeNames = byRoomType ? catalog.getTypes() : new ArrayList<>();
+        final int types = byRoomType ? typeNames.size() : 1;
+        int maxRoomId = 0;
+        for (Room r : rooms) maxRoomId = Math.max(maxRoomId, r.getId());
+        final int[] typeOfRoom = new int[maxRoomId + 1];
+        Arrays.fill(typeOfRoom, -1);
+        long[] roomsOfType = new long[types];
+        for (Room r : rooms) {
+            int type = byRoomType ? typeNames.indexOf(r.getType()) : 0;
+            typeOfRoom[r.getId()] = type;
+            roomsOfType[type]++;
+        }
+
+        final int cells = periods * types;
+        Totals totals = store.scanParallel(() -> new Totals(cells),
+                (t, roomId, checkin, checkout, status, total, bookedDay) -> {
+                    int type = roomId < typeOfRoom.length ? typeOfRoom[roomId] : -1;
+                    if (type < 0 || checkout <= checkin || status == ReservationStore.OTHER) return;
+                    boolean cancelled = status == ReservationStore.CANCELLED;
+
+                    // stays checking in inside the range
+                    if (checkin >= first && checkin < end) {
+                        int at = (periodOfDay[checkin - first] * types + type) * FIGURES;
+                        t.counts[at + BOOKINGS]++;
+                        if (cancelled) {
+                            t.counts[at + CANCELLATIONS]++;
+                        } else {
+                            t.counts[at + ARRIVALS]++;
+                            t.counts[at + ARRIVAL_NIGHTS] += checkout - checkin;
+                        }
+                        if (bookedDay != ReservationStore.UNKNOWN_DAY && bookedDay <= checkin) {
+                            t.counts[at + LEAD_DAYS] += checkin - bookedDay;
+                            t.counts[at + LEAD_COUNT]++;
+                        }
+                    }
+
+                    // nights sold inside the range, one step per period touched
+                    if (cancelled) return;
+                    int night = Math.max(checkin, first);
+                    int last = Math.min(checkout, end);
+                    double perNight = total / 100.0 / (checkout - checkin);
+                    while (night < last) {
+                        int period = periodOfDay[night - first];
+                        int stop = Math.min(last, periodStarts[period + 1]);
+                        int cell = period * types + type;
+                        t.counts[cell * FIGURES + SOLD_NIGHTS] += stop - night;
+                        t.revenue[cell] += perNight * (stop - night);
+                        night = stop;
+                    }
+                },
+                Totals::add);
+
+        List<KpiRow> rows = new ArrayList<>(cells);
+        for (int p = 0; p < periods; p++) {
+            int days = periodStarts[p + 1] - periodStarts[p];
+            for (int type = 0; type < types; type++) {
+                int cell = p * types + type;
+                int at = cell * FIGURES;
+                long[] c = totals.counts;
+                rows.add(new KpiRow(LocalDate.ofEpochDay(periodStarts[p]), LocalDate.ofEpochDay(periodStarts[p + 1] - 1L),
+                        byRoomType ? typeNames.get(type) : null, roomsOfType[type] * days, c[at + SOLD_NIGHTS],
+                        Math.round(totals.revenue[cell] * 100) / 100.0, c[at + ARRIVALS], c[at + ARRIVAL_NIGHTS],
+                        c[at + BOOKINGS], c[at + CANCELLATIONS], c[at + LEAD_DAYS], c[at + LEAD_COUNT]));
+            }
+        }
+        return rows;
+    }
+
+    private static boolean startsPeriod(LocalDate day, Grouping grouping) {
+        switch (grouping) {
+            case DAY:
+                return true;
+            case WEEK:
+                return day.getDayOfWeek() == DayOfWeek.MONDAY;
+            case MONTH:
+                return day.getDayOfMonth() == 1;
+            default:
+                return false;
+        }
+    }
+}
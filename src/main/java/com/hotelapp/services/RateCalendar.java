@@ -0,0 +1,348 @@
+package com.hotelapp.services;
+
+import com.hotelapp.dao.RateRuleDAO;
+import com.hotelapp.models.RateRule;
+import com.hotelapp.models.Room;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nightly rates by date, for quoting stays.
+ *
+ * A room's rate for a night is rooms.price multiplied by the WEEKEND and
+ * SEASON rules covering that night, unless an OVERRIDE rule sets the rate
+ * outright (see RateRule). For every room type the calendar keeps two
+ * prefix-sum arrays over a horizon around today: the running sum of the
+ * multipliers of nights without an override, and the running sum of the
+ * override rates. A stay [checkin, checkout) then costs
+ * price * (F[out] - F[in]) + (O[out] - O[in]) whatever its length. Stays
+ * reaching outside the horizon are priced night by night from the rules.
+ *
+ * Built from rate_rules on first use (or via {@link #load()} at startup) and
+ * rebuilt by addRule/deleteRule. Every build is a new immutable table, so
+ * quotes never lock. The horizon is re-based once it has slid
+ * {@value #REBASE_AFTER_DAYS} days.
+ *
+ * Horizon: {@value #PAST_DAYS} days back (for editing past stays) and
+ * -Dhotel.rates.horizonDays ahead (default 731).
+ */
+public class RateCalendar {
+
+    private static final int PAST_DAYS = 366;
+    private static final int FUTURE_DAYS = Integer.getInteger("hotel.rates.horizonDays", 731);
+    private static final int REBASE_AFTER_DAYS = 30;
+
+    private static final RateCalendar INSTANCE = new RateCalendar();
+
+    public static RateCalendar getInstance() {
+        return INSTANCE;
+    }
+
+    private final RateRuleDAO rateRuleDAO = new RateRuleDAO();
+    private volatile Table table;
+    private volatile Clock clock = Clock.systemDefaultZone();
+
+    private RateCalendar() {}
+
+    // prefix sums for one room type; index i covers the nights before origin + i
+    private static final class TypeRates {
+        final double[] factorSums;
+        final double[] overrideSums;
+
+        TypeRates(long origin, int length, List<RateRule> rules) {
+            double[] factor = new double[length];
+            double[] override = new double[length];
+            Arrays.fill(factor, 1.0);
+            Arrays.fill(override, Double.NaN);
+            for (RateRule r : rules) {
+                int from = r.getStartDate() == null ? 0 : clamp(r.getStartDate().toEpochDay() - origin, length);
+                int to = r.getEndDate() == null ? length : clamp(r.getEndDate().toEpochDay() - origin, length);
+                for (int i = from; i < to; i++) {
+                    switch (r.getKind()) {
+                        case RateRule.WEEKEND:
+                            if (isWeekendNight(origin + i)) factor[i] *= r.getRate();
+                            break;
+                        case RateRule.SEASON:
+                            factor[i] *= r.getRate();
+                            break;
+                        case RateRule.OVERRIDE:
+                            override[i] = r.getRate();
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+            factorSums = new double[length + 1];
+            overrideSums = new double[length + 1];
+            for (int i = 0; i < length; i++) {
+                boolean overridden = !Double.isNaN(override[i]);
+                factorSums[i + 1] = factorSums[i] + (overridden ? 0 : factor[i]);
+                overrideSums[i + 1] = overrideSums[i] + (overridden ? override[i] : 0);
+            }
+        }
+
+        private static int clamp(long index, int length) {
+            return (int) Math.max(0, Math.min(length, index));
+        }
+    }
+
+    // one immutable build of the calendar
+    private static final class Table {
+        final long origin;
+        final int length;
+        final List<RateRule> rules;
+        final Map<String, TypeRates> byType;    // types that have rules of their own
+        final TypeRates anyType;                // every other type: rules without a type only
+
+        Table(long origin, int length, List<RateRule> rules) {
+            this.origin = origin;
+            this.length = length;
+            this.rules = List.copyOf(rules);
+            this.anyType = new TypeRates(origin, length, rulesFor(rules, null));
+            Map<String, TypeRates> types = new HashMap<>();
+            for (RateRule r : rules) {
+                if (r.getRoomType() != null && !types.containsKey(r.getRoomType())) {
+                    types.put(r.getRoomType(), new TypeRates(origin, length, rulesFor(rules, r.getRoomType())));
+                }
+            }
+            this.byType = Map.copyOf(types);
+        }
+
+        TypeRates ratesFor(String type) {
+            TypeRates rates = type == null ? null : byType.get(type);
+            return rates != null ? rates : anyType;
+        }
+    }
+
+    /**
+     * (Re)read the rules and rebuild the calendar with the horizon around today.
+     */
+    public synchronized void load() throws SQLException {
+        long start = System.nanoTime();
+        List<RateRule> rules = rateRuleDAO.getAllRules();
+        table = build(rules, today());
+        System.out.printf("Rate calendar loaded: %d rules, %d room types with own rates (%.1f ms)%n",
+                rules.size(), table.byType.size(), (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    /**
+     * Replace the clock that decides "today" (tests); the next quote re-bases if it has moved far enough.
+     */
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+
+    private static Table build(List<RateRule> rules, long today) {
+        long origin = today - PAST_DAYS;
+        return new Table(origin, PAST_DAYS + FUTURE_DAYS, rules);
+    }
+
+    private Table current() throws SQLException {
+        Table t = table;
+        if (t == null) {
+            synchronized (this) {
+                if (table == null) load();
+                t = table;
+            }
+        } else if (today() - t.origin > PAST_DAYS + REBASE_AFTER_DAYS) {
+            synchronized (this) {
+                if (table == t) table = build(t.rules, today());
+                t = table;
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Price of staying in the room for the nights [checkin, checkout).
+     */
+    public double quote(Room room, LocalDate checkin, LocalDate checkout) throws SQLException {
+        checkDates(checkin, checkout);
+        return quote(current(), room.getPrice(), room.getType(), checkin.toEpochDay(), checkout.toEpochDay());
+    }
+
+    /**
+     * Same as quote(Room, ...), for a room of the RoomCatalog.
+     */
+    public double quote(int roomId, LocalDate checkin, LocalDate checkout) throws SQLException {
+        Room room = RoomCatalog.getInstance().findById(roomId);
+        if (room == null) {
+            throw new IllegalArgumentException("Room " + roomId + " not found");
+        }
+        return quote(room, checkin, checkout);
+    }
+
+    /**
+     * Quotes for several rooms and the same stay (room id -> total), in the given order.
+     */
+    public Map<Integer, Double> quoteRooms(Collection<Room> rooms, LocalDate checkin, LocalDate checkout) throws SQLException {
+        checkDates(checkin, checkout);
+        Table t = current();
+        long in = checkin.toEpochDay();
+        long out = checkout.toEpochDay();
+        Map<Integer, Double> quotes = new LinkedHashMap<>();
+        for (Room room : rooms) {
+            quotes.put(room.getId(), quote(t, room.getPrice(), room.getType(), in, out));
+        }
+        return quotes;
+    }
+
+    /**
+     * "From" price of every room type for the stay: the quote for the
+     * cheapest room of the type, by type name.
+     */
+    public Map<String, Double> quoteByType(LocalDate checkin, LocalDate checkout) throws SQLException {
+        checkDates(checkin, checkout);
+        Table t = current();
+        long in = checkin.toEpochDay();
+        long out = checkout.toEpochDay();
+        Map<String, Double> quotes = new LinkedHashMap<>();
+        RoomCatalog catalog = RoomCatalog.getInstance();
+        for (String type : catalog.getTypes()) {
+            double cheapest = Double.MAX_VALUE;
+            for (Room room : catalog.getRoomsByType(type)) {
+                cheapest = Math.min(cheapest, room.getPrice());
+            }
+            quotes.put(type, quote(t, cheapest, type, in, out));
+        }
+        return quotes;
+    }
+
+    /**
+     * Quotes for stays of {@code nights} nights in the room checking in on
+     * each of the {@code checkins} days from firstCheckin: element i is
+     * quote(room, firstCheckin + i, firstCheckin + i + nights).
+     */
+    public double[] quoteCheckins(Room room, LocalDate firstCheckin, int checkins, int nights) throws SQLException {
+        if (nights < 1) {
+            throw new IllegalArgumentException("A stay must be at least one night");
+        }
+        Table t = current();
+        long in = firstCheckin.toEpochDay();
+        double[] quotes = new double[Math.max(0, checkins)];
+        for (int i = 0; i < quotes.length; i++) {
+            quotes[i] = quote(t, room.getPrice(), room.getType(), in + i, in + i + nights);
+        }
+        return quotes;
+    }
+
+    /**
+     * The rate of each night of the stay, e.g. for an itemized bill.
+     */
+    public double[] nightlyRates(Room room, LocalDate checkin, LocalDate checkout) throws SQLException {
+        checkDates(checkin, checkout);
+        Table t = current();
+        List<RateRule> rules = rulesFor(t.rules, room.getType());
+        long in = checkin.toEpochDay();
+        double[] rates = new double[(int) (checkout.toEpochDay() - in)];
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = round(nightlyRate(rules, room.getPrice(), in + i));
+        }
+        return rates;
+    }
+
+    private static double quote(Table t, double price, String type, long checkin, long checkout) {
+        long a = checkin - t.origin;
+        long b = checkout - t.origin;
+        if (a >= 0 && b <= t.length) {
+            TypeRates rates = t.ratesFor(type);
+            int from = (int) a;
+            int to = (int) b;
+            return round(price * (rates.factorSums[to] - rates.factorSums[from])
+                    + (rates.overrideSums[to] - rates.overrideSums[from]));
+        }
+        // outside the horizon: night by night
+        List<RateRule> rules = rulesFor(t.rules, type);
+        double total = 0;
+        for (long night = checkin; night < checkout; night++) {
+            total += nightlyRate(rules, price, night);
+        }
+        return round(total);
+    }
+
+    // the same rules TypeRates applies, for one night
+    private static double nightlyRate(List<RateRule> rules, double price, long night) {
+        double factor = 1.0;
+        double override = Double.NaN;
+        for (RateRule r : rules) {
+            if (r.getStartDate() != null && night < r.getStartDate().toEpochDay()) continue;
+            if (r.getEndDate() != null && night >= r.getEndDate().toEpochDay()) continue;
+            switch (r.getKind()) {
+                case RateRule.WEEKEND:
+                    if (isWeekendNight(night)) factor *= r.getRate();
+                    break;
+                case RateRule.SEASON:
+                    factor *= r.getRate();
+                    break;
+                case RateRule.OVERRIDE:
+                    override = r.getRate();
+                    break;
+                default:
+                    break;
+            }
+        }
+        return Double.isNaN(override) ? price * factor : override;
+    }
+
+    private static List<RateRule> rulesFor(List<RateRule> rules, String type) {
+        List<RateRule> list = new ArrayList<>();
+        for (RateRule r : rules) {
+            if (r.getRoomType() == null || r.getRoomType().equals(type)) list.add(r);
+        }
+        return list;
+    }
+
+    // Friday and Saturday nights
+    private static boolean isWeekendNight(long epochDay) {
+        DayOfWeek day = LocalDate.ofEpochDay(epochDay).getDayOfWeek();
+        return day == DayOfWeek.FRIDAY || day == DayOfWeek.SATURDAY;
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+
+    private static void checkDates(LocalDate checkin, LocalDate checkout) {
+        if (checkin == null || checkout == null || !checkin.isBefore(checkout)) {
+            throw new IllegalArgumentException("Check-out date must be after check-in date");
+        }
+    }
+
+    // ---- rules ----
+
+    public List<RateRule> getRules() throws SQLException {
+        return current().rules;
+    }
+
+    public int addRule(RateRule rule) throws SQLException {
+        if (rule.getRate() <= 0) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+        if (rule.getStartDate() != null && rule.getEndDate() != null && !rule.getStartDate().isBefore(rule.getEndDate())) {
+            throw new IllegalArgumentException("Rule end date must be after its start date");
+        }
+        int id = rateRuleDAO.addRule(rule);
+        load();
+        return id;
+    }
+
+    public void deleteRule(int id) throws SQLException {
+        rateRuleDAO.deleteRule(id);
+        load();
+    }
+}
@@ -0,0 +1,70 @@
+package com.hotelapp.services;
+
+import com.hotelapp.utils.DBUtil;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Post-commit notifications about reservation changes, used to keep the
+ * in-memory availability structures in step with the database.
+ *
+ * {@link ReservationService} fires these from inside its write commands and
+ * they are delivered when the command commits, on the writer thread and in
+ * commit order, so a slow caller can never publish an older change after a
+ * newer one. A listener that throws is reported and skipped; it never fails
+ * the caller's operation, which has already been persisted.
+ */
+public final class ReservationEvents {
+
+    public interface Listener {
+        void booked(int reservationId, int roomId, LocalDate checkin, LocalDate checkout);
+
+        void datesChanged(int reservationId, LocalDate checkin, LocalDate checkout);
+
+        void statusChanged(int reservationId, String status);
+    }
+
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private ReservationEvents() {}
+
+    public static void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /*
+     * Called from inside the write command that made the change: listeners
+     * are told once it commits (DBUtil.onCommit), on the writer thread, so
+     * they see changes in commit order, after ReservationStore; nothing is
+     * told if the command is rolled back.
+     */
+
+    static void fireBooked(int reservationId, int roomId, LocalDate checkin, LocalDate checkout) {
+        DBUtil.onCommit(() -> deliver(l -> l.booked(reservationId, roomId, checkin, checkout)));
+    }
+
+    static void fireDatesChanged(int reservationId, LocalDate checkin, LocalDate checkout) {
+        DBUtil.onCommit(() -> deliver(l -> l.datesChanged(reservationId, checkin, checkout)));
+    }
+
+    static void fireStatusChanged(int reservationId, String status) {
+        DBUtil.onCommit(() -> deliver(l -> l.statusChanged(reservationId, status)));
+    }
+
+    private static void deliver(Consumer<Listener> event) {
+        for (Listener l : listeners) {
+            try {
+                event.accept(l);
+            } catch (RuntimeException e) {
+                System.out.println("Warning: reservation listener failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -7,155 +7,231 @@ import com.hotelapp.models.Customer;
 import com.hotelapp.models.Reservation;
 import com.hotelapp.utils.DBUtil;
 
-import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Reservation use cases. Each blocking method has an ...Async counterpart
+ * that runs it on the service's executor (virtual threads unless one is
+ * given) and returns a CompletableFuture, so independent calls can run
+ * concurrently and be composed.
+ */
 public class ReservationService {
+    private static final int MAX_BOOKING_ATTEMPTS = 5;
+    private static final long BACKOFF_BASE_MILLIS = 20;
+
     private final ReservationDAO reservationDAO = new ReservationDAO();
     private final CustomerDAO customerDAO = new CustomerDAO();
     private final RoomDAO roomDAO = new RoomDAO();
+    private final Executor asyncExecutor;
+
+    /**
+     * Today's arrivals and departures, loaded together.
+     */
+    public static class TodayMovements {
+        private final LocalDate date;
+        private final List<Reservation> checkIns;
+        private final List<Reservation> checkOuts;
+
+        TodayMovements(LocalDate date, List<Reservation> checkIns, List<Reservation> checkOuts) {
+            this.date = date;
+            this.checkIns = checkIns;
+            this.checkOuts = checkOuts;
+        }
+
+        public LocalDate getDate() { return date; }
+        public List<Reservation> getCheckIns() { return checkIns; }
+        public List<Reservation> getCheckOuts() { return checkOuts; }
+    }
+
+    public ReservationService() {
+        this(AsyncSupport.defaultExecutor());
+    }
+
+    /**
+     * @param asyncExecutor runs the ...Async methods
+     */
+    public ReservationService(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
 
     /**
      * Books a reservation transactionally: creates customer (if new) and reservation,
-     * ensures availability.
-     * Returns reservationId (>0) on success, -1 on failure.
+     * ensures availability. Runs on the single writer thread (see {@link DBUtil#write}).
+     * Returns reservationId (>0) on success; throws if the room is not available.
      */
     public int bookReservation(Customer customer, int roomId, LocalDate checkIn, LocalDate checkOut, double total) throws Exception {
-        try (Connection conn = DBUtil.getConnection()) {
+        BookingResult result = tryBook(customer, roomId, checkIn, checkOut, total);
+        if (result.getStatus() == BookingResult.Status.SOLD_OUT) {
+            throw new Exception("No more rooms of this type can be sold for the selected dates.");
+        }
+        if (!result.isBooked()) {
+            throw new Exception("Room is not available for selected dates.");
+        }
+        return result.getReservationId();
+    }
+
+    /**
+     * Book a room if it is free for [checkIn, checkOut), reporting a taken room
+     * as a CONFLICT result (SOLD_OUT if its type is at the overbooking limit)
+     * rather than an exception.
+     *
+     * The availability check and the insert are a single conditional INSERT
+     * inside the writer's BEGIN IMMEDIATE transaction, so two terminals
+     * booking the same room cannot both succeed; the room type's overbooking
+     * limit is checked in the same transaction. If another process holds the
+     * write lock past busy_timeout, the booking is retried up to
+     * {@value #MAX_BOOKING_ATTEMPTS} times with jittered exponential backoff.
+     */
+    public BookingResult tryBook(Customer customer, int roomId, LocalDate checkIn, LocalDate checkOut, double total) throws Exception {
+        if (checkIn == null || checkOut == null || !checkIn.isBefore(checkOut)) {
+            throw new IllegalArgumentException("Check-out date must be after check-in date");
+        }
+        // Fast in-memory pre-check; the conditional insert below is authoritative.
+        // The index only hears about this process's writes, so a stay another
+        // terminal cancelled may still show: confirm a "taken" with the database.
+        if (!AvailabilityIndex.getInstance().isFree(roomId, checkIn, checkOut)
+                && reservationDAO.hasConflict(roomId, checkIn, checkOut, null)) {
+            return BookingResult.conflict(0);
+        }
+        // Type-level limit: do not sell more rooms of the type than are in service (plus any allowance).
+        // Same as above: a "sold out" from memory is confirmed before it is reported.
+        int limit = -TypeInventory.overbookRooms();
+        if (!TypeInventory.getInstance().canSell(roomId, checkIn, checkOut)
+                && reservationDAO.fewestRoomsLeft(roomId, checkIn, checkOut, null) - 1 < limit) {
+            return BookingResult.soldOut();
+        }
+
+        for (int attempt = 1; ; attempt++) {
             try {
-                conn.setAutoCommit(false);
-
-                // Create or find customer
-                int customerId = customerDAO.findOrCreate(customer, conn);
-
-                // Check availability (simple SQL in ReservationDAO) - use transaction connection
-                List<Reservation> conflicts = reservationDAO.findReservationsBetween(checkIn, checkOut, conn);
-                boolean conflict = conflicts.stream().anyMatch(r -> r.getRoomId() == roomId);
-                if (conflict) {
-                    conn.rollback();
-                    throw new Exception("Room is not available for selected dates.");
-                }
-
-                // Insert reservation using transaction connection
-                int resId = reservationDAO.insertReservation(customerId, roomId, checkIn, checkOut, "CONFIRMED", total, conn);
-
-                // Update room status to BOOKED when reservation is confirmed - use transaction connection
-                roomDAO.updateStatus(roomId, "BOOKED", conn);
-
-                conn.commit();
-                return resId;
-            } catch (Exception e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
+                int reservationId = DBUtil.write(conn -> {
+                    // Create or find customer
+                    int customerId = customerDAO.findOrCreate(customer, conn);
+
+                    // Insert only if no overlapping stay exists - use transaction connection
+                    int resId = reservationDAO.insertIfAvailable(customerId, roomId, checkIn, checkOut, total, conn);
+                    if (resId < 0) {
+                        throw new RoomTaken();     // rolls back the customer insert too
+                    }
+                    // the type limit, counted with the new stay inside the write lock, so
+                    // concurrent bookings (from any process) cannot both take the last room
+                    if (reservationDAO.fewestRoomsLeft(roomId, checkIn, checkOut, conn) < limit) {
+                        throw new TypeSoldOut();
+                    }
+
+                    // Update room status to BOOKED when reservation is confirmed - use transaction connection
+                    roomDAO.updateStatus(roomId, "BOOKED", conn);
+                    // published when this commits, in commit order
+                    ReservationEvents.fireBooked(resId, roomId, checkIn, checkOut);
+                    RoomCatalog.getInstance().roomsWritten(List.of(roomId), conn);
+                    return resId;
+                });
+                return BookingResult.booked(reservationId, attempt);
+            } catch (RoomTaken e) {
+                return BookingResult.conflict(attempt);
+            } catch (TypeSoldOut e) {
+                return BookingResult.soldOut();
+            } catch (SQLException e) {
+                if (!DBUtil.isBusy(e) || attempt >= MAX_BOOKING_ATTEMPTS) throw e;
+                backoff(attempt);
             }
         }
     }
 
+    // thrown inside the write command so its savepoint is rolled back
+    private static final class RoomTaken extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        RoomTaken() {
+            super("Room is not available for selected dates.", null, false, false);
+        }
+    }
+
+    private static final class TypeSoldOut extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        TypeSoldOut() {
+            super("No more rooms of this type can be sold for the selected dates.", null, false, false);
+        }
+    }
+
+    // sleep between half and all of base * 2^(attempt-1), so retrying terminals spread out
+    private static void backoff(int attempt) throws InterruptedException {
+        long max = BACKOFF_BASE_MILLIS << (attempt - 1);
+        Thread.sleep(max / 2 + ThreadLocalRandom.current().nextLong(max / 2 + 1));
+    }
+
     public Reservation getReservationById(int id) throws Exception {
         return reservationDAO.findById(id);
     }
 
     public void cancelReservation(int reservationId) throws Exception {
-        try (Connection conn = DBUtil.getConnection()) {
-            try {
-                conn.setAutoCommit(false);
-                
-                // Get reservation to find the room ID
-                Reservation reservation = reservationDAO.findById(reservationId);
-                if (reservation == null) {
-                    throw new Exception("Reservation not found");
-                }
-                
-                // Update reservation status to CANCELLED
-                reservationDAO.updateStatus(reservationId, "CANCELLED", conn);
-                
-                // Update room status to FREE when reservation is cancelled
-                // Check if room is BOOKED or OCCUPIED (both should become FREE on cancellation)
-                roomDAO.updateStatus(reservation.getRoomId(), "FREE", conn);
-                
-                conn.commit();
-            } catch (Exception e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
+        UnitOfWork.run(uow -> {
+            // Get reservation to find the room ID
+            Reservation reservation = uow.getReservation(reservationId);
+            if (reservation == null) {
+                throw new Exception("Reservation not found");
             }
-        }
+
+            // Update reservation status to CANCELLED
+            reservation.setStatus("CANCELLED");
+
+            // Update room status to FREE when reservation is cancelled
+            // Check if room is BOOKED or OCCUPIED (both should become FREE on cancellation)
+            uow.setRoomStatus(reservation.getRoomId(), "FREE");
+            return null;
+        });
     }
 
     public void updateReservationDates(int reservationId, LocalDate checkin, LocalDate checkout, double total) throws Exception {
-        try (Connection conn = DBUtil.getConnection()) {
-            try {
-                conn.setAutoCommit(false);
-                reservationDAO.updateReservationDates(reservationId, checkin, checkout, total, conn);
-                conn.commit();
-            } catch (Exception e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
-            }
-        }
+        DBUtil.write(conn -> {
+            reservationDAO.updateReservationDates(reservationId, checkin, checkout, total, conn);
+            ReservationEvents.fireDatesChanged(reservationId, checkin, checkout);
+            return null;
+        });
     }
 
     /**
      * Check-in: Mark reservation as CHECKED_IN and update room status to OCCUPIED
      */
     public void checkIn(int reservationId) throws Exception {
-        try (Connection conn = DBUtil.getConnection()) {
-            try {
-                conn.setAutoCommit(false);
-                Reservation reservation = reservationDAO.findById(reservationId);
-                if (reservation == null) {
-                    throw new Exception("Reservation not found");
-                }
-                if (!"CONFIRMED".equalsIgnoreCase(reservation.getStatus())) {
-                    throw new Exception("Only CONFIRMED reservations can be checked in");
-                }
-                
-                reservationDAO.updateStatus(reservationId, "CHECKED_IN", conn);
-                roomDAO.updateStatus(reservation.getRoomId(), "OCCUPIED", conn);
-                
-                conn.commit();
-            } catch (Exception e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
+        // one connection: one row read, then one batched update per table at commit
+        UnitOfWork.run(uow -> {
+            Reservation reservation = uow.getReservation(reservationId);
+            if (reservation == null) {
+                throw new Exception("Reservation not found");
             }
-        }
+            if (!"CONFIRMED".equalsIgnoreCase(reservation.getStatus())) {
+                throw new Exception("Only CONFIRMED reservations can be checked in");
+            }
+
+            reservation.setStatus("CHECKED_IN");
+            uow.setRoomStatus(reservation.getRoomId(), "OCCUPIED");
+            return null;
+        });
     }
 
     /**
      * Check-out: Mark reservation as COMPLETED and update room status to FREE
      */
     public void checkOut(int reservationId) throws Exception {
-        try (Connection conn = DBUtil.getConnection()) {
-            try {
-                conn.setAutoCommit(false);
-                Reservation reservation = reservationDAO.findById(reservationId);
-                if (reservation == null) {
-                    throw new Exception("Reservation not found");
-                }
-                if (!"CHECKED_IN".equalsIgnoreCase(reservation.getStatus())) {
-                    throw new Exception("Only CHECKED_IN reservations can be checked out");
-                }
-                
-                reservationDAO.updateStatus(reservationId, "COMPLETED", conn);
-                roomDAO.updateStatus(reservation.getRoomId(), "FREE", conn);
-                
-                conn.commit();
-            } catch (Exception e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
+        UnitOfWork.run(uow -> {
+            Reservation reservation = uow.getReservation(reservationId);
+            if (reservation == null) {
+                throw new Exception("Reservation not found");
             }
-        }
+            if (!"CHECKED_IN".equalsIgnoreCase(reservation.getStatus())) {
+                throw new Exception("Only CHECKED_IN reservations can be checked out");
+            }
+
+            reservation.setStatus("COMPLETED");
+            uow.setRoomStatus(reservation.getRoomId(), "FREE");
+            return null;
+        });
     }
 
     /**
@@ -172,41 +248,78 @@ public class ReservationService {
         return reservationDAO.getReservationsByCheckOutDate(LocalDate.now());
     }
 
+    // ---- asynchronous API (same semantics, run on asyncExecutor) ----
+
+    public CompletableFuture<BookingResult> tryBookAsync(Customer customer, int roomId, LocalDate checkIn, LocalDate checkOut, double total) {
+        return AsyncSupport.supply(() -> tryBook(customer, roomId, checkIn, checkOut, total), asyncExecutor);
+    }
+
+    public CompletableFuture<Integer> bookReservationAsync(Customer customer, int roomId, LocalDate checkIn, LocalDate checkOut, double total) {
+        return AsyncSupport.supply(() -> bookReservation(customer, roomId, checkIn, checkOut, total), asyncExecutor);
+    }
+
+    public CompletableFuture<Reservation> getReservationByIdAsync(int id) {
+        return AsyncSupport.supply(() -> getReservationById(id), asyncExecutor);
+    }
+
+    public CompletableFuture<Void> cancelReservationAsync(int reservationId) {
+        return AsyncSupport.supply(() -> {
+            cancelReservation(reservationId);
+            return null;
+        }, asyncExecutor);
+    }
+
+    public CompletableFuture<Void> updateReservationDatesAsync(int reservationId, LocalDate checkin, LocalDate checkout, double total) {
+        return AsyncSupport.supply(() -> {
+            updateReservationDates(reservationId, checkin, checkout, total);
+            return null;
+        }, asyncExecutor);
+    }
+
+    public CompletableFuture<Void> checkInAsync(int reservationId) {
+        return AsyncSupport.supply(() -> {
+            checkIn(reservationId);
+            return null;
+        }, asyncExecutor);
+    }
+
+    public CompletableFuture<Void> checkOutAsync(int reservationId) {
+        return AsyncSupport.supply(() -> {
+            checkOut(reservationId);
+            return null;
+        }, asyncExecutor);
+    }
+
+    public CompletableFuture<List<Reservation>> getTodayCheckInsAsync() {
+        return AsyncSupport.supply(this::getTodayCheckIns, asyncExecutor);
+    }
+
+    public CompletableFuture<List<Reservation>> getTodayCheckOutsAsync() {
+        return AsyncSupport.supply(this::getTodayCheckOuts, asyncExecutor);
+    }
+
+    /**
+     * Today's check-ins and check-outs, queried concurrently.
+     */
+    public CompletableFuture<TodayMovements> getTodayMovementsAsync() {
+        // one date for both queries, even across midnight
+        LocalDate today = LocalDate.now();
+        CompletableFuture<List<Reservation>> checkIns =
+                AsyncSupport.supply(() -> reservationDAO.getReservationsByCheckInDate(today), asyncExecutor);
+        CompletableFuture<List<Reservation>> checkOuts =
+                AsyncSupport.supply(() -> reservationDAO.getReservationsByCheckOutDate(today), asyncExecutor);
+        return checkIns.thenCombine(checkOuts, (in, out) -> new TodayMovements(today, in, out));
+    }
+
     /**
      * Automatically complete past reservations and free rooms for
      * any stays where the checkout date is before today but the
      * reservation is still CONFIRMED or CHECKED_IN.
      *
-     * This helps ensure rooms do not remain stuck as BOOKED/OCCUPIED
-     * after the stay has already ended by date.
+     * Normally done in the background by {@link CheckoutSweeper}; this runs
+     * one sweep immediately.
      */
     public void autoCompletePastCheckouts() throws Exception {
-        try (Connection conn = DBUtil.getConnection()) {
-            try {
-                conn.setAutoCommit(false);
-
-                List<Reservation> overdue = reservationDAO.getOverdueReservations(LocalDate.now());
-                for (Reservation r : overdue) {
-                    // Mark reservation as COMPLETED and free the room
-                    reservationDAO.updateStatus(r.getId(), "COMPLETED", conn);
-                    roomDAO.updateStatus(r.getRoomId(), "FREE", conn);
-                }
-
-                conn.commit();
-            } catch (SQLException e) {
-                conn.rollback();
-                // If the database is locked, skip auto-complete silently
-                String msg = e.getMessage();
-                if (msg != null && msg.toUpperCase().contains("SQLITE_BUSY")) {
-                    return;
-                }
-                throw e;
-            } catch (Exception e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
-            }
-        }
+        CheckoutSweeper.getInstance().sweepNow();
     }
 }
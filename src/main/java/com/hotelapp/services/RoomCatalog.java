@@ -0,0 +1,279 @@
+package com.hotelapp.services;
+
+import com.hotelapp.dao.RoomDAO;
+import com.hotelapp.models.Room;
+import com.hotelapp.utils.DBUtil;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory copy of the rooms table.
+ *
+ * Rooms are few and rarely change, but almost every screen reads them. The
+ * catalog holds an immutable snapshot of all rooms, indexed by id, room
+ * number and type; readers just take the current snapshot, so they never
+ * lock and never touch JDBC. Every change (addRoom, updateRoom, deleteRoom,
+ * updateStatus, or a service that changed room statuses in its own write
+ * transaction) re-reads the affected rows inside its write transaction and
+ * swaps in a new snapshot when that commits, on the writer thread, so
+ * snapshots follow commit order just like ReservationEvents.
+ *
+ * Rooms handed out are copies, so callers may edit them freely. Listeners
+ * are told after each swap; after a change that is on the writer thread.
+ */
+public class RoomCatalog {
+
+    private static final RoomCatalog INSTANCE = new RoomCatalog();
+
+    public static RoomCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    public interface Listener {
+        void roomsChanged(long version);
+    }
+
+    // one immutable version of the catalog
+    private static final class Snapshot {
+        final long version;
+        final List<Room> all;                   // ordered by room number
+        final Map<Integer, Room> byId;
+        final Map<String, Room> byNumber;
+        final Map<String, List<Room>> byType;   // ordered by type
+
+        Snapshot(long version, Collection<Room> rooms) {
+            List<Room> sorted = new ArrayList<>(rooms);
+            sorted.sort(Comparator.comparing(Room::getRoomNumber));
+            Map<Integer, Room> ids = new HashMap<>();
+            Map<String, Room> numbers = new HashMap<>();
+            Map<String, List<Room>> types = new TreeMap<>();
+            for (Room r : sorted) {
+                ids.put(r.getId(), r);
+                numbers.put(r.getRoomNumber(), r);
+                types.computeIfAbsent(r.getType(), k -> new ArrayList<>()).add(r);
+            }
+            types.replaceAll((k, v) -> List.copyOf(v));
+            this.version = version;
+            this.all = List.copyOf(sorted);
+            this.byId = Map.copyOf(ids);
+            this.byNumber = Map.copyOf(numbers);
+            this.byType = Collections.unmodifiableMap(types);
+        }
+    }
+
+    private final RoomDAO roomDAO = new RoomDAO();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot snapshot = new Snapshot(0, List.of());
+    private volatile boolean loaded;
+
+    private RoomCatalog() {}
+
+    /**
+     * (Re)read every room, e.g. at startup or to pick up changes made by another terminal.
+     */
+    public void load() throws SQLException {
+        fireChanged(reload());
+    }
+
+    // read every room and swap in the snapshot; returns its version, for the caller to fire
+    private long reload() throws SQLException {
+        long start = System.nanoTime();
+        Snapshot next;
+        synchronized (this) {
+            next = new Snapshot(snapshot.version + 1, roomDAO.getAllRooms());
+            snapshot = next;
+            loaded = true;
+        }
+        System.out.printf("Room catalog loaded: %d rooms (%.1f ms)%n",
+                next.all.size(), (System.nanoTime() - start) / 1_000_000.0);
+        return next.version;
+    }
+
+    private Snapshot current() throws SQLException {
+        if (!loaded) {
+            long version = -1;
+            synchronized (this) {
+                if (!loaded) version = reload();
+            }
+            // listeners may take their own locks and read the catalog: never call them holding ours
+            if (version >= 0) fireChanged(version);
+        }
+        return snapshot;
+    }
+
+    public List<Room> getAllRooms() throws SQLException {
+        return copies(current().all);
+    }
+
+    /**
+     * The room with this id, or null.
+     */
+    public Room findById(int id) throws SQLException {
+        return copy(current().byId.get(id));
+    }
+
+    /**
+     * The room with this room number, or null.
+     */
+    public Room findByNumber(String roomNumber) throws SQLException {
+        return copy(current().byNumber.get(roomNumber));
+    }
+
+    /**
+     * Rooms of this type ordered by room number; empty if there are none.
+     */
+    public List<Room> getRoomsByType(String type) throws SQLException {
+        return copies(current().byType.getOrDefault(type, List.of()));
+    }
+
+    /**
+     * The room types in use, sorted.
+     */
+    public List<String> getTypes() throws SQLException {
+        return List.copyOf(current().byType.keySet());
+    }
+
+    /**
+     * Rooms whose status is FREE right now (not date-range availability; see AvailabilityService).
+     */
+    public List<Room> getFreeRooms() throws SQLException {
+        List<Room> free = new ArrayList<>();
+        for (Room r : current().all) {
+            if ("FREE".equals(r.getStatus())) free.add(copy(r));
+        }
+        return free;
+    }
+
+    /**
+     * Increases with every snapshot swap; equal versions mean identical contents.
+     */
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    // ---- changes ----
+
+    /**
+     * Insert the room (its id is set from the database) and add it to the catalog.
+     */
+    public void addRoom(Room room) throws SQLException {
+        DBUtil.write(conn -> {
+            roomDAO.addRoom(room, conn);
+            roomsWritten(List.of(room.getId()), conn);
+            return null;
+        });
+    }
+
+    public void updateRoom(Room room) throws SQLException {
+        DBUtil.write(conn -> {
+            roomDAO.updateRoom(room, conn);
+            roomsWritten(List.of(room.getId()), conn);
+            return null;
+        });
+    }
+
+    public void deleteRoom(int id) throws SQLException {
+        DBUtil.write(conn -> {
+            roomDAO.deleteRoom(id, conn);
+            roomsWritten(List.of(id), conn);
+            return null;
+        });
+    }
+
+    public void updateStatus(int roomId, String status) throws SQLException {
+        DBUtil.write(conn -> {
+            roomDAO.updateStatus(roomId, status, conn);
+            roomsWritten(List.of(roomId), conn);
+            return null;
+        });
+    }
+
+    /**
+     * Called from a write command that changed these rooms: re-reads them on
+     * the command's connection and swaps them into the catalog once the
+     * command commits (DBUtil.onCommit), so snapshots follow commit order.
+     * Dropped if the command is rolled back.
+     */
+    void roomsWritten(Collection<Integer> roomIds, Connection conn) throws SQLException {
+        if (roomIds.isEmpty()) return;
+        Map<Integer, Room> fresh = new HashMap<>();     // null = deleted
+        for (Integer id : roomIds) {
+            fresh.put(id, roomDAO.findById(id, conn));
+        }
+        DBUtil.onCommit(() -> {
+            Snapshot next;
+            synchronized (this) {
+                if (!loaded) return;    // not loaded yet: the first read sees the change
+                Map<Integer, Room> rooms = new LinkedHashMap<>(snapshot.byId);
+                for (Map.Entry<Integer, Room> e : fresh.entrySet()) {
+                    if (e.getValue() == null) {
+                        rooms.remove(e.getKey());
+                    } else {
+                        rooms.put(e.getKey(), e.getValue());
+                    }
+                }
+                next = new Snapshot(snapshot.version + 1, rooms.values());
+                snapshot = next;
+            }
+            fireChanged(next.version);
+        });
+    }
+
+    /**
+     * Like roomsWritten, for a write command that changed rooms it cannot
+     * name (set-based updates): every room is re-read on its connection.
+     */
+    void allRoomsWritten(Connection conn) throws SQLException {
+        List<Room> rooms = roomDAO.getAllRooms(conn);
+        DBUtil.onCommit(() -> {
+            Snapshot next;
+            synchronized (this) {
+                if (!loaded) return;
+                next = new Snapshot(snapshot.version + 1, rooms);
+                snapshot = next;
+            }
+            fireChanged(next.version);
+        });
+    }
+
+    // ---- listeners ----
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireChanged(long version) {
+        for (Listener l : listeners) {
+            try {
+                l.roomsChanged(version);
+            } catch (RuntimeException e) {
+                System.out.println("Warning: room catalog listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private static Room copy(Room r) {
+        return r == null ? null : new Room(r.getId(), r.getRoomNumber(), r.getType(), r.getPrice(), r.getStatus());
+    }
+
+    private static List<Room> copies(List<Room> rooms) {
+        List<Room> list = new ArrayList<>(rooms.size());
+        for (Room r : rooms) list.add(copy(r));
+        return list;
+    }
+}
@@ -0,0 +1,47 @@
+package com.hotelapp.services;
+
+import com.hotelapp.models.Room;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+
+/**
+ * One answer of {@link StaySearch}: a room free for [checkin, checkout) and
+ * the quoted total for the stay.
+ */
+public class StayOption {
+
+    /**
+     * Cheapest first; ties go to the earlier check-in, then the room number.
+     */
+    public static final Comparator<StayOption> BY_PRICE = Comparator
+            .comparingDouble(StayOption::getTotal)
+            .thenComparing(StayOption::getCheckin)
+            .thenComparing(o -> o.getRoom().getRoomNumber());
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("EEE dd MMM");
+
+    private final Room room;
+    private final LocalDate checkin;
+    private final LocalDate checkout;
+    private final double total;
+
+    public StayOption(Room room, LocalDate checkin, LocalDate checkout, double total) {
+        this.room = room;
+        this.checkin = checkin;
+        this.checkout = checkout;
+        this.total = total;
+    }
+
+    public Room getRoom() { return room; }
+    public LocalDate getCheckin() { return checkin; }
+    public LocalDate getCheckout() { return checkout; }
+    public double getTotal() { return total; }
+
+    @Override
+    public String toString() {
+        return String.format("Room %s (%s)  %s - %s  Tk %.2f",
+                room.getRoomNumber(), room.getType(), checkin.format(DAY), checkout.format(DAY), total);
+    }
+}
@@ -0,0 +1,186 @@
+package com.hotelapp.services;
+
+import com.hotelapp.models.Room;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Flexible-date search: the cheapest stays of a given length anywhere in a
+ * date window, e.g. "3 nights sometime in the next two weeks".
+ *
+ * Every candidate room is swept once over the window. The booked nights come
+ * from AvailabilityCalendar as one bitset per room; a window of {@code nights}
+ * bits slides over it keeping a count of booked nights, so each possible
+ * check-in is tested in O(1). Prices come from RateCalendar's prefix sums,
+ * also O(1) per check-in. Rooms are split between fork/join tasks, each
+ * keeping only its k cheapest options in a bounded heap; the heaps are
+ * merged on the way back up.
+ *
+ * Like AvailabilityIndex this is a pre-check: booking one of the options
+ * still goes through the conditional insert and may report a conflict.
+ */
+public class StaySearch {
+
+    public static final int DEFAULT_LIMIT = 20;
+
+    // rooms per fork/join leaf; one room is a few hundred cheap steps
+    private static final int ROOMS_PER_TASK = 16;
+
+    private final AvailabilityCalendar calendar = AvailabilityCalendar.getInstance();
+    private final AvailabilityIndex index = AvailabilityIndex.getInstance();
+    private final RateCalendar rateCalendar = RateCalendar.getInstance();
+
+    /**
+     * The k cheapest stays of {@code nights} nights that start and end inside
+     * [windowStart, windowEnd), over all rooms of the type (null = any) that
+     * are not under maintenance. Cheapest first (see StayOption.BY_PRICE); a
+     * room may appear with several check-in dates.
+     */
+    public List<StayOption> findCheapest(LocalDate windowStart, LocalDate windowEnd, int nights, String type, int k) throws SQLException {
+        if (windowStart == null || windowEnd == null || !windowStart.isBefore(windowEnd)) {
+            throw new IllegalArgumentException("The search window must end after it starts");
+        }
+        if (nights < 1) {
+            throw new IllegalArgumentException("A stay must be at least one night");
+        }
+        int days = (int) ChronoUnit.DAYS.between(windowStart, windowEnd);
+        if (nights > days) {
+            throw new IllegalArgumentException("The search window is shorter than the stay");
+        }
+        if (k < 1) return List.of();
+
+        RoomCatalog catalog = RoomCatalog.getInstance();
+        List<Room> rooms = new ArrayList<>();
+        for (Room r : type == null ? catalog.getAllRooms() : catalog.getRoomsByType(type)) {
+            if (!"MAINTENANCE".equals(r.getStatus())) rooms.add(r);
+        }
+        if (rooms.isEmpty()) return List.of();
+
+        List<BitSet> booked = bookedNights(rooms, windowStart, windowEnd, days);
+        rateCalendar.getRules();    // make sure the rates are built before the tasks quote
+
+        Sweep sweep = new Sweep(rooms, booked, 0, rooms.size(), windowStart, days, nights, k);
+        PriorityQueue<StayOption> best;
+        try {
+            best = ForkJoinPool.commonPool().invoke(sweep);
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof SQLException) throw (SQLException) e.getCause();
+            throw e;
+        }
+        List<StayOption> result = new ArrayList<>(best);
+        result.sort(StayOption.BY_PRICE);
+        return result;
+    }
+
+    public List<StayOption> findCheapest(LocalDate windowStart, LocalDate windowEnd, int nights) throws SQLException {
+        return findCheapest(windowStart, windowEnd, nights, null, DEFAULT_LIMIT);
+    }
+
+    // booked nights per room (same order as rooms), bit i = windowStart + i
+    private List<BitSet> bookedNights(List<Room> rooms, LocalDate windowStart, LocalDate windowEnd, int days) throws SQLException {
+        List<Integer> ids = new ArrayList<>(rooms.size());
+        for (Room r : rooms) ids.add(r.getId());
+
+        Map<Integer, BitSet> byRoom;
+        if (calendar.covers(windowStart, windowEnd)) {
+            byRoom = calendar.bookedNights(ids, windowStart, windowEnd);
+        } else {
+            // outside the calendar's horizon: ask the interval index night by night
+            byRoom = new HashMap<>();
+            for (Integer id : ids) {
+                BitSet nights = new BitSet(days);
+                for (int i = 0; i < days; i++) {
+                    LocalDate night = windowStart.plusDays(i);
+                    if (!index.isFree(id, night, night.plusDays(1))) nights.set(i);
+                }
+                byRoom.put(id, nights);
+            }
+        }
+        List<BitSet> booked = new ArrayList<>(rooms.size());
+        for (Integer id : ids) booked.add(byRoom.get(id));
+        return booked;
+    }
+
+    // the k cheapest options of rooms [from, to), as a max-heap on price
+    private final class Sweep extends RecursiveTask<PriorityQueue<StayOption>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Room> rooms;
+        private final transient List<BitSet> booked;
+        private final int from;
+        private final int to;
+        private final LocalDate windowStart;
+        private final int days;
+        private final int nights;
+        private final int k;
+
+        Sweep(List<Room> rooms, List<BitSet> booked, int from, int to, LocalDate windowStart, int days, int nights, int k) {
+            this.rooms = rooms;
+            this.booked = booked;
+            this.from = from;
+            this.to = to;
+            this.windowStart = windowStart;
+            this.days = days;
+            this.nights = nights;
+            this.k = k;
+        }
+
+        @Override
+        protected PriorityQueue<StayOption> compute() {
+            if (to - from <= ROOMS_PER_TASK) {
+                PriorityQueue<StayOption> best = new PriorityQueue<>(k + 1, StayOption.BY_PRICE.reversed());
+                for (int i = from; i < to; i++) {
+                    sweepRoom(rooms.get(i), booked.get(i), best);
+                }
+                return best;
+            }
+            int mid = (from + to) >>> 1;
+            Sweep left = new Sweep(rooms, booked, from, mid, windowStart, days, nights, k);
+            Sweep right = new Sweep(rooms, booked, mid, to, windowStart, days, nights, k);
+            left.fork();
+            PriorityQueue<StayOption> best = right.compute();
+            for (StayOption o : left.join()) {
+                offer(best, o);
+            }
+            return best;
+        }
+
+        private void sweepRoom(Room room, BitSet bookedNights, PriorityQueue<StayOption> best) {
+            int checkins = days - nights + 1;
+            double[] quotes;
+            try {
+                quotes = rateCalendar.quoteCheckins(room, windowStart, checkins, nights);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            // booked nights inside [start, start + nights), slid one night at a time
+            int bookedInWindow = bookedNights.get(0, nights).cardinality();
+            for (int start = 0; start < checkins; start++) {
+                if (start > 0) {
+                    if (bookedNights.get(start - 1)) bookedInWindow--;
+                    if (bookedNights.get(start + nights - 1)) bookedInWindow++;
+                }
+                if (bookedInWindow > 0) continue;
+                // skip building the option if the heap is full and it cannot get in
+                if (best.size() == k && quotes[start] > best.peek().getTotal()) continue;
+                LocalDate checkin = windowStart.plusDays(start);
+                offer(best, new StayOption(room, checkin, checkin.plusDays(nights), quotes[start]));
+            }
+        }
+
+        private void offer(PriorityQueue<StayOption> best, StayOption option) {
+            best.add(option);
+            if (best.size() > k) best.poll();
+        }
+    }
+}
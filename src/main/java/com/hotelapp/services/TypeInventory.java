@@ -0,0 +1,329 @@
+package com.hotelapp.services;
+
+import com.hotelapp.dao.ReservationStore;
+import com.hotelapp.models.Room;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Nightly inventory per room type: rooms of the type in service (not under
+ * MAINTENANCE) minus the blocking stays in rooms of the type, for every
+ * night of a rolling horizon starting today.
+ *
+ * Each type's nights sit in a segment tree with lazy range addition, so
+ * booking or releasing a stay and "fewest rooms left on any night of
+ * [in, out)" are both O(log days), however long the stay. A negative count
+ * means the type is oversold on that night, e.g. because a booked room went
+ * into maintenance.
+ *
+ * Built from ReservationStore and RoomCatalog on first use (or via
+ * {@link #load()} at startup) and kept current through ReservationEvents and
+ * RoomCatalog changes. Like AvailabilityCalendar, the horizon is re-based
+ * once it has slid {@value #REBASE_AFTER_DAYS} days; nights outside it are
+ * not tracked (see {@link #covers}).
+ *
+ * ReservationService refuses a booking when it would take the type below
+ * -Dhotel.inventory.overbookRooms on any night (default 0: never sell more
+ * rooms than are in service; negative: hold that many rooms back). The
+ * counts here only see this process's bookings, so {@link #canSell} is a
+ * pre-check; the limit is enforced against the database inside the
+ * booking's write transaction (ReservationDAO.fewestRoomsLeft).
+ */
+public class TypeInventory implements ReservationEvents.Listener, RoomCatalog.Listener {
+
+    private static final int HORIZON_DAYS = Integer.getInteger("hotel.inventory.horizonDays", 731);
+    private static final int REBASE_AFTER_DAYS = 30;
+    private static final int OVERBOOK_ROOMS = Integer.getInteger("hotel.inventory.overbookRooms", 0);
+
+    private static final TypeInventory INSTANCE = new TypeInventory();
+
+    public static TypeInventory getInstance() {
+        return INSTANCE;
+    }
+
+    // all fields below are guarded by this
+    private long origin;                                        // epoch day of night 0
+    private final Map<String, MinTree> trees = new HashMap<>();
+    private Map<Integer, Room> rooms = new HashMap<>();         // as last counted, by id
+    private long roomsVersion = -1;                             // catalog version rooms was read at (or after)
+    private final Map<Integer, Stay> stays = new HashMap<>();
+    private boolean loaded;
+    private Clock clock = Clock.systemDefaultZone();
+
+    private TypeInventory() {
+        ReservationEvents.addListener(this);
+        RoomCatalog.getInstance().addListener(this);
+    }
+
+    private static final class Stay {
+        final int roomId;
+        final long checkin;
+        final long checkout;
+
+        Stay(int roomId, long checkin, long checkout) {
+            this.roomId = roomId;
+            this.checkin = checkin;
+            this.checkout = checkout;
+        }
+    }
+
+    /**
+     * Segment tree over nights [0, size) holding a count per night, with
+     * range add and range minimum. Nodes are 1-based; node i covers the
+     * range of its children 2i and 2i+1.
+     */
+    private static final class MinTree {
+        final int size;
+        final int[] min;
+        final int[] pending;    // added to the whole subtree, not yet pushed to the children
+
+        MinTree(int size, int initial) {
+            this.size = size;
+            this.min = new int[4 * size];
+            this.pending = new int[4 * size];
+            Arrays.fill(min, initial);
+        }
+
+        void add(int from, int to, int delta) {
+            if (from < to) add(1, 0, size, from, to, delta);
+        }
+
+        int min(int from, int to) {
+            return min(1, 0, size, from, to);
+        }
+
+        private void add(int node, int lo, int hi, int from, int to, int delta) {
+            if (to <= lo || hi <= from) return;
+            if (from <= lo && hi <= to) {
+                min[node] += delta;
+                pending[node] += delta;
+                return;
+            }
+            push(node);
+            int mid = (lo + hi) >>> 1;
+            add(2 * node, lo, mid, from, to, delta);
+            add(2 * node + 1, mid, hi, from, to, delta);
+            min[node] = Math.min(min[2 * node], min[2 * node + 1]);
+        }
+
+        private int min(int node, int lo, int hi, int from, int to) {
+            if (to <= lo || hi <= from) return Integer.MAX_VALUE;
+            if (from <= lo && hi <= to) return min[node];
+            push(node);
+            int mid = (lo + hi) >>> 1;
+            return Math.min(min(2 * node, lo, mid, from, to), min(2 * node + 1, mid, hi, from, to));
+        }
+
+        private void push(int node) {
+            int d = pending[node];
+            if (d != 0) {
+                for (int child = 2 * node; child <= 2 * node + 1; child++) {
+                    min[child] += d;
+                    pending[child] += d;
+                }
+                pending[node] = 0;
+            }
+        }
+    }
+
+    /**
+     * How far below zero rooms left a type may be sold (negative: rooms held back).
+     */
+    public static int overbookRooms() {
+        return OVERBOOK_ROOMS;
+    }
+
+    /**
+     * (Re)build the inventory from RoomCatalog and ReservationStore, with the horizon starting today.
+     */
+    public synchronized void load() throws SQLException {
+        long start = System.nanoTime();
+        stays.clear();
+        ReservationStore.getInstance().scanBlocking((id, room, customer, in, out, status, total) ->
+                stays.put(id, new Stay(room, in, out)));
+        roomsVersion = RoomCatalog.getInstance().getVersion();
+        rebuild(today(), roomsById());
+        loaded = true;
+        System.out.printf("Type inventory loaded: %d stays, %d room types, %d-day horizon (%.1f ms)%n",
+                stays.size(), trees.size(), HORIZON_DAYS, (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    // recount every type from the stays held and the given rooms
+    private void rebuild(long newOrigin, Map<Integer, Room> roomsNow) {
+        origin = newOrigin;
+        rooms = roomsNow;
+        Map<String, Integer> capacity = new HashMap<>();
+        for (Room r : roomsNow.values()) {
+            capacity.merge(r.getType(), inService(r) ? 1 : 0, Integer::sum);
+        }
+        trees.clear();
+        for (Map.Entry<String, Integer> e : capacity.entrySet()) {
+            trees.put(e.getKey(), new MinTree(HORIZON_DAYS, e.getValue()));
+        }
+        for (Stay s : stays.values()) {
+            apply(s, -1);
+        }
+    }
+
+    private void ensureCurrent() throws SQLException {
+        if (!loaded) {
+            load();
+        } else if (today() - origin >= REBASE_AFTER_DAYS) {
+            rebuild(today(), rooms);
+        }
+    }
+
+    private long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+
+    /**
+     * Replace the clock that decides "today" (tests); the next query re-bases if it has moved far enough.
+     */
+    synchronized void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * True if every night of [checkin, checkout) lies inside the current horizon.
+     */
+    public synchronized boolean covers(LocalDate checkin, LocalDate checkout) throws SQLException {
+        ensureCurrent();
+        return checkin.toEpochDay() >= origin && checkout.toEpochDay() <= origin + HORIZON_DAYS;
+    }
+
+    /**
+     * Fewest rooms of the type left on any night of [checkin, checkout);
+     * 0 for an unknown type. Negative if the type is oversold.
+     */
+    public synchronized int available(String type, LocalDate checkin, LocalDate checkout) throws SQLException {
+        ensureCurrent();
+        int from = (int) (checkin.toEpochDay() - origin);
+        int to = (int) (checkout.toEpochDay() - origin);
+        if (from < 0 || to > HORIZON_DAYS || from >= to) {
+            throw new IllegalArgumentException("Range " + checkin + " - " + checkout + " is outside the type inventory");
+        }
+        MinTree tree = trees.get(type);
+        return tree == null ? 0 : tree.min(from, to);
+    }
+
+    /**
+     * available() for every room type, by type name.
+     */
+    public synchronized Map<String, Integer> availableByType(LocalDate checkin, LocalDate checkout) throws SQLException {
+        ensureCurrent();
+        Map<String, Integer> counts = new TreeMap<>();
+        for (String type : new ArrayList<>(trees.keySet())) {
+            counts.put(type, available(type, checkin, checkout));
+        }
+        return counts;
+    }
+
+    /**
+     * False if booking one more stay in this room's type for [checkin,
+     * checkout) would go past the overbooking limit on some night. Stays
+     * outside the horizon and rooms not in the catalog are not limited.
+     */
+    public synchronized boolean canSell(int roomId, LocalDate checkin, LocalDate checkout) throws SQLException {
+        if (!covers(checkin, checkout)) return true;
+        Room room = rooms.get(roomId);
+        if (room == null) return true;
+        return available(room.getType(), checkin, checkout) - 1 >= -OVERBOOK_ROOMS;
+    }
+
+    // ---- updates, called after the corresponding write has committed ----
+
+    @Override
+    public synchronized void booked(int reservationId, int roomId, LocalDate checkin, LocalDate checkout) {
+        if (!loaded) return;    // will be read from the database on first use
+        removeStay(reservationId);
+        Stay stay = new Stay(roomId, checkin.toEpochDay(), checkout.toEpochDay());
+        stays.put(reservationId, stay);
+        apply(stay, -1);
+    }
+
+    @Override
+    public synchronized void datesChanged(int reservationId, LocalDate checkin, LocalDate checkout) {
+        Stay old = stays.get(reservationId);
+        if (old != null) {
+            booked(reservationId, old.roomId, checkin, checkout);
+        }
+    }
+
+    @Override
+    public synchronized void statusChanged(int reservationId, String status) {
+        if (!AvailabilityIndex.isBlocking(status)) {
+            removeStay(reservationId);
+        }
+    }
+
+    /**
+     * Rooms added, removed, retyped or moved in or out of maintenance change
+     * the counts; a change of BOOKED/FREE status alone does not.
+     */
+    @Override
+    public void roomsChanged(long version) {
+        // read before taking our monitor, so we never wait on the catalog while holding it
+        long seen = RoomCatalog.getInstance().getVersion();
+        Map<Integer, Room> roomsNow;
+        try {
+            roomsNow = roomsById();
+        } catch (SQLException e) {
+            System.out.println("Warning: type inventory not refreshed: " + e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            if (!loaded || seen < roomsVersion) return;     // a newer read was applied meanwhile
+            roomsVersion = seen;
+            if (!sameCounts(rooms, roomsNow)) {
+                rebuild(origin, roomsNow);
+            } else {
+                rooms = roomsNow;
+            }
+        }
+    }
+
+    private void removeStay(int reservationId) {
+        Stay stay = stays.remove(reservationId);
+        if (stay != null) apply(stay, +1);
+    }
+
+    // add delta to the stay's nights in its room's type
+    private void apply(Stay stay, int delta) {
+        Room room = rooms.get(stay.roomId);
+        if (room == null) return;   // room deleted; its stays no longer count
+        long from = Math.max(stay.checkin - origin, 0);
+        long to = Math.min(stay.checkout - origin, HORIZON_DAYS);
+        if (from < to) {
+            trees.get(room.getType()).add((int) from, (int) to, delta);
+        }
+    }
+
+    private static Map<Integer, Room> roomsById() throws SQLException {
+        Map<Integer, Room> byId = new HashMap<>();
+        for (Room r : RoomCatalog.getInstance().getAllRooms()) {
+            byId.put(r.getId(), r);
+        }
+        return byId;
+    }
+
+    private static boolean sameCounts(Map<Integer, Room> before, Map<Integer, Room> after) {
+        if (!before.keySet().equals(after.keySet())) return false;
+        for (Room r : after.values()) {
+            Room old = before.get(r.getId());
+            if (!old.getType().equals(r.getType()) || inService(old) != inService(r)) return false;
+        }
+        return true;
+    }
+
+    private static boolean inService(Room room) {
+        return !"MAINTENANCE".equals(room.getStatus());
+    }
+}
@@ -0,0 +1,154 @@
+package com.hotelapp.services;
+
+import com.hotelapp.dao.ReservationDAO;
+import com.hotelapp.dao.RoomDAO;
+import com.hotelapp.models.Reservation;
+import com.hotelapp.utils.DBUtil;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * One write transaction as seen by the services: the writer connection, an
+ * identity map of the reservations read in it, and the changes to write.
+ *
+ * Reservations are read once per transaction on the transaction's own
+ * connection (getReservation); callers change them with the normal setters.
+ * flush() compares every loaded reservation with the state it was read in
+ * and writes the changed ones, plus the queued room statuses, as one batch
+ * per table. run() then hands the status and date changes to
+ * ReservationEvents and the changed rooms to RoomCatalog, which publish them
+ * when the transaction commits (in commit order, on the writer thread).
+ */
+public class UnitOfWork {
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute(UnitOfWork uow) throws Exception;
+    }
+
+    /**
+     * Run work inside one write transaction on the writer thread, flush it,
+     * queue the changes for publishing at commit and wait for the commit.
+     */
+    public static <T> T run(Work<T> work) throws Exception {
+        return DBUtil.write(conn -> {
+            UnitOfWork uow = new UnitOfWork(conn);
+            T value = work.execute(uow);
+            uow.flush();
+            uow.publish();
+            return value;
+        });
+    }
+
+    // state of a reservation as read, to find what changed
+    private static final class Original {
+        final String status;
+        final LocalDate checkin;
+        final LocalDate checkout;
+        final double total;
+
+        Original(Reservation r) {
+            this.status = r.getStatus();
+            this.checkin = r.getCheckin();
+            this.checkout = r.getCheckout();
+            this.total = r.getTotal();
+        }
+    }
+
+    private final ReservationDAO reservationDAO = new ReservationDAO();
+    private final RoomDAO roomDAO = new RoomDAO();
+    private final Connection conn;
+
+    private final Map<Integer, Reservation> reservations = new LinkedHashMap<>();
+    private final Map<Integer, Original> originals = new LinkedHashMap<>();
+    private final Map<Integer, String> roomStatuses = new LinkedHashMap<>();
+    private final List<Reservation> flushed = new ArrayList<>();
+    private final List<Original> flushedOriginals = new ArrayList<>();
+    private final Set<Integer> flushedRooms = new LinkedHashSet<>();
+
+    UnitOfWork(Connection conn) {
+        this.conn = conn;
+    }
+
+    /**
+     * The transaction's connection, for DAO calls the unit of work does not cover.
+     */
+    public Connection getConnection() {
+        return conn;
+    }
+
+    /**
+     * The reservation (columns of its own row only), read at most once per
+     * transaction; every call returns the same instance. Null if not found.
+     */
+    public Reservation getReservation(int id) throws SQLException {
+        Reservation r = reservations.get(id);
+        if (r == null) {
+            r = reservationDAO.findRowById(id, conn);
+            if (r != null) {
+                reservations.put(id, r);
+                originals.put(id, new Original(r));
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Queue a room status update (the last one per room wins).
+     */
+    public void setRoomStatus(int roomId, String status) {
+        roomStatuses.put(roomId, status);
+    }
+
+    /**
+     * Write changed reservations and queued room statuses; run() calls this
+     * before committing.
+     */
+    public void flush() throws SQLException {
+        List<Reservation> dirty = new ArrayList<>();
+        for (Reservation r : reservations.values()) {
+            Original o = originals.get(r.getId());
+            if (isChanged(r, o)) {
+                dirty.add(r);
+                flushed.add(r);
+                flushedOriginals.add(o);
+                originals.put(r.getId(), new Original(r));
+            }
+        }
+        reservationDAO.updateReservations(dirty, conn);
+        roomDAO.updateStatuses(roomStatuses, conn);
+        flushedRooms.addAll(roomStatuses.keySet());
+        roomStatuses.clear();
+    }
+
+    private static boolean isChanged(Reservation r, Original o) {
+        return !Objects.equals(r.getStatus(), o.status)
+                || !Objects.equals(r.getCheckin(), o.checkin)
+                || !Objects.equals(r.getCheckout(), o.checkout)
+                || Double.compare(r.getTotal(), o.total) != 0;
+    }
+
+    // inside the transaction, after flush(); delivered on commit
+    private void publish() throws SQLException {
+        for (int i = 0; i < flushed.size(); i++) {
+            Reservation r = flushed.get(i);
+            Original o = flushedOriginals.get(i);
+            if (!Objects.equals(r.getCheckin(), o.checkin) || !Objects.equals(r.getCheckout(), o.checkout)) {
+                ReservationEvents.fireDatesChanged(r.getId(), r.getCheckin(), r.getCheckout());
+            }
+            if (!Objects.equals(r.getStatus(), o.status)) {
+                ReservationEvents.fireStatusChanged(r.getId(), r.getStatus());
+            }
+        }
+        RoomCatalog.getInstance().roomsWritten(flushedRooms, conn);
+    }
+}
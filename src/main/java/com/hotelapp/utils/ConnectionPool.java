@@ -0,0 +1,317 @@
+package com.hotelapp.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of long-lived SQLite connections.
+ *
+ * Every physical connection is opened once and configured with the PRAGMAs
+ * below (WAL, busy timeout, page cache, mmap). Callers receive a proxy whose
+ * close() hands the connection back to the pool instead of closing the file,
+ * so existing try-with-resources code keeps working unchanged:
+ *
+ * try (Connection c = DBUtil.getConnection()) { ... }
+ *
+ * Each physical connection also owns a {@link StatementCache}, so
+ * prepareStatement(sql) with the same SQL text reuses the compiled statement.
+ */
+public class ConnectionPool {
+
+    /** PRAGMAs applied once to every new physical connection. */
+    private static final String[] CONNECTION_PRAGMAS = {
+            "PRAGMA journal_mode = WAL",
+            "PRAGMA busy_timeout = 5000",
+            "PRAGMA synchronous = NORMAL",
+            "PRAGMA foreign_keys = ON",
+            "PRAGMA cache_size = -16000",      // ~16 MB page cache per connection
+            "PRAGMA mmap_size = 67108864",     // 64 MB memory-mapped I/O
+            "PRAGMA temp_store = MEMORY"
+    };
+
+    private final String jdbcUrl;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final int statementCacheSize;
+
+    // LIFO so the most recently used (warmest) connection is handed out first
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final LongAdder statementEvictions = new LongAdder();
+    private volatile boolean closed;
+
+    public ConnectionPool(String jdbcUrl, int maxSize, long borrowTimeoutMillis) {
+        this(jdbcUrl, maxSize, borrowTimeoutMillis, 64);
+    }
+
+    public ConnectionPool(String jdbcUrl, int maxSize, long borrowTimeoutMillis, int statementCacheSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.jdbcUrl = jdbcUrl;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Borrow a connection, waiting up to the configured timeout if all are in use.
+     * The returned connection must be closed to give it back to the pool.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a database connection (pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        PooledConnection pooled = null;
+        try {
+            pooled = idle.pollFirst();
+            if (pooled == null || pooled.physical.isClosed()) {
+                if (pooled != null) pooled.discard();
+                pooled = new PooledConnection(open());
+            }
+        } catch (SQLException e) {
+            if (pooled != null) pooled.discard();
+            permits.release();
+            throw e;
+        }
+        active.incrementAndGet();
+        borrows.increment();
+        return wrap(pooled);
+    }
+
+    /**
+     * Open and configure a new physical connection.
+     */
+    private Connection open() throws SQLException {
+        Connection c = DriverManager.getConnection(jdbcUrl);
+        try (Statement st = c.createStatement()) {
+            for (String pragma : CONNECTION_PRAGMAS) {
+                st.execute(pragma);
+            }
+        } catch (SQLException e) {
+            closeQuietly(c);
+            throw e;
+        }
+        created.incrementAndGet();
+        return c;
+    }
+
+    private void release(PooledConnection pooled) {
+        Connection physical = pooled.physical;
+        boolean reusable = !closed;
+        try {
+            // never hand out a connection with a half-finished transaction
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.out.println("Warning: discarding pooled connection: " + e.getMessage());
+            reusable = false;
+        }
+        active.decrementAndGet();
+        if (reusable) {
+            idle.offerFirst(pooled);
+        } else {
+            pooled.discard();
+        }
+        permits.release();
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private Connection wrap(PooledConnection pooled) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(pooled));
+    }
+
+    /**
+     * Close all idle connections. Connections still borrowed are closed when returned.
+     */
+    public void close() {
+        closed = true;
+        PooledConnection c;
+        while ((c = idle.pollFirst()) != null) {
+            c.discard();
+        }
+    }
+
+    public Stats getStats() {
+        long count = borrows.sum();
+        long wait = totalWaitNanos.sum();
+        return new Stats(maxSize, created.get(), active.get(), idle.size(), count,
+                count == 0 ? 0 : wait / count, maxWaitNanos.get(),
+                statementHits.sum(), statementMisses.sum(), statementEvictions.sum());
+    }
+
+    private static void closeQuietly(Connection c) {
+        if (c == null) return;
+        try {
+            c.close();
+        } catch (SQLException ignored) {
+            // nothing useful to do while discarding
+        }
+    }
+
+    /**
+     * A physical connection together with its statement cache.
+     */
+    private class PooledConnection {
+        final Connection physical;
+        final StatementCache statements;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = new StatementCache(physical, statementCacheSize,
+                    statementHits, statementMisses, statementEvictions);
+        }
+
+        void discard() {
+            statements.clear();
+            closeQuietly(physical);
+        }
+    }
+
+    /**
+     * Proxy handler: close() returns the connection to the pool exactly once,
+     * prepareStatement(sql) goes through the statement cache, and everything
+     * else is delegated to the physical connection.
+     */
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final Connection physical;
+        private boolean returned;
+
+        PooledConnectionHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+            this.physical = pooled.physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if ("prepareStatement".equals(method.getName()) && args != null
+                    && (args.length == 1 || (args.length == 2 && args[1] instanceof Integer))) {
+                int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                return pooled.statements.borrow((Connection) proxy, (String) args[0], autoGeneratedKeys);
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Point-in-time pool metrics.
+     */
+    public static class Stats {
+        private final int maxSize;
+        private final int created;
+        private final int active;
+        private final int idle;
+        private final long borrows;
+        private final long avgWaitNanos;
+        private final long maxWaitNanos;
+        private final long statementHits;
+        private final long statementMisses;
+        private final long statementEvictions;
+
+        Stats(int maxSize, int created, int active, int idle, long borrows, long avgWaitNanos, long maxWaitNanos,
+              long statementHits, long statementMisses, long statementEvictions) {
+            this.maxSize = maxSize;
+            this.created = created;
+            this.active = active;
+            this.idle = idle;
+            this.borrows = borrows;
+            this.avgWaitNanos = avgWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.statementHits = statementHits;
+            this.statementMisses = statementMisses;
+            this.statementEvictions = statementEvictions;
+        }
+
+        public int getMaxSize() { return maxSize; }
+        public int getCreated() { return created; }
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public long getBorrows() { return borrows; }
+        public long getAvgWaitNanos() { return avgWaitNanos; }
+        public long getMaxWaitNanos() { return maxWaitNanos; }
+        public long getStatementHits() { return statementHits; }
+        public long getStatementMisses() { return statementMisses; }
+        public long getStatementEvictions() { return statementEvictions; }
+
+        public double getStatementHitRatio() {
+            long total = statementHits + statementMisses;
+            return total == 0 ? 0 : (double) statementHits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("pool[max=%d, created=%d, active=%d, idle=%d, borrows=%d, avgWait=%.1f us, maxWait=%.1f us]"
+                            + " statements[hits=%d, misses=%d, evictions=%d, hitRatio=%.1f%%]",
+                    maxSize, created, active, idle, borrows, avgWaitNanos / 1000.0, maxWaitNanos / 1000.0,
+                    statementHits, statementMisses, statementEvictions, getStatementHitRatio() * 100);
+        }
+    }
+}
@@ -1,17 +1,159 @@
 package com.hotelapp.utils;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Simple helper to obtain JDBC connections to the local SQLite DB.
- * Use try-with-resources where possible:
+ * Connections come from a shared {@link ConnectionPool}; closing them
+ * returns them to the pool. Use try-with-resources where possible:
  *
  * try (Connection c = DBUtil.getConnection()) { ... }
+ *
+ * Pool size can be overridden with -Dhotel.db.poolSize=N and the per-connection
+ * prepared statement cache with -Dhotel.db.statementCacheSize=N.
+ *
+ * Mutations should go through {@link #write(WriteQueue.Command)} so they are
+ * serialized on the single writer thread and group-committed:
+ *
+ * int id = DBUtil.write(conn -> dao.insert(..., conn));
  */
 public class DBUtil {
+    private static final int DEFAULT_POOL_SIZE = 4;
+    private static final long BORROW_TIMEOUT_MS = 10_000;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+    private static final long DEFAULT_GROUP_COMMIT_MICROS = 1000;
+
+    private static volatile ConnectionPool pool;
+    private static volatile WriteQueue writeQueue;
+
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DBInit.getJdbcUrl());
+        return getPool().borrow();
+    }
+
+    public static ConnectionPool getPool() {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (DBUtil.class) {
+                p = pool;
+                if (p == null) {
+                    int size = Integer.getInteger("hotel.db.poolSize", DEFAULT_POOL_SIZE);
+                    int statements = Integer.getInteger("hotel.db.statementCacheSize", DEFAULT_STATEMENT_CACHE_SIZE);
+                    p = new ConnectionPool(DBInit.getJdbcUrl(), size, BORROW_TIMEOUT_MS, statements);
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    public static WriteQueue getWriteQueue() {
+        WriteQueue q = writeQueue;
+        if (q == null) {
+            synchronized (DBUtil.class) {
+                q = writeQueue;
+                if (q == null) {
+                    long window = Long.getLong("hotel.db.groupCommitMicros", DEFAULT_GROUP_COMMIT_MICROS);
+                    q = new WriteQueue(window);
+                    writeQueue = q;
+                }
+            }
+        }
+        return q;
+    }
+
+    /**
+     * Queue a mutation on the writer thread without waiting for it.
+     */
+    public static <T> CompletableFuture<T> submitWrite(WriteQueue.Command<T, ?> command) {
+        return getWriteQueue().submit(command);
+    }
+
+    /**
+     * Run a mutation on the writer thread and wait until its batch has committed.
+     * Exceptions thrown by the command are rethrown unchanged to the caller.
+     */
+    public static <T, E extends Exception> T write(WriteQueue.Command<T, E> command) throws E, SQLException {
+        try {
+            return submitWrite(command).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for database write", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            // only checked exception left is the command's own E
+            @SuppressWarnings("unchecked")
+            E commandFailure = (E) cause;
+            throw commandFailure;
+        }
+    }
+
+    /**
+     * Run the hook after the write transaction the calling command is part of
+     * has ended (immediately if not called from a write command).
+     */
+    public static void afterCommit(Runnable hook) {
+        WriteQueue q = writeQueue;
+        if (q != null) {
+            q.afterCommit(hook);
+        } else {
+            hook.run();     // no writer yet, so this cannot be a write command
+        }
+    }
+
+    /**
+     * Run the hook once the calling write command has committed; dropped if
+     * it was rolled back (immediately if not called from a write command).
+     */
+    public static void onCommit(Runnable hook) {
+        WriteQueue q = writeQueue;
+        if (q != null) {
+            q.onCommit(hook);
+        } else {
+            hook.run();
+        }
+    }
+
+    /**
+     * True if the statement failed because another connection (typically
+     * another process on the same file) held the lock past busy_timeout,
+     * i.e. retrying later may succeed.
+     */
+    public static boolean isBusy(SQLException e) {
+        int code = e.getErrorCode() & 0xff;     // primary result code
+        if (code == 5 || code == 6) return true;    // SQLITE_BUSY, SQLITE_LOCKED
+        String msg = e.getMessage();
+        return msg != null && (msg.contains("SQLITE_BUSY") || msg.contains("database is locked"));
+    }
+
+    /**
+     * Counter that changes after every committed write; compare it to decide
+     * whether cached query results are still current.
+     */
+    public static long getDataVersion() {
+        return getWriteQueue().getDataVersion();
+    }
+
+    public static ConnectionPool.Stats getPoolStats() {
+        return getPool().getStats();
+    }
+
+    /**
+     * Drain pending writes and close pooled connections (called on application exit).
+     */
+    public static synchronized void shutdown() {
+        if (writeQueue != null) {
+            writeQueue.shutdown();
+            writeQueue = null;
+        }
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
     }
 }
@@ -0,0 +1,283 @@
+package com.hotelapp.utils;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded read-through cache of entities by id, put in front of a DAO's findById.
+ *
+ * Eviction is segmented LRU: a new entry starts in a small probation segment
+ * and is promoted to the protected segment (80% of the capacity) on its
+ * second hit. The guests and stays that are looked up again and again (in
+ * house, arriving today) therefore stay cached, while a one-off scan of old
+ * records only churns the probation segment. Entries are spread over shards
+ * by key, each with its own lock, so lookups of different ids rarely contend.
+ *
+ * Entities are mutable, so the cache keeps the loaded instance to itself and
+ * hands out copies. The DAO calls invalidate() in every mutation: the entry
+ * is dropped at once and again when the write transaction ends, and a load
+ * that was already running when the entry was invalidated is not cached. An
+ * optional time to live bounds staleness from writes the cache cannot see
+ * (other processes).
+ */
+public class EntityCache<K, V> {
+
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+
+    private static final int SHARDS = 8;
+    private static final long DEFAULT_TTL_SECONDS = 120;
+
+    /**
+     * Time to live for the DAO caches: -Dhotel.cache.ttlSeconds=N, 0 = none.
+     */
+    public static long configuredTtlSeconds() {
+        return Long.getLong("hotel.cache.ttlSeconds", DEFAULT_TTL_SECONDS);
+    }
+
+    private final String name;
+    private final int capacity;
+    private final long ttlNanos;
+    private final UnaryOperator<V> copier;
+    private final List<Shard> shards;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param capacity   maximum number of entries
+     * @param ttlSeconds drop entries this long after they were loaded; 0 = never
+     * @param copier     makes an independent copy of an entity
+     */
+    public EntityCache(String name, int capacity, long ttlSeconds, UnaryOperator<V> copier) {
+        if (capacity < SHARDS) {
+            throw new IllegalArgumentException("Cache capacity must be at least " + SHARDS);
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.copier = copier;
+        List<Shard> list = new ArrayList<>(SHARDS);
+        for (int i = 0; i < SHARDS; i++) {
+            list.add(new Shard(capacity / SHARDS + (i < capacity % SHARDS ? 1 : 0)));
+        }
+        this.shards = List.copyOf(list);
+    }
+
+    /**
+     * The cached entity, or the loader's result (cached unless null or
+     * invalidated meanwhile). Returns a copy the caller may change.
+     */
+    public V get(K key, Loader<K, V> loader) throws SQLException {
+        Shard shard = shardFor(key);
+        long generation;
+        synchronized (shard) {
+            V cached = shard.lookup(key);
+            if (cached != null) {
+                hits.increment();
+                return copier.apply(cached);
+            }
+            generation = shard.generation;
+        }
+        misses.increment();
+
+        V loaded = loader.load(key);
+        if (loaded == null) return null;
+        synchronized (shard) {
+            if (shard.generation == generation) {
+                shard.admit(key, loaded);
+            }
+        }
+        return copier.apply(loaded);
+    }
+
+    /**
+     * Drop the entry now and again when the current write transaction ends
+     * (see DBUtil.afterCommit), so a read between the two cannot re-cache
+     * the old row.
+     */
+    public void invalidate(K key) {
+        drop(key);
+        DBUtil.afterCommit(() -> drop(key));
+    }
+
+    /**
+     * Drop every entry, e.g. after a change to data joined into all of them.
+     */
+    public void invalidateAll() {
+        clear();
+        DBUtil.afterCommit(this::clear);
+    }
+
+    private void drop(K key) {
+        Shard shard = shardFor(key);
+        synchronized (shard) {
+            shard.generation++;
+            if (shard.remove(key)) invalidations.increment();
+        }
+    }
+
+    private void clear() {
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.generation++;
+                invalidations.add(shard.probation.size() + shard.protectedSegment.size());
+                shard.probation.clear();
+                shard.protectedSegment.clear();
+            }
+        }
+    }
+
+    private Shard shardFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return shards.get(h & (SHARDS - 1));
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long loadedAt;
+
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    // one lock's worth of the cache; all methods are called holding the shard's monitor
+    private final class Shard {
+        final int protectedCapacity;
+        final int probationCapacity;
+        // access order: iteration starts at the least recently used entry
+        final LinkedHashMap<K, Entry<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+        final LinkedHashMap<K, Entry<V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+        long generation;
+
+        Shard(int capacity) {
+            this.protectedCapacity = capacity * 4 / 5;
+            this.probationCapacity = capacity - protectedCapacity;
+        }
+
+        V lookup(K key) {
+            Entry<V> e = protectedSegment.get(key);
+            if (e != null) {
+                if (!expired(e)) return e.value;
+                protectedSegment.remove(key);
+                expirations.increment();
+                return null;
+            }
+            e = probation.remove(key);
+            if (e == null) return null;
+            if (expired(e)) {
+                expirations.increment();
+                return null;
+            }
+            // second hit: promote, demoting the protected LRU entry if full
+            protectedSegment.put(key, e);
+            if (protectedSegment.size() > protectedCapacity) {
+                Iterator<Map.Entry<K, Entry<V>>> it = protectedSegment.entrySet().iterator();
+                Map.Entry<K, Entry<V>> lru = it.next();
+                it.remove();
+                putProbation(lru.getKey(), lru.getValue());
+            }
+            return e.value;
+        }
+
+        void admit(K key, V value) {
+            Entry<V> e = new Entry<>(value, System.nanoTime());
+            if (protectedSegment.containsKey(key)) {
+                protectedSegment.put(key, e);
+            } else {
+                putProbation(key, e);
+            }
+        }
+
+        void putProbation(K key, Entry<V> e) {
+            probation.put(key, e);
+            if (probation.size() > probationCapacity) {
+                Iterator<K> it = probation.keySet().iterator();
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        }
+
+        boolean remove(K key) {
+            return protectedSegment.remove(key) != null | probation.remove(key) != null;
+        }
+
+        boolean expired(Entry<V> e) {
+            return ttlNanos > 0 && System.nanoTime() - e.loadedAt > ttlNanos;
+        }
+    }
+
+    public Stats getStats() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.probation.size() + shard.protectedSegment.size();
+            }
+        }
+        return new Stats(name, capacity, size, hits.sum(), misses.sum(), evictions.sum(),
+                expirations.sum(), invalidations.sum());
+    }
+
+    /**
+     * Point-in-time counters of one cache.
+     */
+    public static class Stats {
+        private final String name;
+        private final int capacity;
+        private final int size;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final long invalidations;
+
+        Stats(String name, int capacity, int size, long hits, long misses, long evictions,
+              long expirations, long invalidations) {
+            this.name = name;
+            this.capacity = capacity;
+            this.size = size;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.invalidations = invalidations;
+        }
+
+        public String getName() { return name; }
+        public int getCapacity() { return capacity; }
+        public int getSize() { return size; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getExpirations() { return expirations; }
+        public long getInvalidations() { return invalidations; }
+
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s cache: %d/%d entries, hit ratio %.1f%% (%d hits, %d misses), "
+                            + "%d evicted, %d expired, %d invalidated",
+                    name, size, capacity, getHitRatio() * 100, hits, misses, evictions, expirations, invalidations);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.hotelapp.utils;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs stalls of the JavaFX Application Thread.
+ *
+ * A daemon thread posts a ping with Platform.runLater every
+ * {@value #PING_INTERVAL_MS} ms. If a ping has not run after
+ * -Dhotel.fx.stallThresholdMs (default 250), the FX thread's stack is printed
+ * once, showing what is blocking it; when the ping finally runs, the total
+ * stall time is logged.
+ */
+public class FxStallWatchdog {
+    private static final long PING_INTERVAL_MS = 50;
+    private static final long DEFAULT_THRESHOLD_MS = 250;
+
+    private static final FxStallWatchdog INSTANCE = new FxStallWatchdog();
+
+    public static FxStallWatchdog getInstance() {
+        return INSTANCE;
+    }
+
+    private ScheduledExecutorService scheduler;     // guarded by this
+    private long thresholdNanos;
+
+    // state of the outstanding ping; only touched by the watchdog thread and the ping itself
+    private volatile long pingSentAt;
+    private volatile boolean pingPending;
+    private volatile boolean stallReported;
+    private volatile Thread fxThread;
+
+    private volatile long stallCount;
+    private volatile long longestStallMillis;
+
+    private FxStallWatchdog() {}
+
+    /**
+     * Start watching (no-op if already running). Call after the toolkit has started.
+     */
+    public synchronized void start() {
+        if (scheduler != null) return;
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("hotel.fx.stallThresholdMs", DEFAULT_THRESHOLD_MS));
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fx-stall-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(this::check, PING_INTERVAL_MS, PING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void check() {
+        long now = System.nanoTime();
+        if (!pingPending) {
+            pingSentAt = now;
+            pingPending = true;
+            stallReported = false;
+            Platform.runLater(this::ping);
+            return;
+        }
+        long waited = now - pingSentAt;
+        if (waited > thresholdNanos && !stallReported) {
+            stallReported = true;
+            System.err.println("FX thread stalled for more than " + TimeUnit.NANOSECONDS.toMillis(waited) + " ms; it is at:");
+            Thread t = fxThread;
+            if (t != null) {
+                for (StackTraceElement frame : t.getStackTrace()) {
+                    System.err.println("\tat " + frame);
+                }
+            }
+        }
+    }
+
+    // runs on the FX thread
+    private void ping() {
+        fxThread = Thread.currentThread();
+        long stalled = System.nanoTime() - pingSentAt;
+        if (stalled > thresholdNanos) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(stalled);
+            synchronized (this) {
+                stallCount++;
+                longestStallMillis = Math.max(longestStallMillis, millis);
+            }
+            System.err.println("FX thread stall ended after " + millis + " ms");
+        }
+        pingPending = false;
+    }
+
+    public long getStallCount() { return stallCount; }
+    public long getLongestStallMillis() { return longestStallMillis; }
+}
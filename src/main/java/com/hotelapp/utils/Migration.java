@@ -0,0 +1,80 @@
+package com.hotelapp.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * One versioned schema change. Applied exactly once, inside a transaction,
+ * by {@link SchemaMigrator}. The checksum is recorded in schema_migrations so
+ * an edited migration that was already applied can be detected.
+ */
+public class Migration {
+
+    /**
+     * Migration body for changes that cannot be expressed as plain SQL
+     * (e.g. conditional ALTER TABLE or data rewritten in Java).
+     */
+    @FunctionalInterface
+    public interface Body {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private final int version;
+    private final String description;
+    private final String checksum;
+    private final Body body;
+
+    private Migration(int version, String description, String checksumSource, Body body) {
+        this.version = version;
+        this.description = description;
+        this.checksum = sha256(checksumSource);
+        this.body = body;
+    }
+
+    /**
+     * Migration made of plain SQL statements executed in order.
+     */
+    public static Migration sql(int version, String description, String... statements) {
+        String source = String.join(";\n", statements);
+        return new Migration(version, description, source, conn -> {
+            try (Statement st = conn.createStatement()) {
+                for (String s : statements) {
+                    st.execute(s);
+                }
+            }
+        });
+    }
+
+    /**
+     * Migration implemented in Java. {@code checksumSource} should describe
+     * what the body does; change it whenever the body changes.
+     */
+    public static Migration code(int version, String description, String checksumSource, Body body) {
+        return new Migration(version, description, checksumSource, body);
+    }
+
+    public int getVersion() { return version; }
+    public String getDescription() { return description; }
+    public String getChecksum() { return checksum; }
+
+    void apply(Connection conn) throws SQLException {
+        body.apply(conn);
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
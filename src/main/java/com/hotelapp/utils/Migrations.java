@@ -0,0 +1,222 @@
+package com.hotelapp.utils;
+
+import com.hotelapp.dao.CustomerIdentityIndex;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ordered list of schema migrations. Append new steps at the end with the
+ * next version number; never edit a step that has already shipped.
+ *
+ * database/schema.sql documents the resulting schema for reference.
+ */
+public final class Migrations {
+
+    private Migrations() {}
+
+    public static final List<Migration> ALL = List.of(
+            Migration.sql(1, "Baseline schema",
+                    "CREATE TABLE IF NOT EXISTS rooms (" +
+                            "  id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                            "  room_number TEXT UNIQUE NOT NULL," +
+                            "  type TEXT NOT NULL," +
+                            "  price REAL NOT NULL," +
+                            "  status TEXT NOT NULL DEFAULT 'FREE'," +
+                            "  created_at TEXT DEFAULT CURRENT_TIMESTAMP)",
+                    "CREATE INDEX IF NOT EXISTS idx_rooms_type ON rooms(type)",
+                    "CREATE TABLE IF NOT EXISTS customers (" +
+                            "  id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                            "  name TEXT NOT NULL," +
+                            "  phone TEXT," +
+                            "  email TEXT," +
+                            "  address TEXT," +
+                            "  nid_passport TEXT," +
+                            "  created_at TEXT DEFAULT CURRENT_TIMESTAMP)",
+                    "CREATE TABLE IF NOT EXISTS reservations (" +
+                            "  id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                            "  customer_id INTEGER NOT NULL," +
+                            "  room_id INTEGER NOT NULL," +
+                            "  checkin TEXT NOT NULL," +
+                            "  checkout TEXT NOT NULL," +
+                            "  status TEXT NOT NULL," +
+                            "  total REAL NOT NULL," +
+                            "  created_at TEXT DEFAULT CURRENT_TIMESTAMP," +
+                            "  FOREIGN KEY(customer_id) REFERENCES customers(id) ON DELETE CASCADE," +
+                            "  FOREIGN KEY(room_id) REFERENCES rooms(id) ON DELETE CASCADE)",
+                    "CREATE INDEX IF NOT EXISTS idx_res_room ON reservations(room_id)",
+                    "CREATE INDEX IF NOT EXISTS idx_res_checkin ON reservations(checkin)",
+                    "CREATE TABLE IF NOT EXISTS users (" +
+                            "  id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                            "  username TEXT UNIQUE NOT NULL," +
+                            "  password TEXT NOT NULL," +
+                            "  role TEXT DEFAULT 'STAFF'," +
+                            "  created_at TEXT DEFAULT CURRENT_TIMESTAMP)",
+                    // default admin (username=admin, password=admin)
+                    "INSERT OR IGNORE INTO users (username, password, role) VALUES ('admin', 'admin', 'ADMIN')",
+                    // sample rooms, only into an empty rooms table
+                    "INSERT INTO rooms (room_number, type, price, status) " +
+                            "SELECT '101', 'Single', 25.0, 'FREE' WHERE NOT EXISTS (SELECT 1 FROM rooms) " +
+                            "UNION ALL SELECT '102', 'Double', 40.0, 'FREE' WHERE NOT EXISTS (SELECT 1 FROM rooms) " +
+                            "UNION ALL SELECT '201', 'Deluxe', 75.0, 'FREE' WHERE NOT EXISTS (SELECT 1 FROM rooms) " +
+                            "UNION ALL SELECT '301', 'Suite', 120.0, 'MAINTENANCE' WHERE NOT EXISTS (SELECT 1 FROM rooms)"),
+
+            // databases created before these columns existed
+            Migration.code(2, "Add customers.address and customers.nid_passport",
+                    "ensure column customers.address TEXT; ensure column customers.nid_passport TEXT",
+                    conn -> {
+                        addColumnIfMissing(conn, "customers", "address", "TEXT");
+                        addColumnIfMissing(conn, "customers", "nid_passport", "TEXT");
+                    }),
+
+            // ISO TEXT dates -> INTEGER days since 1970-01-01 (LocalDate.toEpochDay()),
+            // plus a composite index that covers the per-room overlap check
+            Migration.sql(3, "Store reservation dates as epoch days; availability index",
+                    "CREATE TABLE reservations_new (" +
+                            "  id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                            "  customer_id INTEGER NOT NULL," +
+                            "  room_id INTEGER NOT NULL," +
+                            "  checkin INTEGER NOT NULL," +
+                            "  checkout INTEGER NOT NULL," +
+                            "  status TEXT NOT NULL," +
+                            "  total REAL NOT NULL," +
+                            "  created_at TEXT DEFAULT CURRENT_TIMESTAMP," +
+                            "  FOREIGN KEY(customer_id) REFERENCES customers(id) ON DELETE CASCADE," +
+                            "  FOREIGN KEY(room_id) REFERENCES rooms(id) ON DELETE CASCADE)",
+                    "INSERT INTO reservations_new (id, customer_id, room_id, checkin, checkout, status, total, created_at) " +
+                            "SELECT id, customer_id, room_id, " +
+                            "CAST(julianday(checkin) - 2440587.5 AS INTEGER), " +
+                            "CAST(julianday(checkout) - 2440587.5 AS INTEGER), " +
+                            "status, total, created_at FROM reservations",
+                    "DROP TABLE reservations",
+                    "ALTER TABLE reservations_new RENAME TO reservations",
+                    "CREATE INDEX idx_res_availability ON reservations(room_id, status, checkin, checkout)",
+                    "CREATE INDEX idx_res_checkin ON reservations(checkin)",
+                    "CREATE INDEX idx_res_checkout ON reservations(checkout)",
+                    "CREATE INDEX idx_res_customer ON reservations(customer_id)"),
+
+            // per-customer aggregates for the Guests screen, kept current by triggers;
+            // each trigger recomputes one customer's row from idx_res_customer
+            Migration.sql(4, "customer_stats table maintained by triggers",
+                    "CREATE TABLE customer_stats (" +
+                            "  customer_id INTEGER PRIMARY KEY," +
+                            "  reservation_count INTEGER NOT NULL," +
+                            "  lifetime_spend REAL NOT NULL," +
+                            "  last_stay INTEGER," +           // latest non-cancelled checkin, epoch day
+                            "  active_stays INTEGER NOT NULL)",  // CONFIRMED + CHECKED_IN
+                    "INSERT INTO customer_stats " + customerStatsSelect("1 = 1"),
+                    "CREATE TRIGGER trg_customer_stats_insert AFTER INSERT ON reservations BEGIN " +
+                            refreshCustomerStats("NEW.customer_id") + " END",
+                    "CREATE TRIGGER trg_customer_stats_update " +
+                            "AFTER UPDATE OF customer_id, status, total, checkin ON reservations BEGIN " +
+                            refreshCustomerStats("NEW.customer_id") + " END",
+                    "CREATE TRIGGER trg_customer_stats_move " +
+                            "AFTER UPDATE OF customer_id ON reservations WHEN OLD.customer_id <> NEW.customer_id BEGIN " +
+                            refreshCustomerStats("OLD.customer_id") + " END",
+                    "CREATE TRIGGER trg_customer_stats_delete AFTER DELETE ON reservations BEGIN " +
+                            refreshCustomerStats("OLD.customer_id") + " END",
+                    "CREATE TRIGGER trg_customer_stats_customer_delete AFTER DELETE ON customers BEGIN " +
+                            "DELETE FROM customer_stats WHERE customer_id = OLD.id; END"),
+
+            // full-text guest search (external-content FTS5 over customers, synced by triggers)
+            // plus plain indexes for exact phone / NID lookups
+            Migration.sql(5, "customers_fts search index; phone and NID indexes",
+                    "CREATE VIRTUAL TABLE customers_fts USING fts5(" +
+                            "name, phone, nid_passport, address, " +
+                            "content='customers', content_rowid='id', " +
+                            "tokenize='unicode61 remove_diacritics 2', prefix='2 3')",
+                    "INSERT INTO customers_fts(customers_fts) VALUES ('rebuild')",
+                    "CREATE TRIGGER trg_customers_fts_insert AFTER INSERT ON customers BEGIN " +
+                            "INSERT INTO customers_fts(rowid, name, phone, nid_passport, address) " +
+                            "VALUES (NEW.id, NEW.name, NEW.phone, NEW.nid_passport, NEW.address); END",
+                    "CREATE TRIGGER trg_customers_fts_delete AFTER DELETE ON customers BEGIN " +
+                            "INSERT INTO customers_fts(customers_fts, rowid, name, phone, nid_passport, address) " +
+                            "VALUES ('delete', OLD.id, OLD.name, OLD.phone, OLD.nid_passport, OLD.address); END",
+                    "CREATE TRIGGER trg_customers_fts_update AFTER UPDATE ON customers BEGIN " +
+                            "INSERT INTO customers_fts(customers_fts, rowid, name, phone, nid_passport, address) " +
+                            "VALUES ('delete', OLD.id, OLD.name, OLD.phone, OLD.nid_passport, OLD.address); " +
+                            "INSERT INTO customers_fts(rowid, name, phone, nid_passport, address) " +
+                            "VALUES (NEW.id, NEW.name, NEW.phone, NEW.nid_passport, NEW.address); END",
+                    "CREATE INDEX idx_customers_phone ON customers(phone)",
+                    "CREATE INDEX idx_customers_nid ON customers(nid_passport)"),
+
+            // normalized guest identity for findOrCreate (see CustomerIdentityIndex), unique
+            // per identity; of existing duplicates only the oldest row gets the keys
+            Migration.code(6, "customers.name_key / phone_norm with unique identity index",
+                    "add customers.name_key TEXT, customers.phone_norm TEXT; " +
+                            "backfill NFKC + case-folded + collapsed-space name, digits-only phone, " +
+                            "oldest row per identity only; unique index idx_customers_identity(name_key, phone_norm)",
+                    conn -> {
+                        addColumnIfMissing(conn, "customers", "name_key", "TEXT");
+                        addColumnIfMissing(conn, "customers", "phone_norm", "TEXT");
+                        Set<String> seen = new HashSet<>();
+                        try (Statement st = conn.createStatement();
+                             ResultSet rs = st.executeQuery("SELECT id, name, phone FROM customers ORDER BY id");
+                             PreparedStatement ps = conn.prepareStatement(
+                                     "UPDATE customers SET name_key = ?, phone_norm = ? WHERE id = ?")) {
+                            while (rs.next()) {
+                                String nameKey = CustomerIdentityIndex.nameKey(rs.getString("name"));
+                                String phoneNorm = CustomerIdentityIndex.phoneNorm(rs.getString("phone"));
+                                if (!seen.add(nameKey + '\u0000' + phoneNorm)) continue;
+                                ps.setString(1, nameKey);
+                                ps.setString(2, phoneNorm);
+                                ps.setInt(3, rs.getInt("id"));
+                                ps.addBatch();
+                            }
+                            ps.executeBatch();
+                        }
+                        try (Statement st = conn.createStatement()) {
+                            st.execute("CREATE UNIQUE INDEX idx_customers_identity ON customers(name_key, phone_norm)");
+                        }
+                    }),
+
+            // pricing rules for RateCalendar; dates are epoch days, NULL = open-ended
+            Migration.sql(7, "rate_rules table",
+                    "CREATE TABLE rate_rules (" +
+                            "  id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                            "  room_type TEXT," +                 // NULL = every type
+                            "  kind TEXT NOT NULL CHECK (kind IN ('WEEKEND', 'SEASON', 'OVERRIDE'))," +
+                            "  start_day INTEGER," +              // first night
+                            "  end_day INTEGER," +                // night after the last
+                            "  rate REAL NOT NULL," +             // multiplier, or nightly rate for OVERRIDE
+                            "  created_at TEXT DEFAULT CURRENT_TIMESTAMP)")
+    );
+
+    public static int latestVersion() {
+        return ALL.get(ALL.size() - 1).getVersion();
+    }
+
+    /**
+     * SELECT producing customer_stats rows from reservations for the customers matching {@code where}.
+     */
+    public static String customerStatsSelect(String where) {
+        return "SELECT customer_id, COUNT(*), " +
+                "COALESCE(SUM(CASE WHEN status <> 'CANCELLED' THEN total END), 0), " +
+                "MAX(CASE WHEN status <> 'CANCELLED' THEN checkin END), " +
+                "SUM(status IN ('CONFIRMED', 'CHECKED_IN')) " +
+                "FROM reservations WHERE " + where + " GROUP BY customer_id";
+    }
+
+    // trigger body: replace the customer's row, or drop it once they have no reservations left
+    private static String refreshCustomerStats(String customerId) {
+        return "DELETE FROM customer_stats WHERE customer_id = " + customerId + "; " +
+                "INSERT INTO customer_stats " + customerStatsSelect("customer_id = " + customerId) + ";";
+    }
+
+    static void addColumnIfMissing(Connection conn, String table, String column, String type) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            try (ResultSet rs = st.executeQuery("PRAGMA table_info(" + table + ")")) {
+                while (rs.next()) {
+                    if (column.equalsIgnoreCase(rs.getString("name"))) return;
+                }
+            }
+            st.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + type);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.hotelapp.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies {@link Migrations} keyed on PRAGMA user_version.
+ *
+ * If the database is already at the latest version, startup costs a single
+ * header read and no DDL is executed. Otherwise each pending migration runs
+ * once in its own BEGIN IMMEDIATE transaction together with its
+ * schema_migrations row and the user_version bump, so a failed step leaves
+ * the database at the previous version.
+ */
+public class SchemaMigrator {
+
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(List<Migration> migrations) {
+        this.migrations = migrations;
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).getVersion() <= migrations.get(i - 1).getVersion()) {
+                throw new IllegalArgumentException("Migrations must be in ascending version order");
+            }
+        }
+    }
+
+    /**
+     * Bring the database up to date. Returns the resulting schema version.
+     */
+    public int migrate(Connection conn) throws SQLException {
+        int latest = migrations.get(migrations.size() - 1).getVersion();
+        int current = readUserVersion(conn);
+        if (current == latest) {
+            return current;     // fast path: nothing to do
+        }
+        if (current > latest) {
+            System.out.println("Warning: database schema v" + current + " is newer than this application (v" + latest + ")");
+            return current;
+        }
+
+        ensureHistoryTable(conn);
+        verifyChecksums(conn, current);
+        for (Migration m : migrations) {
+            if (m.getVersion() <= current) continue;
+            apply(conn, m);
+            current = m.getVersion();
+            System.out.println("Migration: applied v" + m.getVersion() + " - " + m.getDescription());
+        }
+        return current;
+    }
+
+    private void apply(Connection conn, Migration m) throws SQLException {
+        try (Statement tx = conn.createStatement()) {
+            tx.execute("BEGIN IMMEDIATE");
+            try {
+                m.apply(conn);
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT OR REPLACE INTO schema_migrations(version, description, checksum) VALUES (?, ?, ?)")) {
+                    ps.setInt(1, m.getVersion());
+                    ps.setString(2, m.getDescription());
+                    ps.setString(3, m.getChecksum());
+                    ps.executeUpdate();
+                }
+                tx.execute("PRAGMA user_version = " + m.getVersion());
+                tx.execute("COMMIT");
+            } catch (SQLException e) {
+                try {
+                    tx.execute("ROLLBACK");
+                } catch (SQLException ignored) {
+                    // transaction may already be rolled back
+                }
+                throw new SQLException("Migration v" + m.getVersion() + " (" + m.getDescription() + ") failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Warn about applied migrations whose definition changed since they ran.
+     */
+    private void verifyChecksums(Connection conn, int appliedUpTo) throws SQLException {
+        Map<Integer, String> recorded = new HashMap<>();
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+            while (rs.next()) {
+                recorded.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        for (Migration m : migrations) {
+            if (m.getVersion() > appliedUpTo) break;
+            String checksum = recorded.get(m.getVersion());
+            if (checksum != null && !checksum.equals(m.getChecksum())) {
+                System.out.println("Warning: migration v" + m.getVersion() + " was modified after it was applied (checksum mismatch)");
+            }
+        }
+    }
+
+    private static void ensureHistoryTable(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS schema_migrations (" +
+                    "version INTEGER PRIMARY KEY, " +
+                    "description TEXT NOT NULL, " +
+                    "checksum TEXT NOT NULL, " +
+                    "applied_at TEXT DEFAULT CURRENT_TIMESTAMP)");
+        }
+    }
+
+    static int readUserVersion(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.hotelapp.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements for one physical connection, keyed by SQL text.
+ *
+ * prepareStatement() on a pooled connection borrows from here; close() on the
+ * returned statement clears its parameters and gives it back instead of
+ * finalizing it, so SQLite does not re-parse and re-plan constant DAO SQL.
+ * A pooled connection is only used by one thread at a time, so no locking is needed.
+ */
+class StatementCache {
+
+    private final Connection physical;
+    private final int capacity;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    private final LinkedHashMap<Key, PreparedStatement> statements;
+    private final Set<PreparedStatement> cached = Collections.newSetFromMap(new IdentityHashMap<>());   // values of statements
+    private final Set<PreparedStatement> inUse = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    StatementCache(Connection physical, int capacity, LongAdder hits, LongAdder misses, LongAdder evictions) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Borrow a statement for the given SQL. The caller's connection proxy is
+     * what getConnection() on the statement reports.
+     */
+    PreparedStatement borrow(Connection owner, String sql, int autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        PreparedStatement ps = statements.get(key);
+        if (ps != null && !inUse.contains(ps)) {
+            hits.increment();
+            inUse.add(ps);
+            return wrap(owner, key, ps);
+        }
+
+        misses.increment();
+        PreparedStatement fresh = physical.prepareStatement(sql, autoGeneratedKeys);
+        if (ps != null) {
+            // same SQL already borrowed on this connection (nested use): hand out an uncached one
+            return fresh;
+        }
+        statements.put(key, fresh);
+        cached.add(fresh);
+        inUse.add(fresh);
+        evictOverflow();
+        return wrap(owner, key, fresh);
+    }
+
+    private void giveBack(Key key, PreparedStatement ps) throws SQLException {
+        inUse.remove(ps);
+        if (!cached.contains(ps)) {
+            // evicted while it was borrowed
+            ps.close();
+            return;
+        }
+        try {
+            ps.clearParameters();
+            ps.clearBatch();
+        } catch (SQLException e) {
+            statements.remove(key);
+            cached.remove(ps);
+            ps.close();
+        }
+        evictOverflow();
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Key, PreparedStatement>> it = statements.entrySet().iterator();
+        while (statements.size() > capacity && it.hasNext()) {
+            PreparedStatement eldest = it.next().getValue();
+            if (inUse.contains(eldest)) continue;
+            it.remove();
+            cached.remove(eldest);
+            evictions.increment();
+            closeQuietly(eldest);
+        }
+    }
+
+    /**
+     * Close every cached statement (connection is being discarded).
+     */
+    void clear() {
+        for (PreparedStatement ps : statements.values()) {
+            closeQuietly(ps);
+        }
+        statements.clear();
+        cached.clear();
+        inUse.clear();
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private PreparedStatement wrap(Connection owner, Key key, PreparedStatement ps) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                StatementCache.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new CachedStatementHandler(owner, key, ps));
+    }
+
+    private static void closeQuietly(Statement st) {
+        try {
+            st.close();
+        } catch (SQLException ignored) {
+            // statement is being thrown away
+        }
+    }
+
+    private class CachedStatementHandler implements InvocationHandler {
+        private final Connection owner;
+        private final Key key;
+        private final PreparedStatement target;
+        private boolean returned;
+
+        CachedStatementHandler(Connection owner, Key key, PreparedStatement target) {
+            this.owner = owner;
+            this.key = key;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(key, target);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || target.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Statement has already been closed");
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class Key {
+        final String sql;
+        final int autoGeneratedKeys;
+
+        Key(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return autoGeneratedKeys == k.autoGeneratedKeys && sql.equals(k.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, autoGeneratedKeys);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.hotelapp.utils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single writer thread with group commit.
+ *
+ * SQLite only allows one writer at a time, so instead of every caller opening
+ * its own write transaction and fighting over the lock, mutations are queued
+ * here. The writer takes whatever commands arrive within a short window and
+ * runs them together inside one BEGIN IMMEDIATE ... COMMIT. Each command runs
+ * under its own SAVEPOINT, so a failing command is rolled back on its own and
+ * only its caller sees the error; the others still commit.
+ *
+ * Callers normally go through {@link DBUtil#write(Command)}.
+ */
+public class WriteQueue {
+
+    /**
+     * A unit of work executed on the writer's connection inside the group transaction.
+     * Must only write through the given connection.
+     */
+    @FunctionalInterface
+    public interface Command<T, E extends Exception> {
+        T execute(Connection conn) throws E;
+    }
+
+    private static final int MAX_BATCH = 64;
+
+    private final LinkedBlockingQueue<Pending<?>> queue = new LinkedBlockingQueue<>();
+    private final long batchWindowNanos;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong commands = new AtomicLong();
+    private final AtomicLong failedCommands = new AtomicLong();
+    // bumped after every commit that changed something; lets readers cache until the next write.
+    // Static so it keeps increasing if the queue is shut down and recreated.
+    private static final AtomicLong dataVersion = new AtomicLong();
+    // registered by commands of the running batch; writer thread only
+    private final List<Runnable> afterCommitHooks = new ArrayList<>();
+    private final List<Runnable> onCommitHooks = new ArrayList<>();
+
+    public WriteQueue(long batchWindowMicros) {
+        this.batchWindowNanos = TimeUnit.MICROSECONDS.toNanos(batchWindowMicros);
+        this.writer = new Thread(this::runLoop, "db-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue a command; the future completes after the batch containing it commits.
+     */
+    public <T> CompletableFuture<T> submit(Command<T, ?> command) {
+        if (Thread.currentThread() == writer) {
+            // the writer would wait on itself forever
+            throw new IllegalStateException("Nested write submitted from inside a write command");
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new SQLException("Write queue is shut down"));
+            return future;
+        }
+        Pending<T> pending = new Pending<>(command, future);
+        queue.add(pending);
+        // shut down meanwhile: the writer may have made its last pass over the queue already
+        if (!running && queue.remove(pending)) {
+            future.completeExceptionally(new SQLException("Write queue is shut down"));
+        }
+        return future;
+    }
+
+    /**
+     * Run the hook once the batch containing the calling command has ended,
+     * before any of its callers is released. Meant for invalidating caches, so
+     * hooks also run if the batch or the command was rolled back. Called from
+     * anywhere but a write command (no transaction of ours to wait for), the
+     * hook runs immediately.
+     */
+    public void afterCommit(Runnable hook) {
+        if (Thread.currentThread() == writer) {
+            afterCommitHooks.add(hook);
+        } else {
+            hook.run();
+        }
+    }
+
+    /**
+     * Like afterCommit, but the hook only runs if the calling command's
+     * changes were committed; for publishing state the command created.
+     */
+    public void onCommit(Runnable hook) {
+        if (Thread.currentThread() == writer) {
+            onCommitHooks.add(hook);
+        } else {
+            hook.run();
+        }
+    }
+
+    // invalidations first, so state published by a later command of the batch survives them
+    private void runHooks(boolean committed) {
+        runAll(afterCommitHooks);
+        afterCommitHooks.clear();
+        if (committed) {
+            runAll(onCommitHooks);
+        }
+        onCommitHooks.clear();
+    }
+
+    private static void runAll(List<Runnable> hooks) {
+        for (Runnable hook : hooks) {
+            try {
+                hook.run();
+            } catch (RuntimeException e) {
+                System.out.println("Warning: after-commit hook failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void runLoop() {
+        List<Pending<?>> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // group everything that arrives within the batch window
+                long deadline = System.nanoTime() + batchWindowNanos;
+                while (batch.size() < MAX_BATCH) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending<?> next;
+                    try {
+                        next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    } catch (InterruptedException e) {
+                        break;      // the commands taken so far must still run, or their callers wait forever
+                    }
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                executeBatch(batch);
+            } catch (InterruptedException e) {
+                // keep draining; the loop condition decides when to stop
+            } catch (Throwable t) {
+                runHooks(false);
+                for (Pending<?> p : batch) {
+                    p.future.completeExceptionally(t);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+        // submitted after the last check of the queue above
+        Pending<?> late;
+        while ((late = queue.poll()) != null) {
+            late.future.completeExceptionally(new SQLException("Write queue is shut down"));
+        }
+    }
+
+    private void executeBatch(List<Pending<?>> batch) {
+        Object[] results = new Object[batch.size()];
+        Throwable[] failures = new Throwable[batch.size()];
+
+        try (Connection conn = DBUtil.getConnection();
+             Statement tx = conn.createStatement()) {
+            tx.execute("BEGIN IMMEDIATE");
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    tx.execute("SAVEPOINT cmd");
+                    int hooksBefore = onCommitHooks.size();
+                    try {
+                        results[i] = batch.get(i).command.execute(conn);
+                        tx.execute("RELEASE cmd");
+                    } catch (Throwable t) {
+                        failures[i] = t;
+                        onCommitHooks.subList(hooksBefore, onCommitHooks.size()).clear();
+                        tx.execute("ROLLBACK TO cmd");
+                        tx.execute("RELEASE cmd");
+                    }
+                }
+                tx.execute("COMMIT");
+            } catch (SQLException e) {
+                try {
+                    tx.execute("ROLLBACK");
+                } catch (SQLException ignored) {
+                    // transaction may already be gone
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            // BEGIN/COMMIT failed: nothing in this batch was written
+            runHooks(false);
+            for (Pending<?> p : batch) {
+                p.future.completeExceptionally(e);
+            }
+            failedCommands.addAndGet(batch.size());
+            return;
+        }
+
+        runHooks(true);
+        batches.incrementAndGet();
+        commands.addAndGet(batch.size());
+        for (Throwable failure : failures) {
+            if (failure == null) {
+                dataVersion.incrementAndGet();     // before any future completes
+                break;
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (failures[i] != null) {
+                failedCommands.incrementAndGet();
+                batch.get(i).future.completeExceptionally(failures[i]);
+            } else {
+                batch.get(i).complete(results[i]);
+            }
+        }
+    }
+
+    /**
+     * Stop accepting commands, finish what is queued and stop the writer thread.
+     */
+    public void shutdown() {
+        running = false;
+        try {
+            writer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getBatchCount() { return batches.get(); }
+    public long getCommandCount() { return commands.get(); }
+    public long getFailedCommandCount() { return failedCommands.get(); }
+    public int getQueueDepth() { return queue.size(); }
+    public long getDataVersion() { return dataVersion.get(); }
+
+    private static final class Pending<T> {
+        final Command<T, ?> command;
+        final CompletableFuture<T> future;
+
+        Pending(Command<T, ?> command, CompletableFuture<T> future) {
+            this.command = command;
+            this.future = future;
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(Object result) {
+            future.complete((T) result);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.hotelapp;
+
+import com.hotelapp.dao.CustomerDAO;
+import com.hotelapp.dao.ReservationDAO;
+import com.hotelapp.dao.ReservationStore;
+import com.hotelapp.models.Customer;
+import com.hotelapp.models.Room;
+import com.hotelapp.services.RateCalendar;
+import com.hotelapp.services.RoomCatalog;
+import com.hotelapp.utils.DBInit;
+import com.hotelapp.utils.DBUtil;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+/**
+ * Scratch database shared by the tests of one test JVM.
+ *
+ * The first reset() points -Dhotel.db.path at a temporary file and migrates
+ * it; every reset() then empties the rooms, guests, reservations and rate
+ * rules and reloads ReservationStore, RoomCatalog and RateCalendar, so each
+ * test starts from an empty hotel. Structures built from those (indexes,
+ * calendars) are reloaded by the tests themselves.
+ */
+public final class TestDatabase {
+
+    private static boolean initialized;
+    private static int guestId = -1;
+
+    private TestDatabase() {}
+
+    public static synchronized void reset() throws Exception {
+        if (!initialized) {
+            Path file = Files.createTempFile("hotel-test", ".db");
+            file.toFile().deleteOnExit();
+            System.setProperty("hotel.db.path", file.toString());
+            DBInit.initDatabase();
+            initialized = true;
+        }
+        DBUtil.write(conn -> {
+            try (Statement s = conn.createStatement()) {
+                s.executeUpdate("DELETE FROM reservations");
+                s.executeUpdate("DELETE FROM customers");
+                s.executeUpdate("DELETE FROM rooms");
+                s.executeUpdate("DELETE FROM rate_rules");
+            }
+            return null;
+        });
+        guestId = -1;
+        ReservationStore.getInstance().load();
+        RoomCatalog.getInstance().load();
+        RateCalendar.getInstance().load();
+    }
+
+    /**
+     * Add a room through the catalog; its id is set.
+     */
+    public static Room addRoom(String number, String type, double price, String status) throws Exception {
+        Room room = new Room(number, type, price, status);
+        RoomCatalog.getInstance().addRoom(room);
+        return room;
+    }
+
+    /**
+     * Insert a stay of the test guest (ReservationStore sees it once committed; listeners are not told).
+     */
+    public static int addStay(int roomId, LocalDate checkin, LocalDate checkout, String status) throws Exception {
+        if (guestId < 0) {
+            guestId = new CustomerDAO().createCustomer(new Customer("Test Guest", "0100", null));
+        }
+        return new ReservationDAO().insertReservation(guestId, roomId, checkin, checkout, status, 0);
+    }
+}
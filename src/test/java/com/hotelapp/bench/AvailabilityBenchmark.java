@@ -0,0 +1,155 @@
+package com.hotelapp.bench;
+
+import com.hotelapp.dao.ReservationDAO;
+import com.hotelapp.dao.RoomDAO;
+import com.hotelapp.models.Reservation;
+import com.hotelapp.models.Room;
+import com.hotelapp.services.AvailabilityCalendar;
+import com.hotelapp.services.AvailabilityIndex;
+import com.hotelapp.utils.DBUtil;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares three ways of answering "which rooms are free for these nights":
+ * the SQL path (findReservationsBetween, then filter the room list in Java),
+ * the per-room interval index and the booked-night bitmap calendar.
+ * All three must agree; the checksum line shows the free-room totals.
+ * Runs against a ScratchDatabase.
+ *
+ * Usage: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.hotelapp.bench.AvailabilityBenchmark" [-Dexec.args="300 2000"]
+ */
+public class AvailabilityBenchmark {
+
+    @FunctionalInterface
+    private interface FreeRoomQuery {
+        int countFree(LocalDate checkin, LocalDate checkout) throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rooms = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        Path dbFile = ScratchDatabase.create("hotel-bench");
+        int stays = seed(rooms);
+
+        // includes the sample rooms from the baseline migration
+        List<Integer> roomIds = new ArrayList<>();
+        BitSet roomSet = new BitSet();
+        for (Room room : new RoomDAO().getAllRooms()) {
+            roomIds.add(room.getId());
+            roomSet.set(room.getId());
+        }
+
+        ReservationDAO reservationDAO = new ReservationDAO();
+        AvailabilityIndex index = AvailabilityIndex.getInstance();
+        AvailabilityCalendar calendar = AvailabilityCalendar.getInstance();
+        index.load();
+        calendar.load();
+
+        FreeRoomQuery sql = (in, out) -> {
+            Set<Integer> busy = new HashSet<>();
+            for (Reservation r : reservationDAO.findReservationsBetween(in, out)) {
+                busy.add(r.getRoomId());
+            }
+            int free = 0;
+            for (Integer id : roomIds) {
+                if (!busy.contains(id)) free++;
+            }
+            return free;
+        };
+        FreeRoomQuery intervals = (in, out) -> index.freeRooms(roomIds, in, out).size();
+        FreeRoomQuery bitmap = (in, out) -> calendar.freeRooms(roomSet, in, out).cardinality();
+
+        // warm up so JIT is not part of the numbers
+        for (FreeRoomQuery q : List.of(sql, intervals, bitmap)) {
+            run(q, queries / 4);
+        }
+
+        System.out.println("Availability benchmark: " + roomIds.size() + " rooms, " + stays + " confirmed stays, " + queries + " searches");
+        System.out.println("=====================================");
+        report("SQL findReservationsBetween", sql, queries);
+        report("Interval index", intervals, queries);
+        report("Bitmap calendar", bitmap, queries);
+        System.out.println("=====================================");
+
+        ScratchDatabase.delete(dbFile);
+    }
+
+    /**
+     * Rooms with back-to-back stays from a year ago to ~23 months ahead; one in five cancelled.
+     */
+    private static int seed(int rooms) throws SQLException {
+        Random rnd = new Random(42);
+        long today = LocalDate.now().toEpochDay();
+        int confirmed = 0;
+        try (Connection c = DBUtil.getConnection()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement("INSERT INTO customers(name, phone) VALUES ('Bench Guest', '0000')")) {
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO rooms(room_number, type, price, status) VALUES (?, ?, ?, 'FREE')")) {
+                for (int i = 1; i <= rooms; i++) {
+                    ps.setString(1, "B" + i);
+                    ps.setString(2, i % 3 == 0 ? "Deluxe" : "Single");
+                    ps.setDouble(3, 25 + i % 50);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO reservations(customer_id, room_id, checkin, checkout, status, total) " +
+                            "SELECT (SELECT MIN(id) FROM customers), id, ?, ?, ?, 0 FROM rooms WHERE room_number = ?")) {
+                for (int room = 1; room <= rooms; room++) {
+                    long day = today - 365;
+                    while (day < today + 700) {
+                        day += rnd.nextInt(4);
+                        long nights = 1 + rnd.nextInt(6);
+                        String status = rnd.nextInt(5) == 0 ? "CANCELLED" : "CONFIRMED";
+                        ps.setLong(1, day);
+                        ps.setLong(2, day + nights);
+                        ps.setString(3, status);
+                        ps.setString(4, "B" + room);
+                        ps.addBatch();
+                        if ("CONFIRMED".equals(status)) confirmed++;
+                        day += nights;
+                    }
+                }
+                ps.executeBatch();
+            }
+            c.commit();
+            c.setAutoCommit(true);
+        }
+        return confirmed;
+    }
+
+    private static long run(FreeRoomQuery query, int count) throws SQLException {
+        Random rnd = new Random(7);
+        LocalDate today = LocalDate.now();
+        long checksum = 0;
+        for (int i = 0; i < count; i++) {
+            LocalDate in = today.plusDays(rnd.nextInt(600));
+            checksum += query.countFree(in, in.plusDays(1 + rnd.nextInt(7)));
+        }
+        return checksum;
+    }
+
+    private static void report(String label, FreeRoomQuery query, int count) throws SQLException {
+        long start = System.nanoTime();
+        long checksum = run(query, count);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-28s %10.0f ops/s %10.1f us/op (checksum %d)%n",
+                label, count / (elapsed / 1e9), elapsed / 1000.0 / count, checksum);
+    }
+}
@@ -0,0 +1,199 @@
+package com.hotelapp.bench;
+
+import com.hotelapp.models.Customer;
+import com.hotelapp.services.BookingResult;
+import com.hotelapp.services.ReservationService;
+import com.hotelapp.utils.DBUtil;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hammers ReservationService.tryBook from many threads in several processes
+ * on one database file, all competing for a handful of rooms, then checks
+ * that no two active stays of a room overlap and reports bookings/sec.
+ *
+ * The extra processes stand in for other terminals: they share nothing
+ * with this JVM but the file, so only BEGIN IMMEDIATE and the conditional
+ * insert keep them from double-booking. Runs against a scratch database so
+ * the real hotel.db is never touched.
+ *
+ * Usage: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.hotelapp.bench.BookingStress" [-Dexec.args="threads attemptsPerThread processes"]
+ * Defaults: 8 threads, 200 attempts per thread, 3 processes (this one plus two children).
+ */
+public class BookingStress {
+    private static final int ROOMS = 10;
+    private static final int DAYS = 60;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--worker")) {
+            runWorker(args);
+            return;
+        }
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int attempts = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int processes = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        Path dbFile = ScratchDatabase.create("hotel-stress");
+        seedRooms();
+
+        System.out.println("Booking stress: " + processes + " process(es) x " + threads + " threads x "
+                + attempts + " attempts on " + ROOMS + " rooms over " + DAYS + " days");
+        System.out.println("=====================================");
+
+        // children first, so all processes compete from the start
+        List<Process> children = new ArrayList<>();
+        for (int p = 1; p < processes; p++) {
+            children.add(startWorkerProcess(dbFile, threads, attempts, p));
+        }
+        long start = System.nanoTime();
+        long[] totals = runThreads(threads, attempts, 0);
+        report("process 0", totals);
+        for (int p = 0; p < children.size(); p++) {
+            long[] child = readWorkerResult(children.get(p));
+            report("process " + (p + 1), child);
+            for (int i = 0; i < totals.length; i++) totals[i] += child[i];
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long stored = count("SELECT COUNT(*) FROM reservations WHERE status IN ('CONFIRMED', 'CHECKED_IN')");
+        long overlaps = count("SELECT COUNT(*) FROM reservations a JOIN reservations b " +
+                "ON a.room_id = b.room_id AND a.id < b.id AND a.checkin < b.checkout AND b.checkin < a.checkout " +
+                "WHERE a.status IN ('CONFIRMED', 'CHECKED_IN') AND b.status IN ('CONFIRMED', 'CHECKED_IN')");
+
+        System.out.println("=====================================");
+        System.out.printf("Booked %d, conflicts %d, busy retries %d in %.2f s: %.0f bookings/s, %.0f attempts/s%n",
+                totals[0], totals[1], totals[2], seconds, totals[0] / seconds, (totals[0] + totals[1]) / seconds);
+        System.out.println("Active reservations stored: " + stored + (stored == totals[0] ? " (matches)" : " (MISMATCH)"));
+        System.out.println("Overlapping stays: " + overlaps + (overlaps == 0 ? " (no double bookings)" : " (DOUBLE BOOKED)"));
+
+        ScratchDatabase.delete(dbFile);
+        if (overlaps != 0 || stored != totals[0]) System.exit(1);
+    }
+
+    // child process: --worker <db> <threads> <attempts> <seed>
+    private static void runWorker(String[] args) throws Exception {
+        System.setProperty("hotel.db.path", args[1]);
+        long[] totals = runThreads(Integer.parseInt(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+        System.out.println("RESULT " + totals[0] + " " + totals[1] + " " + totals[2]);
+        DBUtil.shutdown();
+    }
+
+    /**
+     * Returns {booked, conflicts, busy retries}.
+     */
+    private static long[] runThreads(int threads, int attempts, int seed) throws Exception {
+        ReservationService service = new ReservationService();
+        List<Integer> roomIds = new ArrayList<>();
+        try (Connection c = DBUtil.getConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id FROM rooms WHERE room_number LIKE 'S%' ORDER BY id")) {
+            while (rs.next()) roomIds.add(rs.getInt(1));
+        }
+
+        AtomicLong booked = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        AtomicLong retries = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        LocalDate today = LocalDate.now();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int threadNo = t;
+            Thread worker = new Thread(() -> {
+                Random rnd = new Random(seed * 1000L + threadNo);
+                Customer guest = new Customer("Stress Guest " + seed + "-" + threadNo, "0" + seed + threadNo, null);
+                for (int i = 0; i < attempts; i++) {
+                    int roomId = roomIds.get(rnd.nextInt(roomIds.size()));
+                    LocalDate in = today.plusDays(rnd.nextInt(DAYS));
+                    LocalDate out = in.plusDays(1 + rnd.nextInt(5));
+                    try {
+                        BookingResult result = service.tryBook(guest, roomId, in, out, 100);
+                        (result.isBooked() ? booked : conflicts).incrementAndGet();
+                        retries.addAndGet(Math.max(0, result.getAttempts() - 1));
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                        System.err.println("Booking failed: " + e.getMessage());
+                    }
+                }
+            }, "stress-" + seed + "-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) worker.join();
+        if (failures.get() > 0) {
+            System.err.println(failures.get() + " booking(s) failed with an error");
+        }
+        return new long[]{booked.get(), conflicts.get(), retries.get()};
+    }
+
+    private static void seedRooms() throws SQLException {
+        try (Connection c = DBUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(
+                     "INSERT INTO rooms(room_number, type, price, status) VALUES (?, 'Single', 50, 'FREE')")) {
+            for (int i = 1; i <= ROOMS; i++) {
+                ps.setString(1, "S" + i);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static Process startWorkerProcess(Path dbFile, int threads, int attempts, int seed) throws Exception {
+        // exec:java runs inside Maven's JVM, so java.class.path is not ours; use where the classes came from
+        String classPath = codeSource(BookingStress.class) + File.pathSeparator + codeSource(DBUtil.class)
+                + File.pathSeparator + codeSource(org.sqlite.JDBC.class);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", classPath, BookingStress.class.getName(),
+                "--worker", dbFile.toString(), String.valueOf(threads), String.valueOf(attempts), String.valueOf(seed))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    private static String codeSource(Class<?> cls) throws Exception {
+        return Paths.get(cls.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    private static long[] readWorkerResult(Process process) throws Exception {
+        long[] result = null;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith("RESULT ")) {
+                    String[] parts = line.split(" ");
+                    result = new long[]{Long.parseLong(parts[1]), Long.parseLong(parts[2]), Long.parseLong(parts[3])};
+                }
+            }
+        }
+        int exit = process.waitFor();
+        if (result == null) {
+            throw new IllegalStateException("Worker process exited with " + exit + " without a result");
+        }
+        return result;
+    }
+
+    private static long count(String sql) throws SQLException {
+        try (Connection c = DBUtil.getConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static void report(String label, long[] totals) {
+        System.out.printf("%-10s booked %6d  conflicts %6d  busy retries %4d%n", label, totals[0], totals[1], totals[2]);
+    }
+}
@@ -0,0 +1,123 @@
+package com.hotelapp.bench;
+
+import com.hotelapp.utils.DBInit;
+import com.hotelapp.utils.DBUtil;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the old DriverManager-per-call path with the pooled connections
+ * by running the same room lookup repeatedly, single-threaded and with several threads.
+ * Pooled numbers include the per-connection prepared statement cache.
+ * Runs against a ScratchDatabase.
+ *
+ * Usage: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.hotelapp.bench.ConnectionPoolBenchmark" [-Dexec.args="20000 4"]
+ */
+public class ConnectionPoolBenchmark {
+
+    private static final String LOOKUP_SQL = "SELECT id, room_number, type, price, status FROM rooms WHERE id = ?";
+    private static final int ROOMS = 200;
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        Path dbFile = ScratchDatabase.create("hotel-bench");
+        seedRooms();
+
+        String url = DBInit.getJdbcUrl();
+        ConnectionSource direct = () -> DriverManager.getConnection(url);
+        ConnectionSource pooled = DBUtil::getConnection;
+
+        // warm up both paths so JIT and the page cache are not part of the numbers
+        run("warm-up", direct, iterations / 10, 1, false);
+        run("warm-up", pooled, iterations / 10, 1, false);
+
+        System.out.println("Connection benchmark: " + iterations + " lookups, " + ROOMS + " rooms");
+        System.out.println("=====================================");
+        run("DriverManager, 1 thread", direct, iterations, 1, true);
+        run("Pooled,        1 thread", pooled, iterations, 1, true);
+        run("DriverManager, " + threads + " threads", direct, iterations, threads, true);
+        run("Pooled,        " + threads + " threads", pooled, iterations, threads, true);
+        System.out.println("=====================================");
+        System.out.println(DBUtil.getPoolStats());
+
+        ScratchDatabase.delete(dbFile);
+    }
+
+    private static void seedRooms() throws SQLException {
+        try (Connection c = DBUtil.getConnection();
+             Statement st = c.createStatement()) {
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS rooms (id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    "room_number TEXT UNIQUE NOT NULL, type TEXT NOT NULL, price REAL NOT NULL, " +
+                    "status TEXT NOT NULL DEFAULT 'FREE', created_at TEXT DEFAULT CURRENT_TIMESTAMP)");
+            st.executeUpdate("DELETE FROM rooms");
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO rooms(room_number, type, price, status) VALUES (?, ?, ?, 'FREE')")) {
+                for (int i = 1; i <= ROOMS; i++) {
+                    ps.setString(1, "B" + i);
+                    ps.setString(2, i % 3 == 0 ? "Deluxe" : "Single");
+                    ps.setDouble(3, 25 + i % 50);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            c.commit();
+            c.setAutoCommit(true);
+        }
+    }
+
+    private static void run(String label, ConnectionSource source, int iterations, int threads, boolean print) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        int perThread = iterations / threads;
+        long start = System.nanoTime();
+        List<Future<Long>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            results.add(pool.submit(() -> lookups(source, perThread, seed)));
+        }
+        long checksum = 0;
+        for (Future<Long> f : results) {
+            checksum += f.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        if (print) {
+            int done = perThread * threads;
+            System.out.printf("%-28s %10.0f ops/s %8.1f us/op (checksum %d)%n",
+                    label, done / (elapsed / 1e9), elapsed / 1000.0 / done, checksum);
+        }
+    }
+
+    private static long lookups(ConnectionSource source, int count, int seed) throws SQLException {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            try (Connection c = source.get();
+                 PreparedStatement ps = c.prepareStatement(LOOKUP_SQL)) {
+                ps.setInt(1, 1 + (i * 31 + seed) % ROOMS);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) sum += rs.getInt("id");
+                }
+            }
+        }
+        return sum;
+    }
+}
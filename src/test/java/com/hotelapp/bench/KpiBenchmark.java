@@ -0,0 +1,173 @@
+package com.hotelapp.bench;
+
+import com.hotelapp.dao.ReservationStore;
+import com.hotelapp.services.KpiRow;
+import com.hotelapp.services.KpiService;
+import com.hotelapp.services.RoomCatalog;
+import com.hotelapp.utils.DBUtil;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times KpiService over five years of history, for every grouping with and
+ * without the per-type split, and checks the sold nights and bookings of
+ * each report against SQL over the same range. Runs against a scratch
+ * database so the real hotel.db is never touched.
+ *
+ * Usage: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.hotelapp.bench.KpiBenchmark" [-Dexec.args="500000 20"]
+ * (stays, repetitions)
+ */
+public class KpiBenchmark {
+
+    private static final int ROOMS = 500;
+    private static final int GUESTS = 20_000;
+    private static final String[] TYPES = {"Single", "Double", "Deluxe", "Suite"};
+
+    public static void main(String[] args) throws Exception {
+        int stays = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        Path dbFile = ScratchDatabase.create("hotel-bench");
+        seed(stays);
+
+        ReservationStore.getInstance().load();
+        RoomCatalog.getInstance().load();
+
+        LocalDate to = LocalDate.now().minusDays(1);
+        LocalDate from = to.minusYears(5).plusDays(1);
+        long[] expected = fromSql(from, to);
+        KpiService kpis = new KpiService();
+
+        // warm up so JIT is not part of the numbers
+        for (int i = 0; i < Math.max(1, repetitions / 4); i++) {
+            for (KpiService.Grouping g : KpiService.Grouping.values()) {
+                kpis.compute(from, to, g, true);
+                kpis.compute(from, to, g, false);
+            }
+        }
+
+        System.out.printf("KPI benchmark: %d stays, %d rooms, %s - %s%n",
+                ReservationStore.getInstance().count(), ROOMS, from, to);
+        System.out.printf("SQL over the range: %d nights sold, %d bookings%n", expected[0], expected[1]);
+        System.out.println("=====================================");
+        boolean allMatch = true;
+        for (KpiService.Grouping g : KpiService.Grouping.values()) {
+            for (boolean byType : new boolean[] {false, true}) {
+                List<KpiRow> rows = null;
+                long start = System.nanoTime();
+                for (int i = 0; i < repetitions; i++) {
+                    rows = kpis.compute(from, to, g, byType);
+                }
+                double millis = (System.nanoTime() - start) / 1_000_000.0 / repetitions;
+                long sold = 0;
+                long bookings = 0;
+                for (KpiRow r : rows) {
+                    sold += r.getSoldNights();
+                    bookings += r.getBookings();
+                }
+                boolean match = sold == expected[0] && bookings == expected[1];
+                allMatch &= match;
+                System.out.printf("%-6s %-9s %6d rows %8.2f ms/op  %s%n", g, byType ? "by type" : "all",
+                        rows.size(), millis, match ? "matches SQL" : "MISMATCH (" + sold + ", " + bookings + ")");
+            }
+        }
+        System.out.println("=====================================");
+        System.out.println(allMatch ? "All reports agree with SQL" : "Reports DIFFER from SQL");
+
+        ScratchDatabase.delete(dbFile);
+    }
+
+    // {nights sold inside [from, to], stays checking in inside it}
+    private static long[] fromSql(LocalDate from, LocalDate to) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(CASE WHEN status IN ('CONFIRMED', 'CHECKED_IN', 'COMPLETED') " +
+                "AND checkin < ? AND checkout > ? THEN MIN(checkout, ?) - MAX(checkin, ?) ELSE 0 END), 0), " +
+                "COALESCE(SUM(CASE WHEN status IN ('CONFIRMED', 'CHECKED_IN', 'COMPLETED', 'CANCELLED') " +
+                "AND checkin >= ? AND checkin < ? THEN 1 ELSE 0 END), 0) FROM reservations";
+        long first = from.toEpochDay();
+        long end = to.toEpochDay() + 1;
+        try (Connection c = DBUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, end);
+            ps.setLong(2, first);
+            ps.setLong(3, end);
+            ps.setLong(4, first);
+            ps.setLong(5, first);
+            ps.setLong(6, end);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return new long[] {rs.getLong(1), rs.getLong(2)};
+            }
+        }
+    }
+
+    /**
+     * Stays spread over five years up to a year ahead, booked up to 90 days
+     * before check-in; mixed statuses and room types.
+     */
+    private static void seed(int stays) throws SQLException {
+        Random rnd = new Random(42);
+        long today = LocalDate.now().toEpochDay();
+        String[] statuses = {"COMPLETED", "COMPLETED", "COMPLETED", "CANCELLED", "CONFIRMED", "CHECKED_IN"};
+        long start = System.nanoTime();
+        try (Connection c = DBUtil.getConnection()) {
+            c.setAutoCommit(false);
+            // many guests: the customer_stats triggers recount a guest's stays on every insert
+            try (PreparedStatement ps = c.prepareStatement("INSERT INTO customers(name, phone) VALUES (?, ?)")) {
+                for (int i = 0; i < GUESTS; i++) {
+                    ps.setString(1, "Bench Guest " + i);
+                    ps.setString(2, String.valueOf(i));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO rooms(room_number, type, price, status) VALUES (?, ?, ?, 'FREE')")) {
+                for (int i = 1; i <= ROOMS; i++) {
+                    ps.setString(1, "B" + i);
+                    ps.setString(2, TYPES[i % TYPES.length]);
+                    ps.setDouble(3, 40 + 20 * (i % TYPES.length));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO reservations(customer_id, room_id, checkin, checkout, status, total, created_at) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, date(? * 86400, 'unixepoch'))")) {
+                int firstGuest = minId(c, "customers");
+                int firstRoom = minId(c, "rooms");
+                for (int i = 0; i < stays; i++) {
+                    long in = today - 5 * 365 - 30 + rnd.nextInt(6 * 365);
+                    int nights = 1 + rnd.nextInt(7);
+                    ps.setInt(1, firstGuest + rnd.nextInt(GUESTS));
+                    ps.setInt(2, firstRoom + rnd.nextInt(ROOMS));
+                    ps.setLong(3, in);
+                    ps.setLong(4, in + nights);
+                    ps.setString(5, in > today ? "CONFIRMED" : statuses[rnd.nextInt(statuses.length)]);
+                    ps.setDouble(6, nights * (30 + rnd.nextInt(7000) / 100.0));
+                    ps.setLong(7, in - rnd.nextInt(91));
+                    ps.addBatch();
+                    if (i % 10_000 == 9_999) ps.executeBatch();
+                }
+                ps.executeBatch();
+            }
+            c.commit();
+            c.setAutoCommit(true);
+        }
+        System.out.printf("Seeded %d stays in %.1f s%n", stays, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static int minId(Connection c, String table) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT MIN(id) FROM " + table);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
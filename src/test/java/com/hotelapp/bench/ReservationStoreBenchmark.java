@@ -0,0 +1,188 @@
+package com.hotelapp.bench;
+
+import com.hotelapp.dao.ReservationStore;
+import com.hotelapp.utils.DBUtil;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Loads a large reservation history into ReservationStore and compares
+ * typical aggregate questions answered by SQL with the same answers from a
+ * column scan: the dashboard counters (stays, arrivals and departures today)
+ * and revenue / room nights of the stays overlapping a month. Both must
+ * agree. Also reports the load time and the memory taken by the columns.
+ * Runs against a ScratchDatabase.
+ *
+ * Usage: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.hotelapp.bench.ReservationStoreBenchmark" [-Dexec.args="1000000 50"]
+ * (stays, repetitions)
+ */
+public class ReservationStoreBenchmark {
+
+    private static final int ROOMS = 500;
+    private static final int GUESTS = 20_000;
+
+    @FunctionalInterface
+    private interface Aggregate {
+        long compute(LocalDate day) throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int stays = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        Path dbFile = ScratchDatabase.create("hotel-bench");
+        seed(stays);
+
+        ReservationStore store = ReservationStore.getInstance();
+        store.load();
+
+        Aggregate sqlCounters = day -> {
+            String sql = "SELECT (SELECT COUNT(*) FROM reservations), " +
+                    "(SELECT COUNT(*) FROM reservations WHERE checkin = ? AND status = 'CONFIRMED'), " +
+                    "(SELECT COUNT(*) FROM reservations WHERE checkout = ? AND status IN ('CHECKED_IN', 'CONFIRMED'))";
+            try (Connection c = DBUtil.getConnection();
+                 PreparedStatement ps = c.prepareStatement(sql)) {
+                ps.setLong(1, day.toEpochDay());
+                ps.setLong(2, day.toEpochDay());
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1) + rs.getLong(2) + rs.getLong(3);
+                }
+            }
+        };
+        Aggregate storeCounters = day -> {
+            int[] movements = store.countArrivalsAndDepartures(day);
+            return store.count() + movements[0] + movements[1];
+        };
+
+        // revenue (in cents) plus booked room nights of the active and past stays overlapping [day, day + 30)
+        Aggregate sqlMonth = day -> {
+            String sql = "SELECT COALESCE(SUM(CAST(ROUND(total * 100) AS INTEGER)), 0), " +
+                    "COALESCE(SUM(MIN(checkout, ?) - MAX(checkin, ?)), 0) FROM reservations " +
+                    "WHERE checkin < ? AND checkout > ? AND status IN ('CONFIRMED', 'CHECKED_IN', 'COMPLETED')";
+            long from = day.toEpochDay();
+            long to = from + 30;
+            try (Connection c = DBUtil.getConnection();
+                 PreparedStatement ps = c.prepareStatement(sql)) {
+                ps.setLong(1, to);
+                ps.setLong(2, from);
+                ps.setLong(3, to);
+                ps.setLong(4, from);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1) + rs.getLong(2);
+                }
+            }
+        };
+        Aggregate storeMonth = day -> {
+            int from = (int) day.toEpochDay();
+            int to = from + 30;
+            long[] sums = new long[2];
+            store.scan((id, room, customer, in, out, status, total) -> {
+                if (in < to && out > from && status != ReservationStore.CANCELLED && status != ReservationStore.OTHER) {
+                    sums[0] += total;
+                    sums[1] += Math.min(out, to) - Math.max(in, from);
+                }
+            });
+            return sums[0] + sums[1];
+        };
+
+        // warm up so JIT is not part of the numbers
+        for (Aggregate a : new Aggregate[] {sqlCounters, storeCounters, sqlMonth, storeMonth}) {
+            run(a, Math.max(1, repetitions / 5));
+        }
+
+        System.out.printf("Reservation store benchmark: %d stays, loaded as %.1f MB of columns%n",
+                store.count(), store.memoryBytes() / (1024.0 * 1024.0));
+        System.out.println("=====================================");
+        report("SQL dashboard counters", sqlCounters, repetitions);
+        report("Store dashboard counters", storeCounters, repetitions);
+        report("SQL month revenue/nights", sqlMonth, repetitions);
+        report("Store month revenue/nights", storeMonth, repetitions);
+        System.out.println("=====================================");
+
+        ScratchDatabase.delete(dbFile);
+    }
+
+    /**
+     * Stays spread over five years up to a year ahead; mixed statuses.
+     */
+    private static void seed(int stays) throws SQLException {
+        Random rnd = new Random(42);
+        long today = LocalDate.now().toEpochDay();
+        String[] statuses = {"COMPLETED", "COMPLETED", "COMPLETED", "CANCELLED", "CONFIRMED", "CHECKED_IN"};
+        long start = System.nanoTime();
+        try (Connection c = DBUtil.getConnection()) {
+            c.setAutoCommit(false);
+            // many guests: the customer_stats triggers recount a guest's stays on every insert
+            try (PreparedStatement ps = c.prepareStatement("INSERT INTO customers(name, phone) VALUES (?, ?)")) {
+                for (int i = 0; i < GUESTS; i++) {
+                    ps.setString(1, "Bench Guest " + i);
+                    ps.setString(2, String.valueOf(i));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO rooms(room_number, type, price, status) VALUES (?, 'Single', 40, 'FREE')")) {
+                for (int i = 1; i <= ROOMS; i++) {
+                    ps.setString(1, "B" + i);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO reservations(customer_id, room_id, checkin, checkout, status, total) " +
+                            "VALUES (?, ?, ?, ?, ?, ?)")) {
+                int firstGuest = minId(c, "customers");
+                int firstRoom = minId(c, "rooms");
+                for (int i = 0; i < stays; i++) {
+                    long in = today - 5 * 365 + rnd.nextInt(6 * 365);
+                    int nights = 1 + rnd.nextInt(7);
+                    ps.setInt(1, firstGuest + rnd.nextInt(GUESTS));
+                    ps.setInt(2, firstRoom + rnd.nextInt(ROOMS));
+                    ps.setLong(3, in);
+                    ps.setLong(4, in + nights);
+                    ps.setString(5, in > today ? "CONFIRMED" : statuses[rnd.nextInt(statuses.length)]);
+                    ps.setDouble(6, nights * (30 + rnd.nextInt(7000) / 100.0));
+                    ps.addBatch();
+                    if (i % 10_000 == 9_999) ps.executeBatch();
+                }
+                ps.executeBatch();
+            }
+            c.commit();
+            c.setAutoCommit(true);
+        }
+        System.out.printf("Seeded %d stays in %.1f s%n", stays, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static int minId(Connection c, String table) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT MIN(id) FROM " + table);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static long run(Aggregate aggregate, int count) throws SQLException {
+        LocalDate today = LocalDate.now();
+        long checksum = 0;
+        for (int i = 0; i < count; i++) {
+            checksum += aggregate.compute(today.minusDays(i % 400));
+        }
+        return checksum;
+    }
+
+    private static void report(String label, Aggregate aggregate, int count) throws SQLException {
+        long start = System.nanoTime();
+        long checksum = run(aggregate, count);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-28s %10.2f ms/op (checksum %d)%n", label, elapsed / 1_000_000.0 / count, checksum);
+    }
+}
@@ -0,0 +1,42 @@
+package com.hotelapp.bench;
+
+import com.hotelapp.utils.DBInit;
+import com.hotelapp.utils.DBUtil;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Temporary database file for the benchmark and stress runners, so the real
+ * hotel.db is never touched.
+ *
+ * The runners are plain main() programs kept with the tests, outside the
+ * application jar. Run one with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.hotelapp.bench.KpiBenchmark" [-Dexec.args="..."]
+ */
+final class ScratchDatabase {
+
+    private ScratchDatabase() {}
+
+    /**
+     * Point -Dhotel.db.path at a new temporary file and migrate it.
+     */
+    static Path create(String prefix) throws Exception {
+        Path file = Files.createTempFile(prefix, ".db");
+        file.toFile().deleteOnExit();
+        System.setProperty("hotel.db.path", file.toString());
+        DBInit.initDatabase();
+        return file;
+    }
+
+    /**
+     * Close the pool and the writer, then delete the file with its WAL files.
+     */
+    static void delete(Path file) throws Exception {
+        DBUtil.shutdown();
+        for (String suffix : new String[]{"", "-wal", "-shm"}) {
+            Files.deleteIfExists(Paths.get(file + suffix));
+        }
+    }
+}
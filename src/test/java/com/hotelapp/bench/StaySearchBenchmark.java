@@ -0,0 +1,176 @@
+package com.hotelapp.bench;
+
+import com.hotelapp.models.RateRule;
+import com.hotelapp.models.Room;
+import com.hotelapp.services.AvailabilityCalendar;
+import com.hotelapp.services.AvailabilityIndex;
+import com.hotelapp.services.RateCalendar;
+import com.hotelapp.services.RoomCatalog;
+import com.hotelapp.services.StayOption;
+import com.hotelapp.services.StaySearch;
+import com.hotelapp.utils.DBUtil;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times the flexible-date search ("cheapest k stays of n nights in a window")
+ * against the obvious loop over check-in dates: for each date ask the
+ * interval index which rooms are free and quote every one of them. Both must
+ * return the same totals. Runs against a scratch database so the real
+ * hotel.db is never touched.
+ *
+ * Usage: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.hotelapp.bench.StaySearchBenchmark" [-Dexec.args="300 60 200"]
+ * (rooms, window days, searches)
+ */
+public class StaySearchBenchmark {
+
+    private static final int K = 10;
+
+    @FunctionalInterface
+    private interface Search {
+        List<StayOption> find(LocalDate from, LocalDate to, int nights) throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rooms = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int windowDays = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int searches = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        Path dbFile = ScratchDatabase.create("hotel-bench");
+        int stays = seed(rooms);
+        addRules();
+
+        AvailabilityIndex index = AvailabilityIndex.getInstance();
+        RateCalendar rates = RateCalendar.getInstance();
+        RoomCatalog catalog = RoomCatalog.getInstance();
+        index.load();
+        AvailabilityCalendar.getInstance().load();
+        catalog.load();
+        rates.load();
+
+        StaySearch staySearch = new StaySearch();
+        Search sweep = (from, to, nights) -> staySearch.findCheapest(from, to, nights, null, K);
+        Search perDate = (from, to, nights) -> {
+            List<Room> all = catalog.getAllRooms();
+            List<Integer> ids = new ArrayList<>();
+            for (Room r : all) {
+                if (!"MAINTENANCE".equals(r.getStatus())) ids.add(r.getId());
+            }
+            List<StayOption> options = new ArrayList<>();
+            for (LocalDate in = from; !in.plusDays(nights).isAfter(to); in = in.plusDays(1)) {
+                LocalDate out = in.plusDays(nights);
+                for (Integer id : index.freeRooms(ids, in, out)) {
+                    Room room = catalog.findById(id);
+                    options.add(new StayOption(room, in, out, rates.quote(room, in, out)));
+                }
+            }
+            options.sort(StayOption.BY_PRICE);
+            return options.subList(0, Math.min(K, options.size()));
+        };
+
+        // warm up so JIT is not part of the numbers
+        run(sweep, windowDays, searches / 4);
+        run(perDate, windowDays, searches / 4);
+
+        System.out.println("Stay search benchmark: " + catalog.getAllRooms().size() + " rooms, " + stays
+                + " confirmed stays, " + windowDays + "-day window, top " + K + ", " + searches + " searches");
+        System.out.println("=====================================");
+        report("Per-date index + quote", perDate, windowDays, searches);
+        report("Sliding window fork/join", sweep, windowDays, searches);
+        System.out.println("=====================================");
+
+        ScratchDatabase.delete(dbFile);
+    }
+
+    /**
+     * Rooms with random stays over the next ~8 months, leaving gaps of up to a week; one in five cancelled.
+     */
+    private static int seed(int rooms) throws SQLException {
+        Random rnd = new Random(42);
+        long today = LocalDate.now().toEpochDay();
+        int confirmed = 0;
+        try (Connection c = DBUtil.getConnection()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement("INSERT INTO customers(name, phone) VALUES ('Bench Guest', '0000')")) {
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO rooms(room_number, type, price, status) VALUES (?, ?, ?, 'FREE')")) {
+                for (int i = 1; i <= rooms; i++) {
+                    ps.setString(1, "B" + i);
+                    ps.setString(2, i % 3 == 0 ? "Deluxe" : "Single");
+                    ps.setDouble(3, 25 + i % 50);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = c.prepareStatement(
+                    "INSERT INTO reservations(customer_id, room_id, checkin, checkout, status, total) " +
+                            "SELECT (SELECT MIN(id) FROM customers), id, ?, ?, ?, 0 FROM rooms WHERE room_number = ?")) {
+                for (int room = 1; room <= rooms; room++) {
+                    long day = today - 30;
+                    while (day < today + 240) {
+                        day += rnd.nextInt(8);
+                        long nights = 1 + rnd.nextInt(6);
+                        String status = rnd.nextInt(5) == 0 ? "CANCELLED" : "CONFIRMED";
+                        ps.setLong(1, day);
+                        ps.setLong(2, day + nights);
+                        ps.setString(3, status);
+                        ps.setString(4, "B" + room);
+                        ps.addBatch();
+                        if ("CONFIRMED".equals(status)) confirmed++;
+                        day += nights;
+                    }
+                }
+                ps.executeBatch();
+            }
+            c.commit();
+            c.setAutoCommit(true);
+        }
+        return confirmed;
+    }
+
+    // weekend surcharge everywhere, a Deluxe high season in a month's time
+    private static void addRules() throws SQLException {
+        RateRule weekend = new RateRule();
+        weekend.setKind(RateRule.WEEKEND);
+        weekend.setRate(1.25);
+        RateCalendar.getInstance().addRule(weekend);
+
+        RateRule season = new RateRule();
+        season.setKind(RateRule.SEASON);
+        season.setRoomType("Deluxe");
+        season.setStartDate(LocalDate.now().plusDays(30));
+        season.setEndDate(LocalDate.now().plusDays(60));
+        season.setRate(1.5);
+        RateCalendar.getInstance().addRule(season);
+    }
+
+    private static double run(Search search, int windowDays, int count) throws SQLException {
+        Random rnd = new Random(7);
+        LocalDate today = LocalDate.now();
+        double checksum = 0;
+        for (int i = 0; i < count; i++) {
+            LocalDate from = today.plusDays(rnd.nextInt(180));
+            for (StayOption o : search.find(from, from.plusDays(windowDays), 1 + rnd.nextInt(5))) {
+                checksum += o.getTotal();
+            }
+        }
+        return checksum;
+    }
+
+    private static void report(String label, Search search, int windowDays, int count) throws SQLException {
+        long start = System.nanoTime();
+        double checksum = run(search, windowDays, count);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-28s %10.0f ops/s %10.2f ms/op (checksum %.2f)%n",
+                label, count / (elapsed / 1e9), elapsed / 1_000_000.0 / count, checksum);
+    }
+}
@@ -0,0 +1,192 @@
+package com.hotelapp.dao;
+
+import com.hotelapp.TestDatabase;
+import com.hotelapp.models.Customer;
+import com.hotelapp.utils.DBUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReservationStoreTest {
+
+    private static final LocalDate D = LocalDate.of(2030, 1, 1);
+
+    private final ReservationStore store = ReservationStore.getInstance();
+    private final ReservationDAO reservations = new ReservationDAO();
+    private int room;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        room = TestDatabase.addRoom("101", "Single", 50, "FREE").getId();
+    }
+
+    private static LocalDate day(int offset) {
+        return D.plusDays(offset);
+    }
+
+    private static String row(int id, int room, int customer, long in, long out, String status, long total) {
+        return id + " room " + room + " guest " + customer + " " + in + "-" + out + " " + status + " " + total;
+    }
+
+    // what the store holds, in scan order
+    private List<String> stored() throws SQLException {
+        List<String> rows = new ArrayList<>();
+        store.scan((id, room, customer, in, out, status, total) ->
+                rows.add(row(id, room, customer, in, out, ReservationStore.statusName(status), total)));
+        return rows;
+    }
+
+    // the same read straight from the table
+    private static List<String> inDatabase() throws SQLException {
+        List<String> rows = new ArrayList<>();
+        String sql = "SELECT id, room_id, customer_id, checkin, checkout, status, total FROM reservations ORDER BY id";
+        try (Connection c = DBUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String status = ReservationStore.statusName(ReservationStore.statusCode(rs.getString(6)));
+                rows.add(row(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getLong(4), rs.getLong(5),
+                        status, ReservationStore.toMinorUnits(rs.getDouble(7))));
+            }
+        }
+        return rows;
+    }
+
+    private void assertMatchesDatabase() throws SQLException {
+        List<String> expected = inDatabase();
+        assertEquals(expected, stored());
+        assertEquals(expected.size(), store.count());
+        // the store as loaded from scratch agrees with the one kept current
+        store.load();
+        assertEquals(expected, stored());
+    }
+
+    @Test
+    void statusCodes() {
+        assertEquals(ReservationStore.CHECKED_IN, ReservationStore.statusCode("checked_in"));
+        assertEquals(ReservationStore.OTHER, ReservationStore.statusCode("PENDING"));
+        assertEquals(ReservationStore.OTHER, ReservationStore.statusCode(null));
+        assertEquals("CANCELLED", ReservationStore.statusName(ReservationStore.CANCELLED));
+        assertEquals(1999, ReservationStore.toMinorUnits(19.99));
+    }
+
+    @Test
+    void loadsEveryStayInIdOrder() throws Exception {
+        TestDatabase.addStay(room, day(0), day(1), "CONFIRMED");
+        TestDatabase.addStay(room, day(1), day(3), "CHECKED_IN");
+        TestDatabase.addStay(room, day(3), day(4), "COMPLETED");
+        TestDatabase.addStay(room, day(4), day(5), "CANCELLED");
+        TestDatabase.addStay(room, day(5), day(6), "PENDING");
+        store.load();
+
+        assertMatchesDatabase();
+        assertArrayEquals(new int[] {1, 1, 1, 1, 1}, store.countByStatus());
+
+        List<Integer> blocking = new ArrayList<>();
+        store.scanBlocking((id, room, customer, in, out, status, total) -> blocking.add(in - (int) D.toEpochDay()));
+        assertEquals(List.of(0, 1), blocking);
+    }
+
+    @Test
+    void rolledBackWriteNeverShows() throws Exception {
+        int kept = TestDatabase.addStay(room, day(0), day(1), "CONFIRMED");
+        int customer = new CustomerDAO().createCustomer(new Customer("Second Guest", "0200", null));
+        assertThrows(SQLException.class, () -> DBUtil.write(conn -> {
+            reservations.insertReservation(customer, room, day(5), day(6), "CONFIRMED", 50, conn);
+            reservations.updateStatus(kept, "CANCELLED", conn);
+            throw new SQLException("rolled back on purpose");
+        }));
+        assertEquals(1, store.count());
+        assertArrayEquals(new int[] {1, 0, 0, 0, 0}, store.countByStatus());
+        assertMatchesDatabase();
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() throws Exception {
+        int a = TestDatabase.addStay(room, day(0), day(2), "CONFIRMED");
+        int b = TestDatabase.addStay(room, day(2), day(4), "CONFIRMED");
+        int c = TestDatabase.addStay(room, day(4), day(6), "CONFIRMED");
+
+        reservations.updateReservationDates(a, day(10), day(12), 99.95);
+        reservations.updateStatus(b, "CHECKED_IN");
+        reservations.deleteReservation(c);
+
+        assertEquals(2, store.count());
+        assertArrayEquals(new int[] {1, 1, 0, 0, 0}, store.countByStatus());
+        assertMatchesDatabase();
+    }
+
+    @Test
+    void roomAndGuestDeletesTakeTheirStays() throws Exception {
+        int other = TestDatabase.addRoom("102", "Single", 50, "FREE").getId();
+        TestDatabase.addStay(room, day(0), day(2), "CONFIRMED");
+        TestDatabase.addStay(other, day(0), day(2), "CONFIRMED");
+        int guest = new CustomerDAO().createCustomer(new Customer("Second Guest", "0200", null));
+        reservations.insertReservation(guest, other, day(5), day(6), "CONFIRMED", 50);
+        assertEquals(3, store.count());
+
+        new RoomDAO().deleteRoom(room);
+        assertEquals(2, store.count());
+        assertMatchesDatabase();
+
+        new CustomerDAO().deleteCustomer(guest);
+        assertEquals(1, store.count());
+        assertMatchesDatabase();
+    }
+
+    @Test
+    void countsArrivalsAndDepartures() throws Exception {
+        TestDatabase.addStay(room, day(0), day(1), "CONFIRMED");       // one night: departs day 1
+        TestDatabase.addStay(room, day(1), day(2), "CONFIRMED");       // arrives day 1
+        TestDatabase.addStay(room, day(-2), day(1), "CHECKED_IN");     // departs day 1
+        TestDatabase.addStay(room, day(1), day(3), "CHECKED_IN");      // already in: not an arrival
+        TestDatabase.addStay(room, day(1), day(4), "CANCELLED");
+        int gone = TestDatabase.addStay(room, day(1), day(5), "CONFIRMED");
+        reservations.deleteReservation(gone);
+
+        assertArrayEquals(new int[] {1, 2}, store.countArrivalsAndDepartures(day(1)));
+        assertArrayEquals(new int[] {1, 0}, store.countArrivalsAndDepartures(day(0)));
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() throws Exception {
+        TestDatabase.addStay(room, day(0), day(1), "CONFIRMED");        // creates the test guest
+        int guest = firstGuest();
+        DBUtil.write(conn -> {
+            for (int i = 0; i < 1500; i++) {
+                reservations.insertReservation(guest, room, day(i + 1), day(i + 2), i % 4 == 0 ? "CANCELLED" : "CONFIRMED", i, conn);
+            }
+            return null;
+        });
+        assertEquals(1501, store.count());
+
+        long[] nightsAndTotal = store.scanParallel(() -> new long[2], (acc, room, in, out, status, total, booked) -> {
+            acc[0] += out - in;
+            acc[1] += total;
+        }, (x, y) -> {
+            x[0] += y[0];
+            x[1] += y[1];
+            return x;
+        });
+        assertArrayEquals(new long[] {1501, 1499L * 1500 / 2 * 100}, nightsAndTotal);
+        assertMatchesDatabase();
+    }
+
+    private int firstGuest() throws SQLException {
+        int[] guest = {-1};
+        store.scan((id, room, customer, in, out, status, total) -> guest[0] = customer);
+        return guest[0];
+    }
+}
@@ -0,0 +1,170 @@
+package com.hotelapp.services;
+
+import com.hotelapp.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AvailabilityCalendarTest {
+
+    private static final LocalDate D = LocalDate.of(2030, 1, 1);
+    private static final int HORIZON = 731;
+
+    private final AvailabilityCalendar calendar = AvailabilityCalendar.getInstance();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        setToday(D);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        calendar.setClock(Clock.systemDefaultZone());
+        calendar.load();
+    }
+
+    private void setToday(LocalDate today) throws Exception {
+        setClock(today);
+        calendar.load();
+    }
+
+    private void setClock(LocalDate today) {
+        calendar.setClock(Clock.fixed(today.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC));
+    }
+
+    private static LocalDate day(int offset) {
+        return D.plusDays(offset);
+    }
+
+    private static BitSet rooms(int... ids) {
+        BitSet set = new BitSet();
+        for (int id : ids) set.set(id);
+        return set;
+    }
+
+    private BitSet booked(int from, int to) throws Exception {
+        return calendar.bookedRooms(day(from), day(to));
+    }
+
+    @Test
+    void rangesOnWordBoundaries() throws Exception {
+        calendar.booked(1, 1, day(63), day(64));        // last night of word 0
+        calendar.booked(2, 2, day(64), day(65));        // first night of word 1
+        calendar.booked(3, 3, day(127), day(128));      // last night of word 1
+
+        assertEquals(rooms(), booked(0, 63));
+        assertEquals(rooms(1), booked(0, 64));
+        assertEquals(rooms(1), booked(63, 64));
+        assertEquals(rooms(1, 2), booked(63, 65));
+        assertEquals(rooms(2), booked(64, 65));
+        assertEquals(rooms(2), booked(64, 127));
+        assertEquals(rooms(2, 3), booked(64, 128));
+        assertEquals(rooms(), booked(65, 127));
+        assertEquals(rooms(3), booked(127, 128));
+        assertEquals(rooms(), booked(128, 192));
+        assertEquals(rooms(1, 2, 3), booked(0, HORIZON));
+        assertEquals(rooms(), booked(64, 64));          // empty range
+    }
+
+    @Test
+    void oneNightStays() throws Exception {
+        calendar.booked(1, 4, day(10), day(11));
+        calendar.booked(2, 4, day(11), day(12));
+        assertEquals(rooms(), booked(9, 10));
+        assertEquals(rooms(4), booked(10, 11));
+        assertEquals(rooms(4), booked(11, 12));
+        assertEquals(rooms(), booked(12, 13));
+    }
+
+    @Test
+    void removingOneOfOverlappingStays() throws Exception {
+        calendar.booked(1, 5, day(0), day(10));
+        calendar.booked(2, 5, day(5), day(15));
+
+        calendar.statusChanged(1, "CANCELLED");
+        assertEquals(rooms(), booked(0, 5));
+        assertEquals(rooms(5), booked(5, 6));           // still held by the second stay
+        assertEquals(rooms(5), booked(14, 15));
+
+        calendar.statusChanged(2, "COMPLETED");
+        assertEquals(rooms(), booked(0, 15));
+    }
+
+    @Test
+    void datesChangedMovesTheStay() throws Exception {
+        calendar.booked(1, 5, day(0), day(3));
+        calendar.datesChanged(1, day(70), day(72));
+        assertEquals(rooms(), booked(0, 3));
+        assertEquals(rooms(5), booked(71, 72));
+    }
+
+    @Test
+    void staysAreClippedToTheHorizon() throws Exception {
+        calendar.booked(1, 6, day(-5), day(2));
+        calendar.booked(2, 7, day(HORIZON - 5), day(HORIZON + 60));
+        assertEquals(rooms(6), booked(0, 1));
+        assertEquals(rooms(), booked(2, HORIZON - 5));
+        assertEquals(rooms(7), booked(HORIZON - 1, HORIZON));
+
+        assertTrue(calendar.covers(day(0), day(HORIZON)));
+        assertFalse(calendar.covers(day(-1), day(1)));
+        assertFalse(calendar.covers(day(HORIZON - 1), day(HORIZON + 1)));
+        assertThrows(IllegalArgumentException.class, () -> booked(-1, 1));
+        assertThrows(IllegalArgumentException.class, () -> booked(HORIZON - 1, HORIZON + 1));
+        assertThrows(IllegalArgumentException.class, () -> booked(5, 4));
+    }
+
+    @Test
+    void rebasesOnceTheHorizonHasSlidThirtyDays() throws Exception {
+        int room = TestDatabase.addRoom("101", "Single", 40, "FREE").getId();
+        TestDatabase.addStay(room, day(1), day(3), "CONFIRMED");
+        TestDatabase.addStay(room, day(HORIZON + 10), day(HORIZON + 12), "CONFIRMED");
+        calendar.load();
+        assertFalse(calendar.covers(day(HORIZON + 10), day(HORIZON + 12)));
+
+        setClock(day(29));                              // not yet
+        assertFalse(calendar.covers(day(HORIZON + 10), day(HORIZON + 12)));
+        assertTrue(calendar.covers(day(1), day(3)));
+
+        setClock(day(30));
+        assertFalse(calendar.covers(day(1), day(3)));
+        assertTrue(calendar.covers(day(HORIZON + 10), day(HORIZON + 12)));
+        assertEquals(rooms(room), booked(HORIZON + 11, HORIZON + 12));
+        assertEquals(rooms(), booked(HORIZON + 12, HORIZON + 13));
+    }
+
+    @Test
+    void loadsOnlyBlockingStays() throws Exception {
+        int a = TestDatabase.addRoom("101", "Single", 40, "FREE").getId();
+        int b = TestDatabase.addRoom("102", "Single", 40, "FREE").getId();
+        TestDatabase.addStay(a, day(0), day(2), "CHECKED_IN");
+        TestDatabase.addStay(b, day(0), day(2), "CANCELLED");
+        calendar.load();
+        assertEquals(rooms(a), booked(1, 2));
+        assertEquals(rooms(b), calendar.freeRooms(rooms(a, b), day(1), day(2)));
+    }
+
+    @Test
+    void bookedNightsAcrossAWordBoundary() throws Exception {
+        calendar.booked(1, 8, day(62), day(66));
+        Map<Integer, BitSet> nights = calendar.bookedNights(List.of(8, 9), day(60), day(70));
+        BitSet expected = new BitSet();
+        expected.set(2, 6);
+        assertEquals(expected, nights.get(8));
+        assertEquals(new BitSet(), nights.get(9));
+        assertThrows(IllegalArgumentException.class, () -> calendar.bookedNights(List.of(8), day(-1), day(3)));
+    }
+}
@@ -0,0 +1,175 @@
+package com.hotelapp.services;
+
+import com.hotelapp.TestDatabase;
+import com.hotelapp.models.Customer;
+import com.hotelapp.utils.DBUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AvailabilityIndexTest {
+
+    private static final LocalDate D = LocalDate.of(2030, 1, 1);
+
+    private final AvailabilityIndex index = AvailabilityIndex.getInstance();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        index.load();
+    }
+
+    private static LocalDate day(int offset) {
+        return D.plusDays(offset);
+    }
+
+    @Test
+    void roomWithoutStaysIsFree() throws Exception {
+        assertTrue(index.isFree(1, day(0), day(10)));
+    }
+
+    @Test
+    void staysAreHalfOpen() throws Exception {
+        index.booked(1, 7, day(10), day(12));
+        assertTrue(index.isFree(7, day(9), day(10)));       // ends at the check-in
+        assertTrue(index.isFree(7, day(12), day(13)));      // starts at the check-out
+        assertFalse(index.isFree(7, day(11), day(12)));
+        assertFalse(index.isFree(7, day(9), day(13)));      // covers the stay
+        assertTrue(index.isFree(8, day(10), day(12)));      // other room
+    }
+
+    @Test
+    void oneNightStaysBackToBack() throws Exception {
+        index.booked(1, 7, day(3), day(4));
+        index.booked(2, 7, day(4), day(5));
+        assertFalse(index.isFree(7, day(3), day(4)));
+        assertFalse(index.isFree(7, day(4), day(5)));
+        assertTrue(index.isFree(7, day(5), day(6)));
+        assertTrue(index.isFree(7, day(2), day(3)));
+    }
+
+    @Test
+    void longStayBlocksNightsAfterLaterCheckins() throws Exception {
+        // a query after [5, 6) still finds the long stay through the running maximum of checkout
+        index.booked(1, 7, day(0), day(30));
+        index.booked(2, 7, day(5), day(6));
+        assertFalse(index.isFree(7, day(10), day(11)));
+        assertTrue(index.isFree(7, day(30), day(31)));
+    }
+
+    @Test
+    void removingOneOfOverlappingStays() throws Exception {
+        index.booked(1, 7, day(0), day(30));
+        index.booked(2, 7, day(5), day(6));
+        index.statusChanged(1, "CANCELLED");
+        assertTrue(index.isFree(7, day(10), day(11)));
+        assertFalse(index.isFree(7, day(5), day(6)));
+
+        index.statusChanged(2, "COMPLETED");
+        assertTrue(index.isFree(7, day(0), day(30)));
+    }
+
+    @Test
+    void checkInKeepsTheStayBlocking() throws Exception {
+        index.booked(1, 7, day(0), day(3));
+        index.statusChanged(1, "CHECKED_IN");
+        assertFalse(index.isFree(7, day(1), day(2)));
+    }
+
+    @Test
+    void datesChangedMovesTheStay() throws Exception {
+        index.booked(1, 7, day(0), day(3));
+        index.datesChanged(1, day(10), day(12));
+        assertTrue(index.isFree(7, day(0), day(3)));
+        assertFalse(index.isFree(7, day(11), day(12)));
+    }
+
+    @Test
+    void freeRoomsKeepsTheGivenOrder() throws Exception {
+        index.booked(1, 2, day(0), day(5));
+        assertEquals(List.of(3, 1), index.freeRooms(List.of(3, 2, 1), day(1), day(2)));
+    }
+
+    @Test
+    void loadsOnlyBlockingStays() throws Exception {
+        int room = TestDatabase.addRoom("101", "Single", 40, "FREE").getId();
+        TestDatabase.addStay(room, day(0), day(2), "CONFIRMED");
+        TestDatabase.addStay(room, day(2), day(4), "CHECKED_IN");
+        TestDatabase.addStay(room, day(4), day(6), "CANCELLED");
+        TestDatabase.addStay(room, day(6), day(8), "COMPLETED");
+        index.load();
+
+        assertFalse(index.isFree(room, day(1), day(2)));
+        assertFalse(index.isFree(room, day(3), day(4)));
+        assertTrue(index.isFree(room, day(4), day(8)));
+    }
+
+    @Test
+    void matchesBruteForceUnderRandomChanges() throws Exception {
+        Random rnd = new Random(6);
+        List<int[]> stays = new ArrayList<>();      // {id, checkin, checkout}, blocking ones only
+        for (int id = 1; id <= 300; id++) {
+            int op = rnd.nextInt(4);
+            if (op < 2 || stays.isEmpty()) {
+                int in = rnd.nextInt(60);
+                int[] stay = {id, in, in + 1 + rnd.nextInt(8)};
+                index.booked(id, 7, day(stay[1]), day(stay[2]));
+                stays.add(stay);
+            } else if (op == 2) {
+                int[] stay = stays.remove(rnd.nextInt(stays.size()));
+                index.statusChanged(stay[0], "CANCELLED");
+            } else {
+                int[] stay = stays.get(rnd.nextInt(stays.size()));
+                stay[1] = rnd.nextInt(60);
+                stay[2] = stay[1] + 1 + rnd.nextInt(8);
+                index.datesChanged(stay[0], day(stay[1]), day(stay[2]));
+            }
+            int from = rnd.nextInt(70);
+            int to = from + 1 + rnd.nextInt(10);
+            boolean free = true;
+            for (int[] s : stays) {
+                if (s[1] < to && s[2] > from) free = false;
+            }
+            assertEquals(free, index.isFree(7, day(from), day(to)), "after step " + id);
+        }
+    }
+
+    @Test
+    void eventsArriveOnlyWhenTheWriteCommits() throws Exception {
+        assertThrows(SQLException.class, () -> DBUtil.write(conn -> {
+            ReservationEvents.fireBooked(1, 7, day(0), day(3));
+            throw new SQLException("rolled back on purpose");
+        }));
+        assertTrue(index.isFree(7, day(0), day(3)));
+
+        DBUtil.write(conn -> {
+            ReservationEvents.fireBooked(1, 7, day(0), day(3));
+            return null;
+        });
+        assertFalse(index.isFree(7, day(0), day(3)));
+    }
+
+    @Test
+    void followsBookingAndCancellationThroughTheService() throws Exception {
+        int room = TestDatabase.addRoom("101", "Single", 40, "FREE").getId();
+        ReservationService service = new ReservationService();
+        BookingResult booked = service.tryBook(new Customer("Index Guest", "0300", null), room, day(0), day(2), 80);
+        assertEquals(BookingResult.Status.BOOKED, booked.getStatus());
+        assertFalse(index.isFree(room, day(1), day(2)));
+        assertEquals("BOOKED", RoomCatalog.getInstance().findById(room).getStatus());
+
+        service.cancelReservation(booked.getReservationId());
+        assertTrue(index.isFree(room, day(0), day(2)));
+        assertEquals("FREE", RoomCatalog.getInstance().findById(room).getStatus());
+    }
+}
@@ -0,0 +1,97 @@
+package com.hotelapp.services;
+
+import com.hotelapp.TestDatabase;
+import com.hotelapp.dao.ReservationStore;
+import com.hotelapp.models.Customer;
+import com.hotelapp.utils.DBUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Several threads booking the same few rooms must never double-book one.
+ * A small, in-process version of the BookingStress runner.
+ */
+class ConcurrentBookingTest {
+
+    private static final int ROOMS = 5;
+    private static final int DAYS = 30;
+    private static final int THREADS = 4;
+    private static final int ATTEMPTS = 60;
+
+    private final List<Integer> rooms = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        for (int i = 1; i <= ROOMS; i++) {
+            rooms.add(TestDatabase.addRoom("S" + i, "Single", 50, "FREE").getId());
+        }
+        AvailabilityIndex.getInstance().load();
+        AvailabilityCalendar.getInstance().load();
+        TypeInventory.getInstance().load();
+    }
+
+    @Test
+    void noRoomIsDoubleBooked() throws Exception {
+        ReservationService service = new ReservationService();
+        LocalDate today = LocalDate.now();
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int threadNo = t;
+            Thread worker = new Thread(() -> {
+                Random rnd = new Random(16 + threadNo);
+                Customer guest = new Customer("Stress Guest " + threadNo, "090" + threadNo, null);
+                for (int i = 0; i < ATTEMPTS; i++) {
+                    int roomId = rooms.get(rnd.nextInt(rooms.size()));
+                    LocalDate in = today.plusDays(rnd.nextInt(DAYS));
+                    LocalDate out = in.plusDays(1 + rnd.nextInt(5));
+                    try {
+                        (service.tryBook(guest, roomId, in, out, 100).isBooked() ? booked : refused).incrementAndGet();
+                    } catch (Exception e) {
+                        errors.add(e);
+                    }
+                }
+            }, "booking-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) worker.join();
+
+        assertTrue(errors.isEmpty(), () -> "bookings failed: " + errors);
+        assertEquals(THREADS * ATTEMPTS, booked.get() + refused.get());
+        assertTrue(booked.get() > 0 && refused.get() > 0, "the threads should have competed for rooms");
+
+        assertEquals(0, count("SELECT COUNT(*) FROM reservations a JOIN reservations b " +
+                "ON a.room_id = b.room_id AND a.id < b.id AND a.checkin < b.checkout AND b.checkin < a.checkout " +
+                "WHERE a.status IN ('CONFIRMED', 'CHECKED_IN') AND b.status IN ('CONFIRMED', 'CHECKED_IN')"));
+        assertEquals(booked.get(), count("SELECT COUNT(*) FROM reservations WHERE status IN ('CONFIRMED', 'CHECKED_IN')"));
+        assertEquals(booked.get(), ReservationStore.getInstance().countByStatus()[ReservationStore.CONFIRMED]);
+    }
+
+    private static long count(String sql) throws SQLException {
+        try (Connection c = DBUtil.getConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.hotelapp.services;
+
+import com.hotelapp.TestDatabase;
+import com.hotelapp.dao.CustomerDAO;
+import com.hotelapp.dao.ReservationDAO;
+import com.hotelapp.models.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KpiServiceTest {
+
+    private static final double EPS = 1e-9;
+
+    private final KpiService kpi = new KpiService();
+    private final ReservationDAO reservations = new ReservationDAO();
+
+    // two Singles and one Double; March 2030 starts on a Friday, so Mondays are the 4th, 11th, 18th and 25th
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        int single1 = TestDatabase.addRoom("101", "Single", 50, "FREE").getId();
+        int single2 = TestDatabase.addRoom("102", "Single", 50, "FREE").getId();
+        int twin = TestDatabase.addRoom("201", "Double", 90, "FREE").getId();
+        int guest = new CustomerDAO().createCustomer(new Customer("Kpi Guest", "0400", null));
+
+        reservations.insertReservation(guest, single1, feb(27), mar(2), "CONFIRMED", 300);     // 100 a night
+        reservations.insertReservation(guest, single2, mar(2), mar(5), "CHECKED_IN", 240);     // 80 a night
+        reservations.insertReservation(guest, twin, mar(3), mar(4), "COMPLETED", 150);
+        reservations.insertReservation(guest, single1, mar(3), mar(6), "CANCELLED", 999);      // no nights sold
+        reservations.insertReservation(guest, single2, mar(8), mar(9), "PENDING", 500);        // not counted at all
+        reservations.insertReservation(guest, twin, mar(10), mar(20), "CONFIRMED", 1000);      // 100 a night
+    }
+
+    private static LocalDate feb(int day) {
+        return LocalDate.of(2030, 2, day);
+    }
+
+    private static LocalDate mar(int day) {
+        return LocalDate.of(2030, 3, day);
+    }
+
+    private static void assertRow(KpiRow row, LocalDate start, LocalDate end, String type,
+                                  long available, long sold, double revenue,
+                                  double occupancy, double adr, double revpar) {
+        String what = start + " " + type;
+        assertEquals(start, row.getPeriodStart(), what);
+        assertEquals(end, row.getPeriodEnd(), what);
+        assertEquals(type, row.getRoomType(), what);
+        assertEquals(available, row.getAvailableNights(), what);
+        assertEquals(sold, row.getSoldNights(), what);
+        assertEquals(revenue, row.getRevenue(), EPS, what);
+        assertEquals(occupancy, row.getOccupancy(), EPS, what);
+        assertEquals(adr, row.getAdr(), EPS, what);
+        assertEquals(revpar, row.getRevpar(), EPS, what);
+    }
+
+    @Test
+    void byDay() throws Exception {
+        List<KpiRow> rows = kpi.compute(mar(1), mar(14), KpiService.Grouping.DAY, false);
+        assertEquals(14, rows.size());
+        assertRow(rows.get(0), mar(1), mar(1), null, 3, 1, 100, 1 / 3.0, 100, 100 / 3.0);
+        assertRow(rows.get(1), mar(2), mar(2), null, 3, 1, 80, 1 / 3.0, 80, 80 / 3.0);
+        assertRow(rows.get(2), mar(3), mar(3), null, 3, 2, 230, 2 / 3.0, 115, 230 / 3.0);
+        assertRow(rows.get(3), mar(4), mar(4), null, 3, 1, 80, 1 / 3.0, 80, 80 / 3.0);
+        for (int day = 5; day <= 9; day++) {
+            assertRow(rows.get(day - 1), mar(day), mar(day), null, 3, 0, 0, 0, 0, 0);
+        }
+        for (int day = 10; day <= 14; day++) {
+            assertRow(rows.get(day - 1), mar(day), mar(day), null, 3, 1, 100, 1 / 3.0, 100, 100 / 3.0);
+        }
+    }
+
+    @Test
+    void byWeekWithClippedEdges() throws Exception {
+        List<KpiRow> rows = kpi.compute(mar(1), mar(14), KpiService.Grouping.WEEK, false);
+        assertEquals(3, rows.size());
+        // Friday to Sunday: 3 rooms x 3 days
+        assertRow(rows.get(0), mar(1), mar(3), null, 9, 4, 410, 4 / 9.0, 102.5, 410 / 9.0);
+        assertRow(rows.get(1), mar(4), mar(10), null, 21, 2, 180, 2 / 21.0, 90, 180 / 21.0);
+        // cut at the end of the range, though the last stay runs on to the 20th
+        assertRow(rows.get(2), mar(11), mar(14), null, 12, 4, 400, 4 / 12.0, 100, 400 / 12.0);
+
+        KpiRow first = rows.get(0);
+        assertEquals(3, first.getBookings());
+        assertEquals(1, first.getCancellations());
+        assertEquals(2, first.getArrivals());
+        assertEquals(2.0, first.getAverageStay(), EPS);
+    }
+
+    @Test
+    void byWeekAndRoomType() throws Exception {
+        List<KpiRow> rows = kpi.compute(mar(1), mar(10), KpiService.Grouping.WEEK, true);
+        assertEquals(4, rows.size());
+        assertRow(rows.get(0), mar(1), mar(3), "Double", 3, 1, 150, 1 / 3.0, 150, 50);
+        assertRow(rows.get(1), mar(1), mar(3), "Single", 6, 3, 260, 0.5, 260 / 3.0, 260 / 6.0);
+        assertRow(rows.get(2), mar(4), mar(10), "Double", 7, 1, 100, 1 / 7.0, 100, 100 / 7.0);
+        assertRow(rows.get(3), mar(4), mar(10), "Single", 14, 1, 80, 1 / 14.0, 80, 80 / 14.0);
+    }
+
+    @Test
+    void byMonthAcrossTheTurnOfTheMonth() throws Exception {
+        List<KpiRow> rows = kpi.compute(feb(25), mar(3), KpiService.Grouping.MONTH, false);
+        assertEquals(2, rows.size());
+        assertRow(rows.get(0), feb(25), feb(28), null, 12, 2, 200, 2 / 12.0, 100, 200 / 12.0);
+        assertRow(rows.get(1), mar(1), mar(3), null, 9, 4, 410, 4 / 9.0, 102.5, 410 / 9.0);
+
+        List<KpiRow> whole = kpi.compute(feb(25), mar(3), KpiService.Grouping.TOTAL, false);
+        assertEquals(1, whole.size());
+        assertRow(whole.get(0), feb(25), mar(3), null, 21, 6, 610, 6 / 21.0, 610 / 6.0, 610 / 21.0);
+    }
+
+    @Test
+    void rejectsAReversedRange() {
+        assertThrows(IllegalArgumentException.class, () -> kpi.compute(mar(2), mar(1), KpiService.Grouping.DAY, false));
+    }
+}
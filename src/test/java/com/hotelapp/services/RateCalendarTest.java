@@ -0,0 +1,176 @@
+package com.hotelapp.services;
+
+import com.hotelapp.TestDatabase;
+import com.hotelapp.models.RateRule;
+import com.hotelapp.models.Room;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RateCalendarTest {
+
+    // a Tuesday; the horizon runs from 366 days before it to 731 days after
+    private static final LocalDate D = LocalDate.of(2030, 1, 1);
+    private static final int PAST = 366;
+    private static final int FUTURE = 731;
+
+    private final RateCalendar rates = RateCalendar.getInstance();
+    private Room single;
+    private Room suite;
+    private Room twin;          // a type without rules of its own
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        setClock(D);
+        single = TestDatabase.addRoom("101", "Single", 50, "FREE");
+        suite = TestDatabase.addRoom("301", "Suite", 120, "FREE");
+        twin = TestDatabase.addRoom("201", "Double", 70, "FREE");
+
+        rule(null, RateRule.WEEKEND, null, null, 1.5);
+        rule("Suite", RateRule.SEASON, 10, 20, 2.0);
+        rule("Single", RateRule.SEASON, 12, 25, 3.0);
+        rule("Single", RateRule.OVERRIDE, 15, 18, 80);          // wins over the season and the weekend
+        rule(null, RateRule.SEASON, 100, 110, 0.5);
+        rule(null, RateRule.SEASON, -1000, -300, 2.0);          // starts before the horizon
+        rule("Single", RateRule.OVERRIDE, 700, null, 99);       // runs on past its end
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        rates.setClock(Clock.systemDefaultZone());
+        rates.load();
+    }
+
+    private void setClock(LocalDate today) {
+        rates.setClock(Clock.fixed(today.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC));
+    }
+
+    private static LocalDate day(int offset) {
+        return D.plusDays(offset);
+    }
+
+    private void rule(String type, String kind, Integer from, Integer to, double rate) throws Exception {
+        rates.addRule(new RateRule(type, kind, from == null ? null : day(from), to == null ? null : day(to), rate));
+    }
+
+    private double quote(Room room, int from, int to) throws Exception {
+        return rates.quote(room, day(from), day(to));
+    }
+
+    // the stay priced the slow way, one night at a time
+    private double nightByNight(Room room, int from, int to) throws Exception {
+        double total = 0;
+        for (double rate : rates.nightlyRates(room, day(from), day(to))) total += rate;
+        return Math.round(total * 100) / 100.0;
+    }
+
+    @Test
+    void handComputedStays() throws Exception {
+        // Friday and Saturday nights of the suite season: 120 x 2 x 1.5 each
+        assertEquals(720, quote(suite, 10, 12));
+        // Tuesday at the season rate, three overridden nights (Friday included), then a season Saturday
+        assertEquals(150 + 3 * 80 + 225, quote(single, 14, 19));
+        assertEquals(List.of(150.0, 80.0, 80.0, 80.0, 225.0), toList(rates.nightlyRates(single, day(14), day(19))));
+        // the Single and Suite rules leave the Double alone: Thursday and Friday at half price
+        assertEquals(35 + 52.5, quote(twin, 100, 102));
+        assertEquals(2 * 120 * 1.5, quote(suite, 3, 5));        // the first weekend of the year
+        assertEquals(70, quote(twin, 0, 1));
+    }
+
+    @Test
+    void matchesTheNightlyRatesInsideAndAcrossTheHorizon() throws Exception {
+        Random rnd = new Random(21);
+        for (int i = 0; i < 600; i++) {
+            Room room = List.of(single, suite, twin).get(rnd.nextInt(3));
+            int from = -PAST - 60 + rnd.nextInt(PAST + FUTURE + 120);
+            int to = from + 1 + rnd.nextInt(45);
+            assertEquals(nightByNight(room, from, to), quote(room, from, to), 1e-9,
+                    room.getType() + " " + from + "-" + to);
+        }
+        // right at both edges
+        for (Room room : List.of(single, suite, twin)) {
+            assertEquals(nightByNight(room, -PAST, -PAST + 5), quote(room, -PAST, -PAST + 5), 1e-9);
+            assertEquals(nightByNight(room, -PAST - 1, -PAST + 5), quote(room, -PAST - 1, -PAST + 5), 1e-9);
+            assertEquals(nightByNight(room, FUTURE - 5, FUTURE), quote(room, FUTURE - 5, FUTURE), 1e-9);
+            assertEquals(nightByNight(room, FUTURE - 5, FUTURE + 1), quote(room, FUTURE - 5, FUTURE + 1), 1e-9);
+        }
+        assertEquals(7 * 99, quote(single, FUTURE - 3, FUTURE + 4));
+    }
+
+    @Test
+    void quoteCheckinsMatchesOneQuotePerCheckin() throws Exception {
+        for (Room room : List.of(single, suite, twin)) {
+            for (int first : new int[] {-PAST - 10, 0, 95, FUTURE - 20}) {
+                double[] quotes = rates.quoteCheckins(room, day(first), 30, 4);
+                double[] expected = new double[30];
+                for (int i = 0; i < 30; i++) expected[i] = nightByNight(room, first + i, first + i + 4);
+                assertArrayEquals(expected, quotes, 1e-9, room.getType() + " from " + first);
+            }
+        }
+    }
+
+    @Test
+    void quotesByRoomAndByType() throws Exception {
+        Map<Integer, Double> byRoom = rates.quoteRooms(List.of(twin, single), day(14), day(19));
+        assertEquals(List.of(twin.getId(), single.getId()), List.copyOf(byRoom.keySet()));
+        assertEquals(nightByNight(twin, 14, 19), byRoom.get(twin.getId()));
+        assertEquals(615, byRoom.get(single.getId()));
+
+        TestDatabase.addRoom("302", "Suite", 100, "FREE");
+        Map<String, Double> byType = rates.quoteByType(day(10), day(12));
+        assertEquals(2 * 100 * 2 * 1.5, byType.get("Suite"));     // the cheaper suite
+        assertEquals(2 * 50 * 1.5, byType.get("Single"));          // its season starts two nights later
+    }
+
+    @Test
+    void rebasesOnceTheHorizonHasSlidThirtyDays() throws Exception {
+        int[][] stays = {{-PAST - 20, -PAST + 10}, {-340, -320}, {FUTURE - 10, FUTURE + 25}, {FUTURE + 5, FUTURE + 40}};
+        double[][] before = new double[stays.length][];
+        for (int i = 0; i < stays.length; i++) {
+            before[i] = new double[] {quote(single, stays[i][0], stays[i][1]), quote(twin, stays[i][0], stays[i][1])};
+        }
+
+        for (int today : new int[] {30, 31, 400}) {
+            setClock(day(today));
+            for (int i = 0; i < stays.length; i++) {
+                assertEquals(before[i][0], quote(single, stays[i][0], stays[i][1]), 1e-9, "today " + today + ", stay " + i);
+                assertEquals(before[i][1], quote(twin, stays[i][0], stays[i][1]), 1e-9, "today " + today + ", stay " + i);
+            }
+            // around the new edges
+            int from = today - PAST - 3;
+            int to = today + FUTURE + 3;
+            assertEquals(nightByNight(twin, from, from + 10), quote(twin, from, from + 10), 1e-9);
+            assertEquals(nightByNight(single, to - 10, to), quote(single, to - 10, to), 1e-9);
+        }
+
+        // a new rule is built into the re-based horizon
+        rule("Double", RateRule.OVERRIDE, 1100, 1105, 60);
+        assertEquals(5 * 60 + 70, quote(twin, 1100, 1106));              // then a Monday at the room price
+        assertEquals(nightByNight(twin, 1100, 1106), quote(twin, 1100, 1106), 1e-9);
+    }
+
+    @Test
+    void rejectsEmptyStays() {
+        assertThrows(IllegalArgumentException.class, () -> quote(single, 5, 5));
+        assertThrows(IllegalArgumentException.class, () -> quote(single, 6, 5));
+        assertThrows(IllegalArgumentException.class, () -> rates.quoteCheckins(single, day(0), 3, 0));
+    }
+
+    private static List<Double> toList(double[] values) {
+        Double[] boxed = new Double[values.length];
+        for (int i = 0; i < values.length; i++) boxed[i] = values[i];
+        return List.of(boxed);
+    }
+}
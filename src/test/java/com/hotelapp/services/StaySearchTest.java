@@ -0,0 +1,158 @@
+package com.hotelapp.services;
+
+import com.hotelapp.TestDatabase;
+import com.hotelapp.models.Room;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StaySearchTest {
+
+    // the search works from today's calendar, so dates are relative to the real today
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private final StaySearch search = new StaySearch();
+    private final List<Room> rooms = new ArrayList<>();
+    private final List<int[]> stays = new ArrayList<>();     // {room id, checkin, checkout} as offsets from TODAY
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+    }
+
+    private static LocalDate day(int offset) {
+        return TODAY.plusDays(offset);
+    }
+
+    private Room room(String number, String type, double price, String status) throws Exception {
+        Room room = TestDatabase.addRoom(number, type, price, status);
+        rooms.add(room);
+        return room;
+    }
+
+    private void stay(Room room, int checkin, int checkout) throws Exception {
+        TestDatabase.addStay(room.getId(), day(checkin), day(checkout), "CONFIRMED");
+        stays.add(new int[] {room.getId(), checkin, checkout});
+    }
+
+    private void loadIndexes() throws Exception {
+        AvailabilityCalendar.getInstance().load();
+        AvailabilityIndex.getInstance().load();
+    }
+
+    private static List<String> describe(List<StayOption> options) {
+        List<String> lines = new ArrayList<>();
+        for (StayOption o : options) {
+            lines.add(o.getRoom().getRoomNumber() + " " + o.getCheckin() + " - " + o.getCheckout() + " " + o.getTotal());
+        }
+        return lines;
+    }
+
+    // every free stay of every eligible room, no rate rules (total = price x nights), sorted and cut to k
+    private List<StayOption> bruteForce(int windowStart, int windowEnd, int nights, String type, int k) {
+        List<StayOption> all = new ArrayList<>();
+        for (Room r : rooms) {
+            if ("MAINTENANCE".equals(r.getStatus()) || (type != null && !type.equals(r.getType()))) continue;
+            for (int in = windowStart; in + nights <= windowEnd; in++) {
+                boolean free = true;
+                for (int[] s : stays) {
+                    if (s[0] == r.getId() && s[1] < in + nights && s[2] > in) free = false;
+                }
+                if (free) all.add(new StayOption(r, day(in), day(in + nights), r.getPrice() * nights));
+            }
+        }
+        all.sort(StayOption.BY_PRICE);
+        return all.subList(0, Math.min(k, all.size()));
+    }
+
+    @Test
+    void skipsCheckinsOverlappingABookedNight() throws Exception {
+        Room r = room("101", "Single", 50, "FREE");
+        stay(r, 3, 4);                                  // a one-night stay in the middle of the window
+        loadIndexes();
+
+        List<StayOption> options = search.findCheapest(day(1), day(7), 2, null, 10);
+        assertEquals(List.of(
+                "101 " + day(1) + " - " + day(3) + " 100.0",
+                "101 " + day(4) + " - " + day(6) + " 100.0",
+                "101 " + day(5) + " - " + day(7) + " 100.0"), describe(options));
+    }
+
+    @Test
+    void stayAsLongAsTheWindow() throws Exception {
+        Room r = room("101", "Single", 50, "FREE");
+        loadIndexes();
+        assertEquals(1, search.findCheapest(day(1), day(8), 7, null, 10).size());
+
+        stay(r, 7, 8);
+        loadIndexes();
+        assertTrue(search.findCheapest(day(1), day(8), 7, null, 10).isEmpty());
+    }
+
+    @Test
+    void roomsUnderMaintenanceAndOtherTypesAreLeftOut() throws Exception {
+        room("101", "Single", 50, "MAINTENANCE");
+        room("201", "Double", 80, "FREE");
+        loadIndexes();
+
+        assertTrue(search.findCheapest(day(1), day(5), 2, "Single", 10).isEmpty());
+        List<StayOption> options = search.findCheapest(day(1), day(5), 2, null, 10);
+        assertEquals(3, options.size());
+        for (StayOption o : options) assertEquals("201", o.getRoom().getRoomNumber());
+    }
+
+    @Test
+    void matchesBruteForceAcrossManyRooms() throws Exception {
+        // more rooms than one fork/join leaf takes, so the per-task heaps are merged
+        Random rnd = new Random(22);
+        String[] types = {"Single", "Double", "Suite"};
+        for (int i = 0; i < 70; i++) {
+            room("R" + i, types[i % 3], 40 + rnd.nextInt(6) * 10, i % 11 == 0 ? "MAINTENANCE" : "FREE");
+        }
+        for (int i = 0; i < 400; i++) {
+            Room r = rooms.get(rnd.nextInt(rooms.size()));
+            int in = rnd.nextInt(90);
+            stay(r, in, in + 1 + rnd.nextInt(5));
+        }
+        loadIndexes();
+
+        int[][] searches = {{0, 14, 3}, {10, 74, 1}, {60, 130, 7}, {5, 6, 1}};
+        for (int[] s : searches) {
+            for (String type : new String[] {null, "Double"}) {
+                for (int k : new int[] {1, 20, 500}) {
+                    assertEquals(describe(bruteForce(s[0], s[1], s[2], type, k)),
+                            describe(search.findCheapest(day(s[0]), day(s[1]), s[2], type, k)),
+                            "window " + s[0] + "-" + s[1] + ", " + s[2] + " nights, " + type + ", k " + k);
+                }
+            }
+        }
+    }
+
+    @Test
+    void beyondTheCalendarUsesTheIntervalIndex() throws Exception {
+        Room a = room("101", "Single", 50, "FREE");
+        Room b = room("102", "Single", 60, "FREE");
+        stay(a, 800, 803);
+        stay(b, 801, 802);
+        loadIndexes();
+
+        assertEquals(describe(bruteForce(798, 806, 2, null, 50)),
+                describe(search.findCheapest(day(798), day(806), 2, null, 50)));
+    }
+
+    @Test
+    void rejectsBadWindows() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> search.findCheapest(day(5), day(5), 1));
+        assertThrows(IllegalArgumentException.class, () -> search.findCheapest(day(1), day(3), 3));
+        assertThrows(IllegalArgumentException.class, () -> search.findCheapest(day(1), day(3), 0));
+        assertTrue(search.findCheapest(day(1), day(3), 1, null, 0).isEmpty());
+    }
+}
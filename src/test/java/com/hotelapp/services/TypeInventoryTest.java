@@ -0,0 +1,235 @@
+package com.hotelapp.services;
+
+import com.hotelapp.TestDatabase;
+import com.hotelapp.dao.ReservationDAO;
+import com.hotelapp.dao.ReservationStore;
+import com.hotelapp.models.Customer;
+import com.hotelapp.models.Room;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TypeInventoryTest {
+
+    private static final LocalDate D = LocalDate.of(2030, 1, 1);
+    private static final int HORIZON = 731;
+
+    private final TypeInventory inventory = TypeInventory.getInstance();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        setClock(D);
+        inventory.load();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        inventory.setClock(Clock.systemDefaultZone());
+        inventory.load();
+    }
+
+    private void setClock(LocalDate today) {
+        inventory.setClock(Clock.fixed(today.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC));
+    }
+
+    private static LocalDate day(int offset) {
+        return D.plusDays(offset);
+    }
+
+    private int left(String type, int from, int to) throws Exception {
+        return inventory.available(type, day(from), day(to));
+    }
+
+    private static int room(String number, String type, String status) throws Exception {
+        return TestDatabase.addRoom(number, type, 50, status).getId();
+    }
+
+    @Test
+    void countsRoomsInService() throws Exception {
+        room("101", "Single", "FREE");
+        room("102", "Single", "BOOKED");
+        room("103", "Single", "MAINTENANCE");
+        room("201", "Double", "FREE");
+        inventory.load();
+
+        assertEquals(2, left("Single", 0, 1));
+        assertEquals(1, left("Double", 0, HORIZON));
+        assertEquals(Map.of("Double", 1, "Single", 2), inventory.availableByType(day(0), day(5)));
+        assertEquals(0, left("Suite", 0, 1));                  // unknown type
+    }
+
+    @Test
+    void typeWithNoRoomInService() throws Exception {
+        int a = room("301", "Suite", "MAINTENANCE");
+        room("302", "Suite", "MAINTENANCE");
+        inventory.load();
+        assertEquals(0, left("Suite", 0, 10));
+        assertFalse(inventory.canSell(a, day(0), day(1)));
+
+        // a stay kept in a room under maintenance oversells the type
+        inventory.booked(1, a, day(2), day(4));
+        assertEquals(-1, left("Suite", 3, 4));
+        assertEquals(0, left("Suite", 4, 5));
+    }
+
+    @Test
+    void oneNightStays() throws Exception {
+        int a = room("101", "Single", "FREE");
+        int b = room("102", "Single", "FREE");
+        inventory.load();
+        inventory.booked(1, a, day(5), day(6));
+        inventory.booked(2, b, day(5), day(6));
+        inventory.booked(3, a, day(6), day(7));
+
+        assertEquals(2, left("Single", 4, 5));
+        assertEquals(0, left("Single", 5, 6));
+        assertEquals(1, left("Single", 6, 7));
+        assertEquals(0, left("Single", 0, 10));
+        assertFalse(inventory.canSell(a, day(5), day(6)));
+        assertTrue(inventory.canSell(a, day(6), day(7)));
+    }
+
+    @Test
+    void removingOneOfOverlappingStays() throws Exception {
+        int a = room("101", "Single", "FREE");
+        int b = room("102", "Single", "FREE");
+        inventory.load();
+        inventory.booked(1, a, day(0), day(10));
+        inventory.booked(2, b, day(5), day(15));
+        assertEquals(0, left("Single", 5, 10));
+
+        inventory.statusChanged(1, "CANCELLED");
+        assertEquals(1, left("Single", 5, 10));
+        assertEquals(2, left("Single", 0, 5));
+        assertEquals(1, left("Single", 14, 15));
+
+        inventory.datesChanged(2, day(20), day(21));
+        assertEquals(2, left("Single", 0, 20));
+        assertEquals(1, left("Single", 0, 21));
+    }
+
+    @Test
+    void matchesBruteForceUnderRandomChanges() throws Exception {
+        List<Integer> rooms = new ArrayList<>();
+        for (int i = 0; i < 6; i++) rooms.add(room("10" + i, "Single", "FREE"));
+        inventory.load();
+
+        Random rnd = new Random(23);
+        int nights = 300;
+        int[] taken = new int[nights];
+        List<int[]> stays = new ArrayList<>();      // {id, checkin, checkout}
+        for (int id = 1; id <= 400; id++) {
+            if (stays.isEmpty() || rnd.nextInt(3) > 0) {
+                int in = rnd.nextInt(nights - 40);
+                int[] stay = {id, in, in + 1 + rnd.nextInt(40)};
+                inventory.booked(id, rooms.get(rnd.nextInt(rooms.size())), day(stay[1]), day(stay[2]));
+                for (int n = stay[1]; n < stay[2]; n++) taken[n]++;
+                stays.add(stay);
+            } else {
+                int[] stay = stays.remove(rnd.nextInt(stays.size()));
+                inventory.statusChanged(stay[0], "CANCELLED");
+                for (int n = stay[1]; n < stay[2]; n++) taken[n]--;
+            }
+            int from = rnd.nextInt(nights - 1);
+            int to = from + 1 + rnd.nextInt(nights - from - 1);
+            int fewest = Integer.MAX_VALUE;
+            for (int n = from; n < to; n++) fewest = Math.min(fewest, rooms.size() - taken[n]);
+            assertEquals(fewest, left("Single", from, to), "after step " + id + ", nights " + from + "-" + to);
+        }
+    }
+
+    @Test
+    void staysAreClippedToTheHorizon() throws Exception {
+        int a = room("101", "Single", "FREE");
+        int b = room("102", "Single", "FREE");
+        inventory.load();
+        inventory.booked(1, a, day(-10), day(2));
+        inventory.booked(2, b, day(HORIZON - 1), day(HORIZON + 30));
+        assertEquals(1, left("Single", 0, 2));
+        assertEquals(2, left("Single", 2, HORIZON - 1));
+        assertEquals(1, left("Single", HORIZON - 1, HORIZON));
+
+        assertFalse(inventory.covers(day(-1), day(1)));
+        assertFalse(inventory.covers(day(HORIZON - 1), day(HORIZON + 1)));
+        assertTrue(inventory.canSell(b, day(HORIZON), day(HORIZON + 5)));     // outside: not limited
+        assertThrows(IllegalArgumentException.class, () -> left("Single", -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> left("Single", HORIZON - 1, HORIZON + 1));
+        assertThrows(IllegalArgumentException.class, () -> left("Single", 3, 3));
+    }
+
+    @Test
+    void rebasesOnceTheHorizonHasSlidThirtyDays() throws Exception {
+        int a = room("101", "Single", "FREE");
+        TestDatabase.addStay(a, day(HORIZON + 5), day(HORIZON + 8), "CONFIRMED");
+        inventory.load();
+        assertFalse(inventory.covers(day(HORIZON + 5), day(HORIZON + 8)));
+
+        setClock(day(29));
+        assertFalse(inventory.covers(day(HORIZON + 5), day(HORIZON + 8)));
+
+        setClock(day(30));
+        assertTrue(inventory.covers(day(HORIZON + 5), day(HORIZON + 8)));
+        assertEquals(0, left("Single", HORIZON + 7, HORIZON + 8));
+        assertEquals(1, left("Single", HORIZON + 8, HORIZON + 9));
+        assertFalse(inventory.covers(day(29), day(31)));
+    }
+
+    @Test
+    void followsRoomCatalogChanges() throws Exception {
+        Room a = TestDatabase.addRoom("101", "Single", 50, "FREE");
+        room("102", "Single", "FREE");
+        inventory.load();
+        inventory.booked(1, a.getId(), day(0), day(3));
+        assertEquals(1, left("Single", 0, 3));
+
+        a.setStatus("MAINTENANCE");
+        RoomCatalog.getInstance().updateRoom(a);
+        assertEquals(0, left("Single", 0, 3));              // its stay still counts
+        assertEquals(1, left("Single", 3, 4));
+
+        a.setType("Double");
+        a.setStatus("FREE");
+        RoomCatalog.getInstance().updateRoom(a);
+        assertEquals(1, left("Single", 0, 3));
+        assertEquals(0, left("Double", 0, 3));
+        assertEquals(1, left("Double", 3, 4));
+
+        room("103", "Single", "FREE");
+        assertEquals(2, left("Single", 0, 3));
+    }
+
+    @Test
+    void bookingChecksTheLimitAgainstTheDatabase() throws Exception {
+        int a = room("101", "Single", "FREE");
+        int b = room("102", "Single", "MAINTENANCE");
+        inventory.load();
+        // written behind the inventory's back, as another terminal would
+        TestDatabase.addStay(a, day(0), day(3), "CONFIRMED");
+        assertTrue(inventory.canSell(b, day(1), day(2)));
+        assertEquals(0, new ReservationDAO().fewestRoomsLeft(b, day(1), day(2), null));
+        assertEquals(1, new ReservationDAO().fewestRoomsLeft(b, day(3), day(4), null));
+
+        ReservationService service = new ReservationService();
+        Customer guest = new Customer("Other Guest", "0200", null);
+        int before = ReservationStore.getInstance().count();
+        assertEquals(BookingResult.Status.SOLD_OUT, service.tryBook(guest, b, day(1), day(2), 50).getStatus());
+        assertEquals(before, ReservationStore.getInstance().count());          // rolled back
+
+        assertEquals(BookingResult.Status.BOOKED, service.tryBook(guest, b, day(3), day(4), 50).getStatus());
+        assertEquals(before + 1, ReservationStore.getInstance().count());
+    }
+}